@@ -1,11 +1,16 @@
 package dev.phlp.stud.evaluator;
 
+import java.util.Arrays;
+
 public final class ApplicationLauncher {
     private ApplicationLauncher() {
         // Utility class
     }
 
     static void main(String[] args) {
+        if (args.length > 0 && HeadlessEvaluator.FLAG.equals(args[0])) {
+            System.exit(HeadlessEvaluator.run(Arrays.copyOfRange(args, 1, args.length), System.out, System.err));
+        }
         EvaluatorApp.launch(EvaluatorApp.class, args);
     }
 }
@@ -42,7 +42,7 @@ public class EvaluatorApp extends Application {
     private static final String WINDOW_TITLE_SUFFIX = " | Evaluator by github.com/palukku";
     private final ConfigService configService = new ConfigService();
     private final AutoSaveService autoSaveService = new AutoSaveService();
-    private final CommandRunner commandRunner = new CommandRunner();
+    private final CommandRunner commandRunner = new CommandRunner(CommandRunner.ThreadMode.VIRTUAL);
     private final CommandLogService commandLogService = new CommandLogService();
     private final MarkdownExporter markdownExporter = new MarkdownExporter();
     private final GitService gitService = new GitService();
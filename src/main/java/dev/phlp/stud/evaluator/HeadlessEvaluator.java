@@ -0,0 +1,225 @@
+package dev.phlp.stud.evaluator;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+import dev.phlp.stud.evaluator.model.EvaluationNode;
+import dev.phlp.stud.evaluator.model.RubricIndex;
+import dev.phlp.stud.evaluator.model.config.EvaluationConfig;
+import dev.phlp.stud.evaluator.service.command.CommandLogService;
+import dev.phlp.stud.evaluator.service.command.CommandRunner;
+import dev.phlp.stud.evaluator.service.export.MarkdownExporter;
+import dev.phlp.stud.evaluator.service.git.GitService;
+import dev.phlp.stud.evaluator.service.repository.PlaceholderRange;
+import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
+import dev.phlp.stud.evaluator.service.repository.RepositoryPreparationResult;
+import dev.phlp.stud.evaluator.service.storage.AutoSaveService;
+import dev.phlp.stud.evaluator.service.storage.ConfigService;
+import dev.phlp.stud.evaluator.service.workflow.CohortExportService;
+import dev.phlp.stud.evaluator.service.workflow.CrossRepositoryBatchService;
+import dev.phlp.stud.evaluator.service.workflow.EvaluationEngine;
+
+/**
+ * Runs a complete evaluation without a display: prepares the repositories,
+ * runs every command of the configuration in all of them, stores the
+ * evaluation files and exports the Markdown feedback. Results cached for the
+ * checked-out commits are reused unless {@code --force} is given.
+ *
+ * <pre>
+ * --headless &lt;config.json&gt; &lt;start&gt; &lt;end&gt; [--template &lt;url&gt;] [--base-dir &lt;dir&gt;] [--force]
+ * </pre>
+ */
+public final class HeadlessEvaluator {
+    static final String FLAG = "--headless";
+
+    private static final String USAGE =
+            "Aufruf: " + FLAG + " <config.json> <start> <end> [--template <url>] [--base-dir <dir>] [--force]";
+
+    private final EvaluationEngine engine;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    HeadlessEvaluator(EvaluationEngine engine, PrintStream out, PrintStream err) {
+        this.engine = Objects.requireNonNull(engine, "engine must not be null");
+        this.out = Objects.requireNonNull(out, "out must not be null");
+        this.err = Objects.requireNonNull(err, "err must not be null");
+    }
+
+    /**
+     * @param out receives the progress and the results
+     * @param err receives usage, configuration and evaluation errors
+     * @return process exit code: 0 on success, 1 if any repository failed and
+     * 2 for invalid arguments
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Objects.requireNonNull(out, "out must not be null");
+        Objects.requireNonNull(err, "err must not be null");
+        Path configFile = null;
+        Integer start = null;
+        Integer end = null;
+        String template = null;
+        boolean forceRerun = false;
+        Path baseDirectory = Path.of(System.getProperty("user.dir")).toAbsolutePath();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--template" ->
+                            template = args[++i];
+                    case "--base-dir" ->
+                            baseDirectory = Path.of(args[++i]).toAbsolutePath();
+                    case "--force" ->
+                            forceRerun = true;
+                    default -> {
+                        if (configFile == null) {
+                            configFile = Path.of(args[i]);
+                        } else if (start == null) {
+                            start = Integer.parseInt(args[i]);
+                        } else if (end == null) {
+                            end = Integer.parseInt(args[i]);
+                        } else {
+                            throw new IllegalArgumentException("Unbekanntes Argument: " + args[i]);
+                        }
+                    }
+                }
+            }
+            if (configFile == null || start == null || end == null) {
+                throw new IllegalArgumentException("Konfiguration und Platzhalter-Bereich fehlen");
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            err.println(USAGE);
+            return 2;
+        }
+
+        EvaluationConfig config;
+        try {
+            config = new ConfigService().load(configFile.toFile());
+        } catch (IOException ex) {
+            err.println("Konfiguration konnte nicht geladen werden: " + ex.getMessage());
+            return 2;
+        }
+        PlaceholderRange placeholderRange;
+        try {
+            placeholderRange = new PlaceholderRange(start, end);
+        } catch (IllegalArgumentException ex) {
+            err.println("Platzhalter-Bereich: " + ex.getMessage());
+            return 2;
+        }
+
+        try (CommandRunner commandRunner = new CommandRunner(CommandRunner.ThreadMode.VIRTUAL);
+             AutoSaveService autoSaveService = new AutoSaveService()) {
+            CommandLogService commandLogService = new CommandLogService();
+            commandLogService.setArchiveEnabled(Boolean.TRUE.equals(config.getArchiveCommandLogs()));
+            EvaluationEngine engine = new EvaluationEngine(new GitService(), commandRunner, commandLogService,
+                    autoSaveService, new MarkdownExporter());
+            return new HeadlessEvaluator(engine, out, err)
+                    .evaluate(config, template, placeholderRange, baseDirectory, forceRerun);
+        }
+    }
+
+    int evaluate(EvaluationConfig config, String template, PlaceholderRange placeholderRange, Path baseDirectory) {
+        return evaluate(config, template, placeholderRange, baseDirectory, false);
+    }
+
+    int evaluate(EvaluationConfig config, String template, PlaceholderRange placeholderRange, Path baseDirectory,
+                 boolean forceRerun) {
+        String repositoryTemplate = Optional.ofNullable(template)
+                                            .or(() -> Optional.ofNullable(config.getRepositoryUrlTemplate()))
+                                            .map(String::trim)
+                                            .filter(value -> !value.isBlank())
+                                            .orElse(null);
+        if (repositoryTemplate == null) {
+            err.println("Repository-Template fehlt: --template angeben oder in der Konfiguration setzen.");
+            return 2;
+        }
+
+        out.println("Bereite Repositories vor...");
+        RepositoryPreparationResult prepared = engine.prepareRepositories(
+                engine.preparationRequest(config, repositoryTemplate, placeholderRange, baseDirectory),
+                (completed, total) -> out.println("Vorbereitet: " + completed + "/" + total));
+        boolean failed = !prepared.errors().isBlank();
+        if (failed) {
+            err.print("Einige Repositories konnten nicht vorbereitet werden:" + System.lineSeparator() + prepared.errors());
+        }
+        List<RepositoryContext> contexts = prepared.contexts();
+        if (contexts.isEmpty()) {
+            err.println("Keine Repositories verfuegbar");
+            return 1;
+        }
+
+        // one tree for the run and the export, so both work on the same rubric
+        RubricIndex rubric = engine.buildRubric(config);
+        double maxPoints = rubric.roots().stream().mapToDouble(EvaluationNode::getMaxPoints).sum();
+        List<CrossRepositoryBatchService.RepositoryBatchResult> results = engine.runAllCommands(config, contexts,
+                rubric.roots(), forceRerun, new CrossRepositoryBatchService.BatchListener() {
+                    @Override
+                    public void onRepositoryStarted(RepositoryContext repository) {
+                        out.println(label(repository) + " Kommandos werden ausgefuehrt");
+                    }
+
+                    @Override
+                    public void onOutput(RepositoryContext repository, List<String> lines) {
+                        // output is kept in the per-repository log files
+                    }
+
+                    @Override
+                    public void onRepositoryFinished(CrossRepositoryBatchService.RepositoryBatchResult result) {
+                        result.errors().forEach(error -> err.println(label(result.repository()) + " " + error));
+                    }
+                });
+        for (CrossRepositoryBatchService.RepositoryBatchResult result : results) {
+            if (!result.errors().isEmpty()) {
+                failed = true;
+            }
+        }
+
+        List<CohortExportService.RepositoryExportResult> exports;
+        try {
+            exports = engine.exportCohortMarkdown(config, rubric, contexts);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            err.println("Export abgebrochen");
+            return 1;
+        }
+        for (CohortExportService.RepositoryExportResult export : exports) {
+            if (export.successful()) {
+                out.println(label(export.repository()) + " " + formatPoints(export.achievedPoints()) + " / "
+                        + formatPoints(maxPoints) + " Punkte, exportiert: " + export.file());
+            } else {
+                failed = true;
+                err.println(label(export.repository()) + " Export fehlgeschlagen: " + export.error());
+            }
+        }
+        out.println("Durchschnitt: " + formatPoints(averagePoints(exports)) + " / " + formatPoints(maxPoints) + " Punkte");
+        return failed ?
+               1 :
+               0;
+    }
+
+    /**
+     * Averages the points of the successful exports; failed exports are
+     * reported separately and may carry no points at all.
+     */
+    static double averagePoints(List<CohortExportService.RepositoryExportResult> exports) {
+        return exports.stream()
+                      .filter(CohortExportService.RepositoryExportResult::successful)
+                      .mapToDouble(CohortExportService.RepositoryExportResult::achievedPoints)
+                      .average()
+                      .orElse(0.0);
+    }
+
+    private static String label(RepositoryContext context) {
+        return "[" + EvaluationEngine.formatPlaceholder(context.placeholderValue()) + "]";
+    }
+
+    private static String formatPoints(double value) {
+        if (value == (long) value) {
+            return String.format(Locale.ROOT, "%d", (long) value);
+        }
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
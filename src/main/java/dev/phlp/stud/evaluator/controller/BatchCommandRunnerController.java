@@ -2,8 +2,11 @@ package dev.phlp.stud.evaluator.controller;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -33,16 +36,25 @@ import javafx.scene.control.SpinnerValueFactory;
 import javafx.scene.control.TextArea;
 import javafx.stage.Stage;
 
-import dev.phlp.stud.evaluator.controller.CommandTerminalController.CommandOutcome;
 import dev.phlp.stud.evaluator.model.EvaluationNode;
 import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.model.state.ExecutionCacheEntry;
+import dev.phlp.stud.evaluator.service.command.CommandLogSink;
+import dev.phlp.stud.evaluator.service.command.CommandOutcome;
 import dev.phlp.stud.evaluator.service.command.CommandRunner;
+import dev.phlp.stud.evaluator.service.command.ExecutionResultCache;
+import dev.phlp.stud.evaluator.service.command.LogTail;
+import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
 import dev.phlp.stud.evaluator.service.workflow.CommandExecutionContext;
+import dev.phlp.stud.evaluator.service.workflow.CrossRepositoryBatchService;
+import dev.phlp.stud.evaluator.service.workflow.CrossRepositoryExecutionContext;
 import dev.phlp.stud.evaluator.service.workflow.EvaluationWorkflow;
 
 /**
  * Runs all runnable child tasks of a category sequentially while providing
- * feedback about their execution state and logs.
+ * feedback about their execution state and logs. In cross-repository mode the
+ * list shows one entry per prepared repository instead, and the tasks run in
+ * all repositories in parallel.
  */
 public final class BatchCommandRunnerController {
 
@@ -55,6 +67,10 @@ public final class BatchCommandRunnerController {
     @FXML
     private Label headerLabel;
     @FXML
+    private Label descriptionLabel;
+    @FXML
+    private Label listTitleLabel;
+    @FXML
     private Label taskTitleLabel;
     @FXML
     private Label statusValueLabel;
@@ -70,6 +86,8 @@ public final class BatchCommandRunnerController {
     private ProgressIndicator progressIndicator;
     @FXML
     private Button closeButton;
+    @FXML
+    private Button forceRerunButton;
     private EvaluationWorkflow workflow;
     private Stage stage;
     private BatchEntry currentEntry;
@@ -95,7 +113,7 @@ public final class BatchCommandRunnerController {
         });
         pointsSpinner.getEditor().setOnAction(event -> commitSpinnerEditor(pointsSpinner));
         pointsSpinner.valueProperty().addListener((obs, oldValue, newValue) -> {
-            if (!updatingSpinnerValue && currentEntry != null && newValue != null) {
+            if (!updatingSpinnerValue && currentEntry != null && currentEntry.getNode() != null && newValue != null) {
                 currentEntry.getNode().setAchievedPoints(newValue);
             }
         });
@@ -110,6 +128,7 @@ public final class BatchCommandRunnerController {
 
         headerLabel.setText(categoryName);
         closeButton.setOnAction(event -> this.stage.close());
+        forceRerunButton.setOnAction(event -> runSequentially(true));
 
         entries.setAll(runnableNodes.stream().map(BatchEntry::new).toList());
         if (!entries.isEmpty()) {
@@ -118,30 +137,115 @@ public final class BatchCommandRunnerController {
             updateDetailView(null);
         }
 
-        runSequentially();
+        runSequentially(false);
     }
 
-    private void runSequentially() {
+    public void configureAcrossRepositories(Stage stage, EvaluationWorkflow workflow, String categoryName,
+                                            List<EvaluationNode> runnableNodes, CrossRepositoryExecutionContext context) {
+        this.stage = Objects.requireNonNull(stage, "stage must not be null");
+        this.workflow = Objects.requireNonNull(workflow, "workflow must not be null");
+        Objects.requireNonNull(runnableNodes, "runnableNodes must not be null");
+        Objects.requireNonNull(context, "context must not be null");
+
+        headerLabel.setText(categoryName);
+        descriptionLabel.setText("Fuehre die Kommandos in " + context.repositories().size()
+                + " Repositories aus (max. " + context.parallelism() + " gleichzeitig).");
+        listTitleLabel.setText("Repositories");
+        closeButton.setOnAction(event -> this.stage.close());
+        forceRerunButton.setOnAction(event -> runAcrossRepositories(runnableNodes, context, true));
+
+        double maxPoints = runnableNodes.stream().mapToDouble(EvaluationNode::getMaxPoints).sum();
+        entries.setAll(context.repositories().stream()
+                              .map(repository -> new BatchEntry(repository, maxPoints))
+                              .toList());
+        if (!entries.isEmpty()) {
+            taskListView.getSelectionModel().select(0);
+        } else {
+            updateDetailView(null);
+        }
+
+        runAcrossRepositories(runnableNodes, context, false);
+    }
+
+    private void runSequentially(boolean forceRerun) {
         if (entries.isEmpty()) {
             return;
         }
         progressIndicator.setVisible(true);
         closeButton.setDisable(true);
+        forceRerunButton.setDisable(true);
 
         CompletableFuture.runAsync(() -> {
             for (BatchEntry entry : entries) {
-                executeEntry(entry);
+                executeEntry(entry, forceRerun);
             }
         }).whenComplete((ignored, throwable) -> Platform.runLater(() -> {
             progressIndicator.setVisible(false);
             closeButton.setDisable(false);
+            forceRerunButton.setDisable(false);
             if (throwable != null) {
                 logArea.appendText(System.lineSeparator() + "[ERR] " + throwable.getMessage() + System.lineSeparator());
             }
         }));
     }
 
-    private void executeEntry(BatchEntry entry) {
+    private void runAcrossRepositories(List<EvaluationNode> runnableNodes, CrossRepositoryExecutionContext context,
+                                       boolean forceRerun) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        progressIndicator.setVisible(true);
+        closeButton.setDisable(true);
+        forceRerunButton.setDisable(true);
+
+        workflow.onCrossRepositoryExecutionStarted();
+        Map<RepositoryContext, BatchEntry> entriesByRepository = new HashMap<>();
+        entries.forEach(entry -> entriesByRepository.put(entry.getRepository(), entry));
+        CrossRepositoryBatchService.BatchListener listener = new CrossRepositoryBatchService.BatchListener() {
+            @Override
+            public void onRepositoryStarted(RepositoryContext repository) {
+                BatchEntry entry = entriesByRepository.get(repository);
+                entry.clearLogBuffer();
+                Platform.runLater(() -> {
+                    entry.setLogText("");
+                    entry.setStatus(EvaluationStatus.RUNNING);
+                    refreshDetailsIfSelected(entry);
+                });
+            }
+
+            @Override
+            public void onOutput(RepositoryContext repository, List<String> lines) {
+                appendLogSnapshot(entriesByRepository.get(repository), lines);
+            }
+
+            @Override
+            public void onRepositoryFinished(CrossRepositoryBatchService.RepositoryBatchResult result) {
+                BatchEntry entry = entriesByRepository.get(result.repository());
+                result.errors().forEach(error -> appendLogSnapshot(entry, "[ERR] " + error));
+                Platform.runLater(() -> {
+                    entry.setAchievedPoints(result.achievedPoints());
+                    entry.setStatus(
+                            result.successful() ?
+                            EvaluationStatus.SUCCESS :
+                            EvaluationStatus.FAILED);
+                    refreshDetailsIfSelected(entry);
+                });
+            }
+        };
+
+        CompletableFuture.runAsync(() -> context.batchService().run(context.repositories(), runnableNodes,
+                context.parallelism(), forceRerun, listener)).whenComplete((ignored, throwable) -> Platform.runLater(() -> {
+            progressIndicator.setVisible(false);
+            closeButton.setDisable(false);
+            forceRerunButton.setDisable(false);
+            workflow.onCrossRepositoryExecutionFinished();
+            if (throwable != null) {
+                logArea.appendText(System.lineSeparator() + "[ERR] " + throwable.getMessage() + System.lineSeparator());
+            }
+        }));
+    }
+
+    private void executeEntry(BatchEntry entry, boolean forceRerun) {
         Optional<CommandExecutionContext> contextOptional = workflow.createCommandExecutionContext(entry.getNode());
         if (contextOptional.isEmpty()) {
             Platform.runLater(() -> {
@@ -154,12 +258,29 @@ public final class BatchCommandRunnerController {
         }
 
         CommandExecutionContext context = contextOptional.get();
+        List<String> commands = entry.getNode().getCommands();
+        Optional<ExecutionCacheEntry> cached =
+                forceRerun ?
+                Optional.empty() :
+                context.executionResultCache().lookup(context.evaluationDirectory(), context.commitId(),
+                        entry.getNode().getQualifiedName(), commands);
+        if (cached.isPresent()) {
+            ExecutionCacheEntry cachedEntry = cached.get();
+            entry.clearLogBuffer();
+            appendLogSnapshot(entry, "Ergebnis aus dem Cache (Exit " + cachedEntry.getExitCode()
+                    + "). \"Ohne Cache erneut ausfuehren\" startet die Kommandos neu.");
+            applyOutcome(entry, ExecutionResultCache.outcome(cachedEntry), cachedEntry.getExitCode(),
+                    Optional.ofNullable(cachedEntry.getLogFile()).map(Path::of).orElse(null));
+            return;
+        }
+
         CountDownLatch latch = new CountDownLatch(1);
         AtomicInteger lastExitCode = new AtomicInteger(0);
         AtomicBoolean encounteredFailure = new AtomicBoolean(false);
         AtomicBoolean cancelled = new AtomicBoolean(false);
 
         entry.clearLogBuffer();
+        CommandLogSink logSink = openLogSink(context, entry);
         Platform.runLater(() -> {
             entry.setLogText("");
             entry.clearExitCode();
@@ -177,22 +298,33 @@ public final class BatchCommandRunnerController {
                 new CommandRunner.CommandOutputListener() {
                     @Override
                     public void onCommandStarted(String command) {
-                        appendLogSnapshot(entry, "$ " + command);
+                        appendOutput(entry, logSink, List.of("$ " + command));
                     }
 
                     @Override
                     public void onStdout(String line) {
-                        appendLogSnapshot(entry, "[OUT] " + line);
+                        appendOutput(entry, logSink, List.of("[OUT] " + line));
                     }
 
                     @Override
                     public void onStderr(String line) {
-                        appendLogSnapshot(entry, "[ERR] " + line);
+                        appendOutput(entry, logSink, List.of("[ERR] " + line));
+                    }
+
+                    @Override
+                    public void onOutput(List<CommandRunner.OutputLine> lines) {
+                        List<String> formatted = new ArrayList<>(lines.size());
+                        for (CommandRunner.OutputLine line : lines) {
+                            formatted.add((line.stderr() ?
+                                           "[ERR] " :
+                                           "[OUT] ") + line.text());
+                        }
+                        appendOutput(entry, logSink, formatted);
                     }
 
                     @Override
                     public void onCommandFinished(String command, int exitCode) {
-                        appendLogSnapshot(entry, "Command beendet (Exit " + exitCode + ")");
+                        appendOutput(entry, logSink, List.of("Command beendet (Exit " + exitCode + ")"));
                         lastExitCode.set(exitCode);
                         if (exitCode != 0) {
                             encounteredFailure.set(true);
@@ -202,7 +334,7 @@ public final class BatchCommandRunnerController {
                     @Override
                     public void onFailure(String command, Exception exception) {
                         encounteredFailure.set(true);
-                        appendLogSnapshot(entry, "Fehler bei '" + command + "': " + exception.getMessage());
+                        appendOutput(entry, logSink, List.of("Fehler bei '" + command + "': " + exception.getMessage()));
                     }
 
                     @Override
@@ -210,7 +342,8 @@ public final class BatchCommandRunnerController {
                         cancelled.set(cancelledExecution);
                         latch.countDown();
                     }
-                });
+                },
+                CommandRunner.OutputBatching.DEFAULT);
 
         try {
             latch.await();
@@ -233,17 +366,26 @@ public final class BatchCommandRunnerController {
                 0 :
                 lastExitCode.get();
         Path logPath = null;
+        if (logSink != null) {
+            try {
+                logPath = context.commandLogService().writeLog(logSink);
+            } catch (IOException ex) {
+                appendLogSnapshot(entry, "[ERR] Log konnte nicht gespeichert werden: " + ex.getMessage());
+            }
+        }
         try {
-            logPath = context.commandLogService().writeLog(
-                    context.evaluationDirectory(),
-                    entry.getNode().getQualifiedName(),
-                    entry.getNode().getCommands(),
-                    entry.snapshotLog());
+            context.executionResultCache().record(context.evaluationDirectory(), context.commitId(),
+                    entry.getNode().getQualifiedName(), commands, outcome, exitCodeValue,
+                    logPath != null ?
+                    logPath.toString().replace("\\", "/") :
+                    null);
         } catch (IOException ex) {
-            appendLogSnapshot(entry, "[ERR] Log konnte nicht gespeichert werden: " + ex.getMessage());
+            appendLogSnapshot(entry, "[ERR] Cache konnte nicht gespeichert werden: " + ex.getMessage());
         }
+        applyOutcome(entry, outcome, exitCodeValue, logPath);
+    }
 
-        Path finalLogPath = logPath;
+    private void applyOutcome(BatchEntry entry, CommandOutcome outcome, int exitCodeValue, Path logPath) {
         Platform.runLater(() -> {
             entry.setExitCode(exitCodeValue, true);
             switch (outcome) {
@@ -262,8 +404,8 @@ public final class BatchCommandRunnerController {
             }
 
             workflow.onCommandExecutionFinished(entry.getNode(), outcome);
-            if (finalLogPath != null) {
-                workflow.recordLogReference(entry.getNode(), finalLogPath);
+            if (logPath != null) {
+                workflow.recordLogReference(entry.getNode(), logPath);
             }
             refreshDetailsIfSelected(entry);
         });
@@ -279,6 +421,10 @@ public final class BatchCommandRunnerController {
             pointsSpinner.setDisable(true);
             return;
         }
+        if (entry.getNode() == null) {
+            updateRepositoryDetailView(entry);
+            return;
+        }
         taskTitleLabel.setText("Aufgabe: " + entry.getNode().getName());
         statusValueLabel.setText(describeStatus(entry.getStatus()));
         exitCodeValueLabel.setText(
@@ -300,14 +446,52 @@ public final class BatchCommandRunnerController {
         logArea.setText(entry.getLogText());
     }
 
+    private void updateRepositoryDetailView(BatchEntry entry) {
+        taskTitleLabel.setText(entry.getLabel());
+        statusValueLabel.setText(describeStatus(entry.getStatus()));
+        exitCodeValueLabel.setText("-");
+        maxPointsValueLabel.setText(formatPoints(entry.getMaxPoints()));
+        double spinnerMax = Math.max(entry.getMaxPoints(), entry.getAchievedPoints());
+        updatingSpinnerValue = true;
+        pointsSpinner.setValueFactory(
+                new SpinnerValueFactory.DoubleSpinnerValueFactory(0.0, spinnerMax, entry.getAchievedPoints(), 0.5));
+        updatingSpinnerValue = false;
+        // points are stored per repository by the batch; adjust them in the evaluation view
+        pointsSpinner.setDisable(true);
+        logArea.setText(entry.getLogText());
+    }
+
     private void refreshDetailsIfSelected(BatchEntry entry) {
         if (entry != null && entry == currentEntry) {
             updateDetailView(entry);
         }
     }
 
+    private CommandLogSink openLogSink(CommandExecutionContext context, BatchEntry entry) {
+        try {
+            return context.commandLogService().openLog(
+                    context.evaluationDirectory(),
+                    entry.getNode().getQualifiedName(),
+                    entry.getNode().getCommands());
+        } catch (IOException ex) {
+            appendLogSnapshot(entry, "[ERR] Log konnte nicht angelegt werden: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private void appendOutput(BatchEntry entry, CommandLogSink logSink, List<String> lines) {
+        if (logSink != null) {
+            logSink.append(lines);
+        }
+        appendLogSnapshot(entry, lines);
+    }
+
     private void appendLogSnapshot(BatchEntry entry, String line) {
-        String snapshot = entry.appendLine(line);
+        appendLogSnapshot(entry, List.of(line));
+    }
+
+    private void appendLogSnapshot(BatchEntry entry, List<String> lines) {
+        String snapshot = entry.appendLines(lines);
         Platform.runLater(() -> {
             entry.setLogText(snapshot);
             if (entry == currentEntry) {
@@ -360,7 +544,10 @@ public final class BatchCommandRunnerController {
 
     private static final class BatchEntry {
         private final EvaluationNode node;
-        private final StringBuilder logBuffer = new StringBuilder();
+        private final RepositoryContext repository;
+        private final double maxPoints;
+        private double achievedPoints;
+        private final LogTail logTail = new LogTail();
         private final StringProperty logText = new SimpleStringProperty("");
         private final ObjectProperty<EvaluationStatus> status = new SimpleObjectProperty<>(EvaluationStatus.PENDING);
         private final IntegerProperty exitCode = new SimpleIntegerProperty(0);
@@ -368,12 +555,45 @@ public final class BatchCommandRunnerController {
 
         private BatchEntry(EvaluationNode node) {
             this.node = Objects.requireNonNull(node, "node");
+            this.repository = null;
+            this.maxPoints = node.getMaxPoints();
         }
 
+        private BatchEntry(RepositoryContext repository, double maxPoints) {
+            this.node = null;
+            this.repository = Objects.requireNonNull(repository, "repository");
+            this.maxPoints = maxPoints;
+        }
+
+        /**
+         * @return the task of this entry, or {@code null} for a repository entry
+         */
         EvaluationNode getNode() {
             return node;
         }
 
+        RepositoryContext getRepository() {
+            return repository;
+        }
+
+        String getLabel() {
+            return node != null ?
+                   node.getName() :
+                   String.format(Locale.ROOT, "Repository %03d", repository.placeholderValue());
+        }
+
+        double getMaxPoints() {
+            return maxPoints;
+        }
+
+        double getAchievedPoints() {
+            return achievedPoints;
+        }
+
+        void setAchievedPoints(double achievedPoints) {
+            this.achievedPoints = achievedPoints;
+        }
+
         ObjectProperty<EvaluationStatus> statusProperty() {
             return status;
         }
@@ -386,23 +606,15 @@ public final class BatchCommandRunnerController {
             status.set(newStatus);
         }
 
-        String appendLine(String line) {
-            synchronized (logBuffer) {
-                logBuffer.append(line).append(System.lineSeparator());
-                return logBuffer.toString();
-            }
-        }
-
-        CharSequence snapshotLog() {
-            synchronized (logBuffer) {
-                return new StringBuilder(logBuffer);
+        String appendLines(List<String> lines) {
+            synchronized (logTail) {
+                logTail.append(lines);
+                return logTail.text();
             }
         }
 
         void clearLogBuffer() {
-            synchronized (logBuffer) {
-                logBuffer.setLength(0);
-            }
+            logTail.clear();
         }
 
         String getLogText() {
@@ -461,7 +673,7 @@ public final class BatchCommandRunnerController {
         }
 
         private void updateCellText(BatchEntry entry) {
-            setText(entry.getNode().getName() + " — " + describeStatus(entry.getStatus()));
+            setText(entry.getLabel() + " — " + describeStatus(entry.getStatus()));
         }
 
         private void applyStyle(EvaluationStatus status) {
@@ -1,9 +1,14 @@
 package dev.phlp.stud.evaluator.controller;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import javafx.application.Platform;
@@ -16,17 +21,17 @@ import javafx.scene.control.SpinnerValueFactory;
 import javafx.scene.control.TextArea;
 import javafx.stage.Stage;
 
+import dev.phlp.stud.evaluator.model.state.ExecutionCacheEntry;
 import dev.phlp.stud.evaluator.service.command.CommandLogService;
+import dev.phlp.stud.evaluator.service.command.CommandLogSink;
+import dev.phlp.stud.evaluator.service.command.CommandOutcome;
 import dev.phlp.stud.evaluator.service.command.CommandRunner;
+import dev.phlp.stud.evaluator.service.command.ExecutionResultCache;
+import dev.phlp.stud.evaluator.service.command.LogTail;
 
 public class CommandTerminalController {
-    public enum CommandOutcome {
-        SUCCESS,
-        FAILED,
-        CANCELLED
-    }
     private static final DecimalFormat POINT_FORMAT = new DecimalFormat("0.##");
-    private final StringBuilder logBuffer = new StringBuilder();
+    private volatile CommandLogSink logSink;
     @FXML
     private Label titleLabel;
     @FXML
@@ -54,6 +59,8 @@ public class CommandTerminalController {
     private Stage stage;
     private CommandRunner commandRunner;
     private CommandLogService commandLogService;
+    private ExecutionResultCache executionResultCache;
+    private String commitId;
     private CommandRunner.CommandExecution execution;
     private List<String> commands;
     private Path repositoryPath;
@@ -63,11 +70,13 @@ public class CommandTerminalController {
     private double maxPoints;
     private double currentPoints;
     private boolean encounteredFailure;
+    private volatile int lastExitCode;
     private boolean isRunning;
 
     public void configure(Stage stage, String nodeQualifiedName, List<String> commands, Path repositoryPath,
                           Path evaluationDirectory, double maxPoints, double currentPoints, CommandRunner commandRunner,
-                          CommandLogService commandLogService, TerminalResultHandler resultHandler) {
+                          CommandLogService commandLogService, ExecutionResultCache executionResultCache, String commitId,
+                          TerminalResultHandler resultHandler) {
         this.stage = stage;
         this.nodeQualifiedName = nodeQualifiedName;
         this.commands = commands;
@@ -75,6 +84,8 @@ public class CommandTerminalController {
         this.evaluationDirectory = evaluationDirectory;
         this.commandRunner = commandRunner;
         this.commandLogService = commandLogService;
+        this.executionResultCache = executionResultCache;
+        this.commitId = commitId;
         this.resultHandler = resultHandler;
         this.maxPoints = maxPoints;
         this.currentPoints = currentPoints;
@@ -98,7 +109,56 @@ public class CommandTerminalController {
         rerunButton.setOnAction(event -> runCommands(true));
         closeButton.setOnAction(event -> stage.close());
 
-        runCommands(false);
+        if (!showCachedResult()) {
+            runCommands(false);
+        }
+    }
+
+    /**
+     * Shows the cached result for the checked-out commit instead of running
+     * the commands; "Erneut ausfuehren" always runs them.
+     *
+     * @return whether a cached result was found
+     */
+    private boolean showCachedResult() {
+        if (executionResultCache == null || commands == null) {
+            return false;
+        }
+        Optional<ExecutionCacheEntry> cached =
+                executionResultCache.lookup(evaluationDirectory, commitId, nodeQualifiedName, commands);
+        if (cached.isEmpty()) {
+            return false;
+        }
+        ExecutionCacheEntry entry = cached.get();
+        CommandOutcome outcome = ExecutionResultCache.outcome(entry);
+        progressIndicator.setVisible(false);
+        cancelButton.setDisable(true);
+        rerunButton.setDisable(false);
+        statusLabel.setText((outcome == CommandOutcome.SUCCESS ?
+                             "Fertig" :
+                             "Fehlgeschlagen") + " (aus dem Cache)");
+        appendLine("=== Ergebnis aus dem Cache (Exit " + entry.getExitCode() + ") ===");
+        String logFile = entry.getLogFile();
+        if (logFile != null && commandLogService != null) {
+            CompletableFuture.runAsync(() -> {
+                LogTail tail = new LogTail();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        commandLogService.openLogReference(evaluationDirectory, logFile), StandardCharsets.UTF_8))) {
+                    reader.lines().forEach(tail::append);
+                    String text = tail.text();
+                    Platform.runLater(() -> appendOutput(text));
+                } catch (IOException | UncheckedIOException ex) {
+                    appendLine("[ERR] Log konnte nicht gelesen werden: " + ex.getMessage());
+                }
+            });
+            if (resultHandler != null) {
+                resultHandler.onLogCreated(Path.of(logFile));
+            }
+        }
+        if (resultHandler != null) {
+            resultHandler.onExecutionFinished(outcome);
+        }
+        return true;
     }
 
     private void configurePointsControls() {
@@ -174,8 +234,9 @@ public class CommandTerminalController {
             return;
         }
         encounteredFailure = false;
+        lastExitCode = 0;
         isRunning = true;
-        logBuffer.setLength(0);
+        logSink = openLogSink();
         progressIndicator.setVisible(true);
         cancelButton.setDisable(false);
         rerunButton.setDisable(true);
@@ -193,24 +254,41 @@ public class CommandTerminalController {
             @Override
             public void onCommandStarted(String command) {
                 appendLine("$ " + command);
-                logBuffer.append("$ ").append(command).append(System.lineSeparator());
+                appendToLog("$ " + command);
             }
 
             @Override
             public void onStdout(String line) {
-                appendLine("[OUT] " + line);
-                logBuffer.append(line).append(System.lineSeparator());
+                onOutput(List.of(new CommandRunner.OutputLine(line, false)));
             }
 
             @Override
             public void onStderr(String line) {
-                appendLine("[ERR] " + line);
-                logBuffer.append("[ERR] ").append(line).append(System.lineSeparator());
+                onOutput(List.of(new CommandRunner.OutputLine(line, true)));
+            }
+
+            @Override
+            public void onOutput(List<CommandRunner.OutputLine> lines) {
+                StringBuilder display = new StringBuilder();
+                for (CommandRunner.OutputLine line : lines) {
+                    String prefix =
+                            line.stderr() ?
+                            "[ERR] " :
+                            "[OUT] ";
+                    display.append(prefix).append(line.text()).append(System.lineSeparator());
+                    appendToLog(
+                            line.stderr() ?
+                            prefix + line.text() :
+                            line.text());
+                }
+                String text = display.toString();
+                Platform.runLater(() -> appendOutput(text));
             }
 
             @Override
             public void onCommandFinished(String command, int exitCode) {
                 appendLine("Command beendet (Exit " + exitCode + ")");
+                lastExitCode = exitCode;
                 if (exitCode != 0) {
                     encounteredFailure = true;
                 }
@@ -243,32 +321,85 @@ public class CommandTerminalController {
                         outcome = CommandOutcome.SUCCESS;
                     }
 
-                    persistLogAsync();
+                    persistLogAsync(outcome);
                     if (resultHandler != null) {
                         resultHandler.onExecutionFinished(outcome);
                     }
                 });
             }
-        });
+        }, CommandRunner.OutputBatching.DEFAULT);
     }
 
     private void appendLine(String line) {
-        Platform.runLater(() -> outputArea.appendText(line + System.lineSeparator()));
+        Platform.runLater(() -> appendOutput(line + System.lineSeparator()));
+    }
+
+    /**
+     * Appends to the output area and drops the oldest lines once it grows
+     * beyond the display budget; the complete output is in the log file.
+     */
+    private void appendOutput(String text) {
+        outputArea.appendText(text);
+        int excess = outputArea.getLength() - LogTail.DEFAULT_CAPACITY;
+        if (excess > 0) {
+            int lineEnd = outputArea.getText().indexOf('\n', excess);
+            outputArea.deleteText(0,
+                    lineEnd >= 0 ?
+                    lineEnd + 1 :
+                    excess);
+        }
+    }
+
+    private void appendToLog(String line) {
+        CommandLogSink sink = logSink;
+        if (sink != null) {
+            sink.append(line);
+        }
     }
 
-    private void persistLogAsync() {
+    private CommandLogSink openLogSink() {
         if (evaluationDirectory == null || commandLogService == null || commands == null || commands.isEmpty()) {
+            return null;
+        }
+        try {
+            return commandLogService.openLog(evaluationDirectory, nodeQualifiedName, commands);
+        } catch (IOException ex) {
+            appendLine("[ERR] Log konnte nicht angelegt werden: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private void persistLogAsync(CommandOutcome outcome) {
+        CommandLogSink sink = logSink;
+        logSink = null;
+        if (sink == null) {
             return;
         }
+        int exitCode =
+                outcome == CommandOutcome.SUCCESS ?
+                0 :
+                lastExitCode;
         CompletableFuture.runAsync(() -> {
+            Path logFile = null;
             try {
-                Path logFile = commandLogService.writeLog(evaluationDirectory, nodeQualifiedName, commands, logBuffer);
+                logFile = commandLogService.writeLog(sink);
+                Path created = logFile;
                 if (resultHandler != null) {
-                    Platform.runLater(() -> resultHandler.onLogCreated(logFile));
+                    Platform.runLater(() -> resultHandler.onLogCreated(created));
                 }
             } catch (IOException ex) {
                 Platform.runLater(() -> appendLine("[ERR] Log konnte nicht gespeichert werden: " + ex.getMessage()));
             }
+            if (executionResultCache != null) {
+                try {
+                    executionResultCache.record(evaluationDirectory, commitId, nodeQualifiedName, commands, outcome, exitCode,
+                            logFile != null ?
+                            logFile.toString().replace("\\", "/") :
+                            null);
+                } catch (IOException ex) {
+                    appendLine("[ERR] Cache konnte nicht gespeichert werden: " + ex.getMessage());
+                }
+            }
         });
     }
 
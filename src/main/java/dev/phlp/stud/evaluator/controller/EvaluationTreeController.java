@@ -6,6 +6,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -13,6 +15,8 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeTableColumn;
 import javafx.scene.control.TreeTableView;
@@ -27,8 +31,10 @@ import dev.phlp.stud.evaluator.events.EvaluationTreeRefreshRequested;
 import dev.phlp.stud.evaluator.events.EvaluationTreeSelectionCleared;
 import dev.phlp.stud.evaluator.model.EvaluationNode;
 import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.service.command.CommandOutcome;
 import dev.phlp.stud.evaluator.service.dialog.DialogService;
 import dev.phlp.stud.evaluator.service.workflow.CommandExecutionContext;
+import dev.phlp.stud.evaluator.service.workflow.CrossRepositoryExecutionContext;
 import dev.phlp.stud.evaluator.service.workflow.EvaluationWorkflow;
 
 /**
@@ -105,6 +111,20 @@ public final class EvaluationTreeController {
         evaluationTreeTable.setDisable(true);
 
         populateTree();
+        MenuItem runAcrossRepositoriesItem = new MenuItem("In allen Repositories ausfuehren");
+        runAcrossRepositoriesItem.setOnAction(event -> {
+            TreeItem<EvaluationNode> selected = evaluationTreeTable.getSelectionModel().getSelectedItem();
+            if (selected != null) {
+                runAcrossRepositories(selected.getValue());
+            }
+        });
+        ContextMenu contextMenu = new ContextMenu(runAcrossRepositoriesItem);
+        contextMenu.setOnShowing(event -> {
+            TreeItem<EvaluationNode> selected = evaluationTreeTable.getSelectionModel().getSelectedItem();
+            runAcrossRepositoriesItem.setDisable(selected == null || !workflow.isRepositoryReady()
+                    || collectRunnableNodes(selected.getValue()).isEmpty());
+        });
+        evaluationTreeTable.setContextMenu(contextMenu);
         evaluationTreeTable.getSelectionModel().selectedItemProperty().addListener((obs, oldItem, newItem) -> {
             EvaluationNode selected =
                     newItem != null ?
@@ -258,6 +278,23 @@ public final class EvaluationTreeController {
             dialogService.showInfo("Keine Kommandos", "Fuer diesen Eintrag sind keine Befehle definiert.");
             return;
         }
+        openBatchRunner(node, (controller, runnerStage) ->
+                controller.configure(runnerStage, workflow, node.getQualifiedName(), runnableChildren));
+    }
+
+    private void runAcrossRepositories(EvaluationNode node) {
+        List<EvaluationNode> runnableNodes = collectRunnableNodes(node);
+        if (runnableNodes.isEmpty()) {
+            dialogService.showInfo("Keine Kommandos", "Fuer diesen Eintrag sind keine Befehle definiert.");
+            return;
+        }
+        Optional<CrossRepositoryExecutionContext> context = workflow.createCrossRepositoryExecutionContext(node);
+        context.ifPresent(crossRepositoryContext -> openBatchRunner(node, (controller, runnerStage) ->
+                controller.configureAcrossRepositories(runnerStage, workflow, node.getQualifiedName(), runnableNodes,
+                        crossRepositoryContext)));
+    }
+
+    private void openBatchRunner(EvaluationNode node, BiConsumer<BatchCommandRunnerController, Stage> configurer) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/batch_command_runner.fxml"));
             Parent root = loader.load();
@@ -269,7 +306,7 @@ public final class EvaluationTreeController {
             runnerStage.setScene(runnerScene);
 
             BatchCommandRunnerController controller = loader.getController();
-            controller.configure(runnerStage, workflow, node.getQualifiedName(), runnableChildren);
+            configurer.accept(controller, runnerStage);
 
             Stage owner = (Stage) evaluationTreeTable.getScene().getWindow();
             if (owner != null) {
@@ -305,6 +342,8 @@ public final class EvaluationTreeController {
                     context.achievedPoints(),
                     context.commandRunner(),
                     context.commandLogService(),
+                    context.executionResultCache(),
+                    context.commitId(),
                     new CommandTerminalController.TerminalResultHandler() {
                         @Override
                         public void onExecutionStarted() {
@@ -313,7 +352,7 @@ public final class EvaluationTreeController {
                         }
 
                         @Override
-                        public void onExecutionFinished(CommandTerminalController.CommandOutcome outcome) {
+                        public void onExecutionFinished(CommandOutcome outcome) {
                             workflow.onCommandExecutionFinished(node, outcome);
                             refreshTree();
                         }
@@ -346,6 +385,16 @@ public final class EvaluationTreeController {
         }
     }
 
+    private List<EvaluationNode> collectRunnableNodes(EvaluationNode node) {
+        if (node == null) {
+            return List.of();
+        }
+        if (!node.getCommands().isEmpty()) {
+            return List.of(node);
+        }
+        return collectRunnableChildren(node);
+    }
+
     private List<EvaluationNode> collectRunnableChildren(EvaluationNode node) {
         List<EvaluationNode> result = new ArrayList<>();
         collectRunnableChildren(node, result);
@@ -44,6 +44,8 @@ public final class RepositoryToolbarController {
     private Button cloneButton;
     @FXML
     private Button exportMarkdownButton;
+    @FXML
+    private Button exportAllMarkdownButton;
 
     private RepositoryNavigationBar repositoryNavigationBar;
     private boolean contextMode;
@@ -73,6 +75,7 @@ public final class RepositoryToolbarController {
 
         cloneButton.setOnAction(event -> handlePreparationRequest());
         exportMarkdownButton.setOnAction(event -> workflow.exportMarkdown());
+        exportAllMarkdownButton.setOnAction(event -> workflow.exportAllMarkdown());
 
         tagValueLabel.setText("-");
         deadlineValueLabel.setText("-");
@@ -112,6 +115,7 @@ public final class RepositoryToolbarController {
 
     public void setExportActionEnabled(boolean enabled) {
         exportMarkdownButton.setDisable(!enabled);
+        exportAllMarkdownButton.setDisable(!enabled);
     }
 
     public int getStartIndex() {
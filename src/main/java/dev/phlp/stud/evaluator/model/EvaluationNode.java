@@ -11,15 +11,35 @@ import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
-
+import java.util.function.Consumer;
+
+/**
+ * Node of the evaluation tree. Inner nodes aggregate points and status of
+ * their children incrementally: a child reports the delta of its points and
+ * the transition of its status, so every ancestor updates in constant time.
+ * {@link #bulkUpdate(Collection)} suspends this propagation for a subtree and
+ * recomputes all aggregates in one bottom-up pass when the scope is closed.
+ */
 public class EvaluationNode {
+    private static final EvaluationStatus[] STATUS_PRIORITY = {
+            EvaluationStatus.FAILED,
+            EvaluationStatus.RUNNING,
+            EvaluationStatus.PENDING,
+            EvaluationStatus.CANCELLED
+    };
+    private static final double POINT_PRECISION = 1e9;
+
     private final String id;
     private final String name;
     private final double maxPoints;
@@ -31,6 +51,13 @@ public class EvaluationNode {
     private final StringProperty comment = new SimpleStringProperty("");
     private final String configurationComment;
     private final boolean pseudo;
+    private final int[] childStatusCounts = new int[EvaluationStatus.values().length];
+    private final ChangeListener<Number> pointsListenerForParent =
+            (obs, oldVal, newVal) -> notifyParentPoints(oldVal.doubleValue(), newVal.doubleValue());
+    private final ChangeListener<EvaluationStatus> statusListenerForParent =
+            (obs, oldStatus, newStatus) -> notifyParentStatus(oldStatus, newStatus);
+    private int bulkDepth;
+    private String qualifiedName;
 
     EvaluationNode parent;
 
@@ -48,18 +75,23 @@ public class EvaluationNode {
         children.addListener((ListChangeListener<EvaluationNode>) change -> {
             while (change.next()) {
                 if (change.wasAdded()) {
-                    change.getAddedSubList().forEach(child -> {
+                    for (EvaluationNode child : change.getAddedSubList()) {
                         child.parent = this;
-                        child.achievedPointsProperty().addListener((obs, oldVal, newVal) -> refreshAggregatedPoints());
-                        child.statusProperty().addListener((obs, oldStatus, newStatus) -> refreshAggregatedStatus());
-                    });
+                        child.invalidateQualifiedName();
+                        child.achievedPoints.addListener(child.pointsListenerForParent);
+                        child.status.addListener(child.statusListenerForParent);
+                    }
                 }
                 if (change.wasRemoved()) {
-                    change.getRemoved().forEach(child -> child.parent = null);
+                    for (EvaluationNode child : change.getRemoved()) {
+                        child.achievedPoints.removeListener(child.pointsListenerForParent);
+                        child.status.removeListener(child.statusListenerForParent);
+                        child.parent = null;
+                        child.invalidateQualifiedName();
+                    }
                 }
             }
-            refreshAggregatedPoints();
-            refreshAggregatedStatus();
+            recomputeAggregates();
         });
     }
 
@@ -72,10 +104,20 @@ public class EvaluationNode {
     }
 
     public String getQualifiedName() {
-        if (parent == null) {
-            return name;
+        String cached = qualifiedName;
+        if (cached == null) {
+            cached =
+                    parent == null ?
+                    name :
+                    parent.getQualifiedName() + "/" + name;
+            qualifiedName = cached;
         }
-        return parent.getQualifiedName() + "/" + name;
+        return cached;
+    }
+
+    private void invalidateQualifiedName() {
+        qualifiedName = null;
+        children.forEach(EvaluationNode::invalidateQualifiedName);
     }
 
     public double getMaxPoints() {
@@ -123,14 +165,10 @@ public class EvaluationNode {
         if (pseudo) {
             achievedPoints.set(0.0);
             achievedPointsDefined.set(false);
-            if (parent != null) {
-                parent.refreshAggregatedPoints();
-                parent.refreshAggregatedStatus();
-            }
             return;
         }
         if (!isLeaf()) {
-            achievedPoints.set(children.stream().mapToDouble(EvaluationNode::getAchievedPoints).sum());
+            achievedPoints.set(sumChildPoints());
         } else {
             achievedPoints.set(Math.max(0.0, Math.min(points, maxPoints)));
             achievedPointsDefined.set(true);
@@ -138,15 +176,12 @@ public class EvaluationNode {
     }
 
     public void clearAchievedPoints() {
-        if (!isLeaf()) {
-            children.forEach(EvaluationNode::clearAchievedPoints);
-            refreshAggregatedPoints();
+        if (isLeaf()) {
+            clearLeafPoints();
             return;
         }
-        achievedPoints.set(0.0);
-        achievedPointsDefined.set(false);
-        if (parent != null) {
-            parent.refreshAggregatedPoints();
+        try (BulkUpdate ignored = bulkUpdate(List.of(this))) {
+            forEachLeaf(EvaluationNode::clearLeafPoints);
         }
     }
 
@@ -154,9 +189,6 @@ public class EvaluationNode {
         if (pseudo) {
             achievedPoints.set(0.0);
             achievedPointsDefined.set(false);
-            if (parent != null) {
-                parent.refreshAggregatedPoints();
-            }
             return;
         }
         if (!isLeaf()) {
@@ -208,9 +240,7 @@ public class EvaluationNode {
 
     public void setStatus(EvaluationStatus newStatus) {
         status.set(newStatus != null ? newStatus : EvaluationStatus.PENDING);
-        if (parent != null) {
-            parent.refreshAggregatedStatus();
-        } else if (!isLeaf()) {
+        if (parent == null && !isLeaf()) {
             refreshAggregatedStatus();
         }
     }
@@ -220,11 +250,7 @@ public class EvaluationNode {
             return;
         }
         status.set(storedStatus);
-        if (isLeaf()) {
-            if (parent != null) {
-                parent.refreshAggregatedStatus();
-            }
-        } else {
+        if (!isLeaf()) {
             refreshAggregatedStatus();
         }
     }
@@ -243,118 +269,168 @@ public class EvaluationNode {
 
     public void markFullyAwarded() {
         if (isLeaf()) {
-            if (pseudo) {
-                achievedPoints.set(0.0);
-                achievedPointsDefined.set(false);
-            } else {
-                achievedPoints.set(maxPoints);
-                achievedPointsDefined.set(true);
-            }
-            if (parent != null) {
-                parent.refreshAggregatedPoints();
-                parent.refreshAggregatedStatus();
-            }
+            awardLeafPoints();
             return;
         }
-        children.forEach(EvaluationNode::markFullyAwarded);
-        refreshAggregatedPoints();
-        refreshAggregatedStatus();
+        try (BulkUpdate ignored = bulkUpdate(List.of(this))) {
+            forEachLeaf(EvaluationNode::awardLeafPoints);
+        }
     }
 
     public void resetToZero() {
         if (isLeaf()) {
-            achievedPoints.set(0.0);
-            achievedPointsDefined.set(false);
-            if (parent != null) {
-                parent.refreshAggregatedPoints();
-                parent.refreshAggregatedStatus();
-            }
+            clearLeafPoints();
             return;
         }
-        children.forEach(EvaluationNode::resetToZero);
-        refreshAggregatedPoints();
-        refreshAggregatedStatus();
+        try (BulkUpdate ignored = bulkUpdate(List.of(this))) {
+            forEachLeaf(EvaluationNode::clearLeafPoints);
+        }
     }
 
-    public void refreshAggregatedPoints() {
-        if (!isLeaf()) {
-            if (pseudo) {
-                achievedPoints.set(0.0);
+    private void awardLeafPoints() {
+        if (pseudo) {
+            clearLeafPoints();
+        } else {
+            achievedPoints.set(maxPoints);
+            achievedPointsDefined.set(true);
+        }
+    }
+
+    private void clearLeafPoints() {
+        achievedPoints.set(0.0);
+        achievedPointsDefined.set(false);
+    }
+
+    /**
+     * Applies {@code action} to every leaf below this node. Used inside a
+     * single {@link BulkUpdate} scope, so inner nodes are recomputed once when
+     * the scope closes.
+     */
+    private void forEachLeaf(Consumer<EvaluationNode> action) {
+        for (EvaluationNode child : children) {
+            if (child.isLeaf()) {
+                action.accept(child);
             } else {
-                achievedPoints.set(children.stream().mapToDouble(EvaluationNode::getAchievedPoints).sum());
+                child.forEachLeaf(action);
             }
+        }
+    }
+
+    /**
+     * Recomputes the points of this node from its direct children. Ancestors
+     * follow through the regular delta propagation.
+     */
+    public void refreshAggregatedPoints() {
+        if (!isLeaf()) {
+            achievedPoints.set(
+                    pseudo ?
+                    0.0 :
+                    sumChildPoints());
         } else if (pseudo) {
             achievedPoints.set(0.0);
             achievedPointsDefined.set(false);
         }
-        if (parent != null) {
-            parent.refreshAggregatedPoints();
-        }
     }
 
+    /**
+     * Recounts the child statuses of this node and derives its status from
+     * them. Ancestors follow through the regular status propagation.
+     */
     public void refreshAggregatedStatus() {
-        if (!isLeaf()) {
-            EvaluationStatus aggregated = aggregateChildStatus();
-            if (status.get() != aggregated) {
-                status.set(aggregated);
-            }
+        if (isLeaf()) {
+            return;
         }
-        if (parent != null) {
-            parent.refreshAggregatedStatus();
+        Arrays.fill(childStatusCounts, 0);
+        children.forEach(child -> childStatusCounts[statusIndex(child.getStatus())]++);
+        EvaluationStatus aggregated = aggregateChildStatus();
+        if (status.get() != aggregated) {
+            status.set(aggregated);
         }
     }
 
-    private EvaluationStatus aggregateChildStatus() {
-        if (children.isEmpty()) {
-            return EvaluationStatus.PENDING;
+    /**
+     * Suspends the propagation of point and status changes inside the
+     * subtrees of {@code roots} until the returned scope is closed. Closing
+     * the outermost scope recomputes every aggregate of the subtrees once,
+     * bottom-up, and forwards the resulting change of each root to its
+     * ancestors.
+     */
+    public static BulkUpdate bulkUpdate(Collection<EvaluationNode> roots) {
+        Objects.requireNonNull(roots, "roots must not be null");
+        List<EvaluationNode> suspended = new ArrayList<>();
+        roots.forEach(root -> collectSubtree(root, suspended));
+        suspended.forEach(node -> node.bulkDepth++);
+        return new BulkUpdate(List.copyOf(roots), suspended);
+    }
+
+    private static void collectSubtree(EvaluationNode node, List<EvaluationNode> target) {
+        target.add(node);
+        node.children.forEach(child -> collectSubtree(child, target));
+    }
+
+    private void recomputeAggregates() {
+        refreshAggregatedPoints();
+        refreshAggregatedStatus();
+    }
+
+    private void recomputeSubtree() {
+        children.forEach(EvaluationNode::recomputeSubtree);
+        recomputeAggregates();
+    }
+
+    private void notifyParentPoints(double oldPoints, double newPoints) {
+        EvaluationNode target = parent;
+        if (target == null || target.bulkDepth > 0 || target.pseudo) {
+            return;
         }
-        boolean anyFailed = false;
-        boolean anyRunning = false;
-        boolean anyPending = false;
-        boolean anyCancelled = false;
-        boolean allSuccess = true;
-        for (EvaluationNode child : children) {
-            EvaluationStatus childStatus = child.getStatus();
-            if (childStatus == null) {
-                anyPending = true;
-                allSuccess = false;
-                continue;
-            }
-            switch (childStatus) {
-                case FAILED -> {
-                    anyFailed = true;
-                    allSuccess = false;
-                }
-                case RUNNING -> {
-                    anyRunning = true;
-                    allSuccess = false;
-                }
-                case PENDING -> {
-                    anyPending = true;
-                    allSuccess = false;
-                }
-                case CANCELLED -> {
-                    anyCancelled = true;
-                    allSuccess = false;
-                }
-                case SUCCESS -> {
-                    // no-op
-                }
-            }
+        target.achievedPoints.set(roundPoints(target.achievedPoints.get() + (newPoints - oldPoints)));
+    }
+
+    private void notifyParentStatus(EvaluationStatus oldStatus, EvaluationStatus newStatus) {
+        EvaluationNode target = parent;
+        if (target == null) {
+            return;
         }
-        if (anyFailed) {
-            return EvaluationStatus.FAILED;
+        target.childStatusCounts[statusIndex(oldStatus)]--;
+        target.childStatusCounts[statusIndex(newStatus)]++;
+        if (target.bulkDepth > 0) {
+            return;
+        }
+        EvaluationStatus aggregated = target.aggregateChildStatus();
+        if (target.status.get() != aggregated) {
+            target.status.set(aggregated);
         }
-        if (anyRunning) {
-            return EvaluationStatus.RUNNING;
+    }
+
+    private double sumChildPoints() {
+        double sum = 0.0;
+        for (EvaluationNode child : children) {
+            sum += child.getAchievedPoints();
         }
-        if (anyPending) {
+        return roundPoints(sum);
+    }
+
+    private static double roundPoints(double value) {
+        return Math.round(value * POINT_PRECISION) / POINT_PRECISION;
+    }
+
+    private static int statusIndex(EvaluationStatus value) {
+        return
+                value != null ?
+                value.ordinal() :
+                EvaluationStatus.PENDING.ordinal();
+    }
+
+    private EvaluationStatus aggregateChildStatus() {
+        if (children.isEmpty()) {
             return EvaluationStatus.PENDING;
         }
-        if (anyCancelled) {
-            return EvaluationStatus.CANCELLED;
+        for (EvaluationStatus candidate : STATUS_PRIORITY) {
+            if (childStatusCounts[candidate.ordinal()] > 0) {
+                return candidate;
+            }
         }
-        return allSuccess ? EvaluationStatus.SUCCESS : EvaluationStatus.PENDING;
+        return EvaluationStatus.SUCCESS;
     }
 
     public boolean isFullyAwarded() {
@@ -388,4 +464,30 @@ public class EvaluationNode {
         }
         return getAchievedPoints() / getMaxPoints();
     }
+
+    /**
+     * Scope returned by {@link #bulkUpdate(Collection)}.
+     */
+    public static final class BulkUpdate implements AutoCloseable {
+        private final List<EvaluationNode> roots;
+        private final List<EvaluationNode> suspended;
+        private boolean closed;
+
+        private BulkUpdate(List<EvaluationNode> roots, List<EvaluationNode> suspended) {
+            this.roots = roots;
+            this.suspended = suspended;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            roots.stream()
+                 .filter(root -> root.bulkDepth == 1)
+                 .forEach(EvaluationNode::recomputeSubtree);
+            suspended.forEach(node -> node.bulkDepth--);
+        }
+    }
 }
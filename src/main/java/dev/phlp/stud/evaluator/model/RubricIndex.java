@@ -0,0 +1,125 @@
+package dev.phlp.stud.evaluator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Immutable index over an evaluation tree. Every node gets a dense id in
+ * pre-order (parents before their children), its qualified name is computed
+ * once, and nodes can be looked up by id or qualified name in constant time.
+ * Per-node data such as log references can therefore be kept in arrays
+ * indexed by {@link #id(EvaluationNode)}.
+ *
+ * <p>The index describes the tree at the time it was built; nodes added or
+ * removed afterwards are not part of it.</p>
+ */
+public final class RubricIndex {
+    private final List<EvaluationNode> roots;
+    private final EvaluationNode[] nodes;
+    private final String[] qualifiedNames;
+    private final int[] leafIds;
+    private final Map<String, Integer> idsByQualifiedName;
+    private final Map<EvaluationNode, Integer> idsByNode;
+
+    private RubricIndex(List<EvaluationNode> roots) {
+        this.roots = List.copyOf(roots);
+        List<EvaluationNode> ordered = new ArrayList<>();
+        this.roots.forEach(root -> collect(root, ordered));
+        this.nodes = ordered.toArray(EvaluationNode[]::new);
+        this.qualifiedNames = new String[nodes.length];
+        this.idsByQualifiedName = HashMap.newHashMap(nodes.length);
+        this.idsByNode = new IdentityHashMap<>(nodes.length);
+        int leaves = 0;
+        for (int id = 0; id < nodes.length; id++) {
+            EvaluationNode node = nodes[id];
+            idsByNode.put(node, id);
+            qualifiedNames[id] = node.getQualifiedName();
+            idsByQualifiedName.putIfAbsent(qualifiedNames[id], id);
+            if (node.isLeaf()) {
+                leaves++;
+            }
+        }
+        this.leafIds = new int[leaves];
+        int next = 0;
+        for (int id = 0; id < nodes.length; id++) {
+            if (nodes[id].isLeaf()) {
+                leafIds[next++] = id;
+            }
+        }
+    }
+
+    public static RubricIndex of(List<EvaluationNode> roots) {
+        return new RubricIndex(Objects.requireNonNull(roots, "roots must not be null"));
+    }
+
+    private static void collect(EvaluationNode node, List<EvaluationNode> target) {
+        target.add(node);
+        node.getChildren().forEach(child -> collect(child, target));
+    }
+
+    public List<EvaluationNode> roots() {
+        return roots;
+    }
+
+    /**
+     * @return number of indexed nodes; ids range from 0 to size - 1
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    public EvaluationNode node(int id) {
+        return nodes[id];
+    }
+
+    public String qualifiedName(int id) {
+        return qualifiedNames[id];
+    }
+
+    /**
+     * @return id of {@code qualifiedName} or -1 if no node has that name
+     */
+    public int id(String qualifiedName) {
+        Integer id = idsByQualifiedName.get(qualifiedName);
+        return
+                id != null ?
+                id :
+                -1;
+    }
+
+    /**
+     * @return id of {@code node} or -1 if it does not belong to this index
+     */
+    public int id(EvaluationNode node) {
+        Integer id = idsByNode.get(node);
+        return
+                id != null ?
+                id :
+                -1;
+    }
+
+    public Optional<EvaluationNode> find(String qualifiedName) {
+        int id = id(qualifiedName);
+        return
+                id >= 0 ?
+                Optional.of(nodes[id]) :
+                Optional.empty();
+    }
+
+    /**
+     * @return ids of all leaves in pre-order
+     */
+    public int[] leafIds() {
+        return Arrays.copyOf(leafIds, leafIds.length);
+    }
+
+    public int leafCount() {
+        return leafIds.length;
+    }
+}
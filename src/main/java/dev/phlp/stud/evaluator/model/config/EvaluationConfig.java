@@ -21,12 +21,42 @@ public class EvaluationConfig {
 
     private String comment;
 
+    private Integer preparationConcurrency;
+
+    private Integer shallowCloneDays;
+
+    private Integer commandParallelism;
+
+    private String templateRepositoryUrl;
+
+    private Boolean archiveCommandLogs;
+
     @JsonProperty("categories")
     private List<EvaluationNodeConfig> rootCategories = new ArrayList<>();
 
     public EvaluationConfig() {
     }
 
+    /**
+     * @return a deep copy; the categories are copied recursively
+     */
+    public EvaluationConfig copy() {
+        EvaluationConfig copy = new EvaluationConfig();
+        copy.title = title;
+        copy.repositoryUrlTemplate = repositoryUrlTemplate;
+        copy.repositoryNumberPlaceholder = repositoryNumberPlaceholder;
+        copy.tag = tag;
+        copy.deadline = deadline;
+        copy.comment = comment;
+        copy.preparationConcurrency = preparationConcurrency;
+        copy.shallowCloneDays = shallowCloneDays;
+        copy.commandParallelism = commandParallelism;
+        copy.templateRepositoryUrl = templateRepositoryUrl;
+        copy.archiveCommandLogs = archiveCommandLogs;
+        copy.rootCategories = EvaluationNodeConfig.copyAll(rootCategories);
+        return copy;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -75,6 +105,62 @@ public class EvaluationConfig {
         this.comment = comment;
     }
 
+    public Integer getPreparationConcurrency() {
+        return preparationConcurrency;
+    }
+
+    public void setPreparationConcurrency(Integer preparationConcurrency) {
+        this.preparationConcurrency = preparationConcurrency;
+    }
+
+    /**
+     * @return number of days before the deadline from which history is cloned,
+     * or {@code null} to clone the full history
+     */
+    public Integer getShallowCloneDays() {
+        return shallowCloneDays;
+    }
+
+    public void setShallowCloneDays(Integer shallowCloneDays) {
+        this.shallowCloneDays = shallowCloneDays;
+    }
+
+    /**
+     * @return number of repositories whose commands run at the same time in a
+     * cross-repository batch, or {@code null} for the default
+     */
+    public Integer getCommandParallelism() {
+        return commandParallelism;
+    }
+
+    public void setCommandParallelism(Integer commandParallelism) {
+        this.commandParallelism = commandParallelism;
+    }
+
+    /**
+     * @return URL of the template all student repositories were forked from;
+     * if set, its objects are shared by all clones
+     */
+    public String getTemplateRepositoryUrl() {
+        return templateRepositoryUrl;
+    }
+
+    public void setTemplateRepositoryUrl(String templateRepositoryUrl) {
+        this.templateRepositoryUrl = templateRepositoryUrl;
+    }
+
+    /**
+     * @return whether command logs are collected in one compressed archive per
+     * evaluation directory instead of separate files
+     */
+    public Boolean getArchiveCommandLogs() {
+        return archiveCommandLogs;
+    }
+
+    public void setArchiveCommandLogs(Boolean archiveCommandLogs) {
+        this.archiveCommandLogs = archiveCommandLogs;
+    }
+
     public List<EvaluationNodeConfig> getRootCategories() {
         return rootCategories;
     }
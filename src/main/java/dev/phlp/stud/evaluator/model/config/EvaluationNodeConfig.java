@@ -25,6 +25,31 @@ public class EvaluationNodeConfig {
     public EvaluationNodeConfig() {
     }
 
+    /**
+     * @return a deep copy including all children
+     */
+    public EvaluationNodeConfig copy() {
+        EvaluationNodeConfig copy = new EvaluationNodeConfig();
+        copy.name = name;
+        copy.maxPoints = maxPoints;
+        copy.commands = new ArrayList<>(commands);
+        copy.comment = comment;
+        copy.pseudo = pseudo;
+        copy.children = copyAll(children);
+        return copy;
+    }
+
+    static List<EvaluationNodeConfig> copyAll(List<EvaluationNodeConfig> nodes) {
+        List<EvaluationNodeConfig> copies = new ArrayList<>(nodes.size());
+        for (EvaluationNodeConfig node : nodes) {
+            copies.add(
+                    node != null ?
+                    node.copy() :
+                    null);
+        }
+        return copies;
+    }
+
     public String getName() {
         return name;
     }
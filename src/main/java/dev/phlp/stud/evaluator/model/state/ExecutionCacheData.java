@@ -0,0 +1,25 @@
+package dev.phlp.stud.evaluator.model.state;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ExecutionCacheData {
+    private Map<String, ExecutionCacheEntry> entries = new HashMap<>();
+
+    public ExecutionCacheData() {
+    }
+
+    public Map<String, ExecutionCacheEntry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(Map<String, ExecutionCacheEntry> entries) {
+        this.entries =
+                entries != null ?
+                entries :
+                new HashMap<>();
+    }
+}
@@ -0,0 +1,76 @@
+package dev.phlp.stud.evaluator.model.state;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import dev.phlp.stud.evaluator.model.EvaluationStatus;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ExecutionCacheEntry {
+    private String commitId;
+    private String nodeName;
+    private String commandHash;
+    private EvaluationStatus status;
+    private int exitCode;
+    private String logFile;
+    private Instant recordedAt;
+
+    public ExecutionCacheEntry() {
+    }
+
+    public String getCommitId() {
+        return commitId;
+    }
+
+    public void setCommitId(String commitId) {
+        this.commitId = commitId;
+    }
+
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    public void setNodeName(String nodeName) {
+        this.nodeName = nodeName;
+    }
+
+    public String getCommandHash() {
+        return commandHash;
+    }
+
+    public void setCommandHash(String commandHash) {
+        this.commandHash = commandHash;
+    }
+
+    public EvaluationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EvaluationStatus status) {
+        this.status = status;
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    public void setExitCode(int exitCode) {
+        this.exitCode = exitCode;
+    }
+
+    public String getLogFile() {
+        return logFile;
+    }
+
+    public void setLogFile(String logFile) {
+        this.logFile = logFile;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(Instant recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+}
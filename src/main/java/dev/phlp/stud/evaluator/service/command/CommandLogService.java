@@ -1,30 +1,107 @@
 package dev.phlp.stud.evaluator.service.command;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CommandLogService {
+    /**
+     * Separates the archive file from the entry offset in a log reference,
+     * e.g. {@code logs/archive.logz#4096}.
+     */
+    public static final String ARCHIVE_ENTRY_SEPARATOR = "#";
+
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
 
+    private final Map<Path, LogArchive> archives = new ConcurrentHashMap<>();
+    private volatile boolean archiveEnabled;
+
+    /**
+     * If enabled, finished logs are compressed into one {@link LogArchive} per
+     * evaluation directory instead of being kept as separate files.
+     */
+    public void setArchiveEnabled(boolean archiveEnabled) {
+        this.archiveEnabled = archiveEnabled;
+    }
+
+    public boolean isArchiveEnabled() {
+        return archiveEnabled;
+    }
+
     public Path writeLog(Path evaluationDirectory, String nodeName, Iterable<String> commands, CharSequence output) throws IOException {
-        Path logDirectory = evaluationDirectory.resolve("logs");
-        Files.createDirectories(logDirectory);
-        String safeNode = nodeName.replaceAll("[^a-zA-Z0-9-_]", "_");
-        String filename = FORMATTER.format(LocalDateTime.now()) + "_" + safeNode + ".log";
-        Path logFile = logDirectory.resolve(filename);
+        try (CommandLogSink sink = openLog(evaluationDirectory, nodeName, commands)) {
+            sink.appendRaw(output);
+            return writeLog(sink);
+        }
+    }
+
+    /**
+     * Opens a log for a run that is about to start. Output appended to the
+     * sink goes straight to disk; finish it with {@link #writeLog(CommandLogSink)},
+     * which syncs the file and returns the path stored as log reference.
+     */
+    public CommandLogSink openLog(Path evaluationDirectory, String nodeName, Iterable<String> commands) throws IOException {
+        Instant startedAt = Instant.now();
+        LogArchive archive =
+                archiveEnabled ?
+                archive(evaluationDirectory) :
+                null;
+        return new CommandLogSink(evaluationDirectory, newLogFile(evaluationDirectory, nodeName, startedAt), commands, nodeName,
+                startedAt, archive);
+    }
+
+    public LogArchive archive(Path evaluationDirectory) {
+        Path file = evaluationDirectory.resolve("logs").resolve(LogArchive.FILE_NAME).toAbsolutePath().normalize();
+        return archives.computeIfAbsent(file, LogArchive::new);
+    }
+
+    /**
+     * Opens a stored log by the reference kept in {@code lastLogFile}, whether
+     * it names a separate file or an archive entry.
+     */
+    public InputStream openLogReference(Path evaluationDirectory, String reference) throws IOException {
+        String normalized = reference.replace('\\', '/');
+        int separator = normalized.lastIndexOf(ARCHIVE_ENTRY_SEPARATOR);
+        if (separator > 0 && normalized.substring(0, separator).endsWith("/" + LogArchive.FILE_NAME)) {
+            long offset;
+            try {
+                offset = Long.parseLong(normalized.substring(separator + 1));
+            } catch (NumberFormatException ex) {
+                throw new IOException("Ungueltiger Log-Verweis: " + reference, ex);
+            }
+            return archive(evaluationDirectory).open(offset);
+        }
+        return Files.newInputStream(evaluationDirectory.resolve(normalized));
+    }
+
+    /**
+     * @return path of the finished log relative to the evaluation directory
+     */
+    public Path writeLog(CommandLogSink sink) throws IOException {
+        return sink.finish();
+    }
+
+    static void writeHeader(Appendable target, Iterable<String> commands) throws IOException {
         String lineSeparator = System.lineSeparator();
-        StringBuilder builder = new StringBuilder();
-        builder.append("# Commands").append(lineSeparator);
+        target.append("# Commands").append(lineSeparator);
         for (String command : commands) {
-            builder.append("$ ").append(command).append(lineSeparator);
+            target.append("$ ").append(command).append(lineSeparator);
         }
-        builder.append(lineSeparator).append("# Output").append(lineSeparator);
-        builder.append(output);
-        Files.writeString(logFile, builder.toString(), StandardCharsets.UTF_8);
-        return evaluationDirectory.relativize(logFile);
+        target.append(lineSeparator).append("# Output").append(lineSeparator);
+    }
+
+    private Path newLogFile(Path evaluationDirectory, String nodeName, Instant startedAt) throws IOException {
+        Path logDirectory = evaluationDirectory.resolve("logs");
+        Files.createDirectories(logDirectory);
+        String safeNode = nodeName.replaceAll("[^a-zA-Z0-9-_]", "_");
+        String filename = FORMATTER.format(LocalDateTime.ofInstant(startedAt, ZoneId.systemDefault())) + "_" + safeNode + ".log";
+        return logDirectory.resolve(filename);
     }
 }
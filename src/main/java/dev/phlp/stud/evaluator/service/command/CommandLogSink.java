@@ -0,0 +1,170 @@
+package dev.phlp.stud.evaluator.service.command;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Streams the output of one run to a partial file next to its final log.
+ * The header is written when the sink is opened and every line as it
+ * arrives; {@link CommandLogService#writeLog(CommandLogSink)} forces the
+ * file to disk and renames it. Write errors are remembered and reported when
+ * the log is finished, so output callbacks never have to handle them.
+ * <p>
+ * If a {@link LogArchive} is given, the finished partial file is compressed
+ * into the archive instead and the reference points at the archive entry.
+ */
+public class CommandLogSink implements AutoCloseable {
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Path evaluationDirectory;
+    private final Path logFile;
+    private final Path partialFile;
+    private final String nodeName;
+    private final Instant startedAt;
+    private final LogArchive archive;
+    private final FileChannel channel;
+    private final BufferedWriter writer;
+    private IOException failure;
+    private boolean closed;
+
+    CommandLogSink(Path evaluationDirectory, Path logFile, Iterable<String> commands, String nodeName, Instant startedAt,
+                   LogArchive archive) throws IOException {
+        this.evaluationDirectory = evaluationDirectory;
+        this.logFile = logFile;
+        this.partialFile = logFile.resolveSibling(logFile.getFileName() + ".partial");
+        this.nodeName = nodeName;
+        this.startedAt = startedAt;
+        this.archive = archive;
+        this.channel = FileChannel.open(partialFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            CommandLogService.writeHeader(writer, commands);
+        } catch (IOException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    public synchronized void append(String line) {
+        if (closed || failure != null) {
+            return;
+        }
+        try {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException ex) {
+            failure = ex;
+        }
+    }
+
+    public synchronized void append(List<String> lines) {
+        lines.forEach(this::append);
+    }
+
+    /**
+     * Writes already formatted output in slices, without copying it as a whole.
+     */
+    synchronized void appendRaw(CharSequence output) {
+        if (closed || failure != null) {
+            return;
+        }
+        try {
+            for (int start = 0; start < output.length(); start += BUFFER_SIZE) {
+                writer.append(output, start, Math.min(output.length(), start + BUFFER_SIZE));
+            }
+        } catch (IOException ex) {
+            failure = ex;
+        }
+    }
+
+    /**
+     * Closes the partial file and moves it to its final name.
+     *
+     * @return path of the log relative to the evaluation directory
+     */
+    synchronized Path finish() throws IOException {
+        if (closed) {
+            throw new IOException("Log wurde bereits abgeschlossen: " + logFile.getFileName());
+        }
+        closed = true;
+        try {
+            writer.flush();
+            channel.force(true);
+        } catch (IOException ex) {
+            if (failure == null) {
+                failure = ex;
+            }
+        } finally {
+            closeQuietly();
+        }
+        if (failure != null) {
+            Files.deleteIfExists(partialFile);
+            throw failure;
+        }
+        if (archive != null) {
+            try {
+                long offset = archive.append(nodeName, startedAt, partialFile);
+                Path archiveFile = evaluationDirectory.relativize(archive.file());
+                return archiveFile.resolveSibling(archiveFile.getFileName() + CommandLogService.ARCHIVE_ENTRY_SEPARATOR + offset);
+            } finally {
+                Files.deleteIfExists(partialFile);
+            }
+        }
+        try {
+            Files.move(partialFile, logFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(partialFile, logFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(logFile.getParent());
+        return evaluationDirectory.relativize(logFile);
+    }
+
+    private void closeQuietly() {
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // nothing left to report for a closed log
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // already closed through the writer
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+            // not supported on every platform; the file content itself is synced
+        }
+    }
+
+    /**
+     * Discards the log if it was not finished.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeQuietly();
+        try {
+            Files.deleteIfExists(partialFile);
+        } catch (IOException ignored) {
+            // a leftover partial file is harmless
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package dev.phlp.stud.evaluator.service.command;
+
+/**
+ * Result of running the commands of one evaluation node.
+ */
+public enum CommandOutcome {
+    SUCCESS,
+    FAILED,
+    CANCELLED
+}
@@ -6,25 +6,55 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 public class CommandRunner implements AutoCloseable {
-    private final ExecutorService executorService = Executors.newCachedThreadPool(r -> {
-        Thread thread = new Thread(r, "command-runner");
+    private final ExecutorService executorService;
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "command-output-flush");
         thread.setDaemon(true);
         return thread;
     });
 
+    public CommandRunner() {
+        this(ThreadMode.PLATFORM);
+    }
+
+    public CommandRunner(ThreadMode threadMode) {
+        this.executorService =
+                Objects.requireNonNull(threadMode, "threadMode") == ThreadMode.VIRTUAL ?
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("command-runner-", 0).factory()) :
+                Executors.newCachedThreadPool(r -> {
+                    Thread thread = new Thread(r, "command-runner");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
     public CommandExecution runCommands(List<String> commands, Path workingDirectory, CommandOutputListener listener) {
+        return runCommands(commands, workingDirectory, listener, null);
+    }
+
+    /**
+     * Runs the commands like {@link #runCommands(List, Path, CommandOutputListener)}, but if
+     * {@code batching} is set, output lines are collected and handed to
+     * {@link CommandOutputListener#onOutput(List)} in chunks instead of one call per line.
+     * Pending output is always delivered before the command's finish or failure callback.
+     */
+    public CommandExecution runCommands(List<String> commands, Path workingDirectory, CommandOutputListener listener,
+                                        OutputBatching batching) {
         Objects.requireNonNull(commands, "commands");
         Objects.requireNonNull(workingDirectory, "workingDirectory");
         Objects.requireNonNull(listener, "listener");
@@ -39,19 +69,31 @@ public class CommandRunner implements AutoCloseable {
                 listener.onCommandStarted(command);
                 Process process = startProcess(command, workingDirectory);
                 currentProcess.set(process);
+                OutputCoalescer coalescer =
+                        batching != null ?
+                        new OutputCoalescer(listener, batching) :
+                        null;
                 try {
-                    StreamForwarder stdout = new StreamForwarder(process.getInputStream(), listener::onStdout);
-                    StreamForwarder stderr = new StreamForwarder(process.getErrorStream(), listener::onStderr);
+                    StreamForwarder stdout = new StreamForwarder(process.getInputStream(),
+                            coalescer != null ?
+                            line -> coalescer.add(new OutputLine(line, false)) :
+                            listener::onStdout);
+                    StreamForwarder stderr = new StreamForwarder(process.getErrorStream(),
+                            coalescer != null ?
+                            line -> coalescer.add(new OutputLine(line, true)) :
+                            listener::onStderr);
                     Future<?> stdoutFuture = executorService.submit(stdout);
                     Future<?> stderrFuture = executorService.submit(stderr);
                     int exitCode = process.waitFor();
                     stdoutFuture.get(2, TimeUnit.SECONDS);
                     stderrFuture.get(2, TimeUnit.SECONDS);
+                    flush(coalescer);
                     listener.onCommandFinished(command, exitCode);
                     if (exitCode != 0) {
                         break;
                     }
                 } catch (Exception ex) {
+                    flush(coalescer);
                     listener.onFailure(command, ex);
                     break;
                 } finally {
@@ -66,6 +108,12 @@ public class CommandRunner implements AutoCloseable {
         return new CommandExecution(cancelled, currentProcess, future);
     }
 
+    private void flush(OutputCoalescer coalescer) {
+        if (coalescer != null) {
+            coalescer.flush();
+        }
+    }
+
     private Process startProcess(String command, Path workingDirectory) throws IOException {
         ProcessBuilder builder = new ProcessBuilder();
         builder.directory(workingDirectory.toFile());
@@ -84,6 +132,17 @@ public class CommandRunner implements AutoCloseable {
     @Override
     public void close() {
         executorService.shutdownNow();
+        flushScheduler.shutdownNow();
+    }
+
+    /**
+     * Threads used for the command loop and the stream forwarders. Each
+     * running command occupies three of them, which makes virtual threads the
+     * better fit when many repositories run commands at the same time.
+     */
+    public enum ThreadMode {
+        PLATFORM,
+        VIRTUAL
     }
 
     public interface CommandOutputListener {
@@ -93,6 +152,22 @@ public class CommandRunner implements AutoCloseable {
 
         void onStderr(String line);
 
+        /**
+         * Receives a chunk of output when the execution was started with
+         * {@link OutputBatching}. The default implementation replays the lines
+         * through {@link #onStdout(String)} and {@link #onStderr(String)}, so
+         * per-line listeners keep working unchanged.
+         */
+        default void onOutput(List<OutputLine> lines) {
+            for (OutputLine line : lines) {
+                if (line.stderr()) {
+                    onStderr(line.text());
+                } else {
+                    onStdout(line.text());
+                }
+            }
+        }
+
         void onCommandFinished(String command, int exitCode);
 
         void onFailure(String command, Exception exception);
@@ -128,6 +203,79 @@ public class CommandRunner implements AutoCloseable {
         }
     }
 
+    /**
+     * Limits for batched output delivery: a chunk is handed to the listener
+     * once it has been pending for {@code maxDelay} or reached
+     * {@code maxChars} characters, whichever comes first.
+     */
+    public record OutputBatching(
+            Duration maxDelay,
+            int maxChars) {
+        public static final OutputBatching DEFAULT = new OutputBatching(Duration.ofMillis(100), 32 * 1024);
+
+        public OutputBatching {
+            Objects.requireNonNull(maxDelay, "maxDelay");
+            if (maxDelay.isNegative() || maxChars <= 0) {
+                throw new IllegalArgumentException("batching limits must be positive");
+            }
+        }
+    }
+
+    public record OutputLine(
+            String text,
+            boolean stderr) {
+    }
+
+    /**
+     * Collects lines from both stream forwarders of one command. Chunks are
+     * delivered one at a time and in arrival order, whether the size limit,
+     * the delay timer or the end of the command triggers the flush.
+     */
+    private final class OutputCoalescer {
+        private final CommandOutputListener listener;
+        private final OutputBatching batching;
+        private final Object deliveryLock = new Object();
+        private List<OutputLine> pending = new ArrayList<>();
+        private int pendingChars;
+        private boolean flushScheduled;
+
+        private OutputCoalescer(CommandOutputListener listener, OutputBatching batching) {
+            this.listener = listener;
+            this.batching = batching;
+        }
+
+        private void add(OutputLine line) {
+            boolean flushNow;
+            synchronized (this) {
+                pending.add(line);
+                pendingChars += line.text().length() + 1;
+                flushNow = pendingChars >= batching.maxChars();
+                if (!flushNow && !flushScheduled) {
+                    flushScheduled = true;
+                    flushScheduler.schedule(this::flush, batching.maxDelay().toMillis(), TimeUnit.MILLISECONDS);
+                }
+            }
+            if (flushNow) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            synchronized (deliveryLock) {
+                List<OutputLine> chunk;
+                synchronized (this) {
+                    chunk = pending;
+                    pending = new ArrayList<>();
+                    pendingChars = 0;
+                    flushScheduled = false;
+                }
+                if (!chunk.isEmpty()) {
+                    listener.onOutput(List.copyOf(chunk));
+                }
+            }
+        }
+    }
+
     private record StreamForwarder(
             InputStream inputStream,
             Consumer<String> consumer) implements Runnable {
@@ -0,0 +1,150 @@
+package dev.phlp.stud.evaluator.service.command;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.model.state.ExecutionCacheData;
+import dev.phlp.stud.evaluator.model.state.ExecutionCacheEntry;
+import dev.phlp.stud.evaluator.util.JsonMapperFactory;
+
+/**
+ * Remembers the outcome of command runs per evaluation directory, keyed by
+ * the checked-out commit, the node's qualified name and a hash of its
+ * commands. These inputs determine a run, so repeating it on the same commit
+ * can be answered from the cache. Cancelled runs are never stored.
+ */
+public class ExecutionResultCache {
+    public static final String FILE_NAME = "execution-cache.json";
+
+    private final ObjectReader cacheReader;
+    private final ObjectWriter cacheWriter;
+    private final Map<Path, ExecutionCacheData> loaded = new ConcurrentHashMap<>();
+
+    public ExecutionResultCache() {
+        this(JsonMapperFactory.createDefaultMapper());
+    }
+
+    public ExecutionResultCache(ObjectMapper objectMapper) {
+        this.cacheReader = JsonMapperFactory.createReader(objectMapper, ExecutionCacheData.class);
+        this.cacheWriter = JsonMapperFactory.createPrettyWriter(objectMapper).forType(ExecutionCacheData.class);
+    }
+
+    public Optional<ExecutionCacheEntry> lookup(Path evaluationDirectory, String commitId, String qualifiedName,
+                                                List<String> commands) {
+        if (evaluationDirectory == null || commitId == null || commitId.isBlank()) {
+            return Optional.empty();
+        }
+        ExecutionCacheData data = data(evaluationDirectory);
+        synchronized (data) {
+            return Optional.ofNullable(data.getEntries().get(key(commitId, qualifiedName, commands)));
+        }
+    }
+
+    /**
+     * Reads the cache of {@code evaluationDirectory} ahead of the first
+     * lookup; used to warm it off the JavaFX thread.
+     */
+    public void preload(Path evaluationDirectory) {
+        if (evaluationDirectory != null) {
+            data(evaluationDirectory);
+        }
+    }
+
+    public void record(Path evaluationDirectory, String commitId, String qualifiedName, List<String> commands,
+                       CommandOutcome outcome, int exitCode, String logFile) throws IOException {
+        if (evaluationDirectory == null || commitId == null || commitId.isBlank() || outcome == CommandOutcome.CANCELLED) {
+            return;
+        }
+        ExecutionCacheEntry entry = new ExecutionCacheEntry();
+        entry.setCommitId(commitId);
+        entry.setNodeName(qualifiedName);
+        entry.setCommandHash(commandHash(commands));
+        entry.setStatus(
+                outcome == CommandOutcome.SUCCESS ?
+                EvaluationStatus.SUCCESS :
+                EvaluationStatus.FAILED);
+        entry.setExitCode(exitCode);
+        entry.setLogFile(logFile);
+        entry.setRecordedAt(Instant.now());
+
+        ExecutionCacheData data = data(evaluationDirectory);
+        synchronized (data) {
+            data.getEntries().put(key(commitId, qualifiedName, commands), entry);
+            write(evaluationDirectory.resolve(FILE_NAME), data);
+        }
+    }
+
+    public static CommandOutcome outcome(ExecutionCacheEntry entry) {
+        return entry.getStatus() == EvaluationStatus.SUCCESS ?
+               CommandOutcome.SUCCESS :
+               CommandOutcome.FAILED;
+    }
+
+    /**
+     * @return hex SHA-256 of the commands; each command is length-prefixed so
+     * that different splits of the same text do not collide
+     */
+    public static String commandHash(List<String> commands) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+        for (String command : commands) {
+            byte[] bytes = command.getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(4).putInt(0, bytes.length));
+            digest.update(bytes);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String key(String commitId, String qualifiedName, List<String> commands) {
+        return commitId + ":" + qualifiedName + ":" + commandHash(commands);
+    }
+
+    private ExecutionCacheData data(Path evaluationDirectory) {
+        return loaded.computeIfAbsent(evaluationDirectory.toAbsolutePath().normalize(), this::read);
+    }
+
+    private ExecutionCacheData read(Path evaluationDirectory) {
+        Path file = evaluationDirectory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return new ExecutionCacheData();
+        }
+        try {
+            return cacheReader.readValue(file.toFile());
+        } catch (IOException ex) {
+            // a damaged cache only costs a re-run
+            return new ExecutionCacheData();
+        }
+    }
+
+    private void write(Path file, ExecutionCacheData data) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        cacheWriter.writeValue(temporary.toFile(), data);
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package dev.phlp.stud.evaluator.service.command;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Append-only archive holding the compressed command logs of one evaluation
+ * directory in a single file. Each entry consists of a header (node name,
+ * timestamp, compressed length) followed by the deflated log. The index is
+ * rebuilt from the headers on first access; an entry left incomplete by a
+ * crash ends the archive and is overwritten by the next append.
+ *
+ * <p>Several processes may append to the same archive (for example the
+ * application and a headless run). Appends hold an exclusive file lock and
+ * first index whatever other writers appended since the last access.</p>
+ */
+public class LogArchive {
+    public static final String FILE_NAME = "archive.logz";
+
+    private static final int MAGIC = 0x4C4F4741;
+    private static final int MAX_NAME_BYTES = 64 * 1024;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // file locks are held per JVM, so writers within this process are serialized here
+    private static final Map<Path, Object> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private List<Entry> index;
+    private long validEnd;
+
+    public LogArchive(Path file) {
+        this.file = Objects.requireNonNull(file, "file must not be null");
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Compresses {@code content} into a new entry and syncs the archive.
+     *
+     * @return offset of the new entry, used as its reference
+     */
+    public synchronized long append(String nodeName, Instant timestamp, Path content) throws IOException {
+        ensureIndex();
+        Files.createDirectories(file.getParent());
+        byte[] name = nodeName.getBytes(StandardCharsets.UTF_8);
+        Object processLock = PROCESS_LOCKS.computeIfAbsent(file.toAbsolutePath().normalize(), key -> new Object());
+        synchronized (processLock) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                return append(channel, nodeName, timestamp, content, name);
+            }
+        }
+    }
+
+    private long append(FileChannel channel, String nodeName, Instant timestamp, Path content, byte[] name)
+            throws IOException {
+        scanNewEntries(channel);
+        long offset = validEnd;
+        if (channel.size() > offset) {
+            // only an entry left incomplete by a crashed writer remains behind the last complete one
+            channel.truncate(offset);
+        }
+        ByteBuffer header = ByteBuffer.allocate(4 + 8 + 4 + name.length + 8);
+        header.putInt(MAGIC).putLong(timestamp.toEpochMilli()).putInt(name.length).put(name).putLong(0L).flip();
+        long dataOffset = offset + header.remaining();
+        channel.write(header, offset);
+        channel.position(dataOffset);
+        Deflater deflater = new Deflater();
+        try (InputStream in = Files.newInputStream(content);
+             DeflaterOutputStream out = new DeflaterOutputStream(new NonClosingOutputStream(Channels.newOutputStream(channel)),
+                     deflater, BUFFER_SIZE)) {
+            in.transferTo(out);
+        } finally {
+            deflater.end();
+        }
+        long compressedLength = channel.position() - dataOffset;
+        channel.write(ByteBuffer.allocate(8).putLong(0, compressedLength), dataOffset - 8);
+        channel.force(true);
+        index.add(new Entry(nodeName, Instant.ofEpochMilli(timestamp.toEpochMilli()), offset, dataOffset, compressedLength));
+        validEnd = dataOffset + compressedLength;
+        return offset;
+    }
+
+    /**
+     * @return all complete entries in the order they were appended
+     */
+    public synchronized List<Entry> entries() throws IOException {
+        ensureIndex();
+        return List.copyOf(index);
+    }
+
+    public synchronized Optional<Entry> latest(String nodeName) throws IOException {
+        ensureIndex();
+        return index.stream()
+                    .filter(entry -> entry.nodeName().equals(nodeName))
+                    .max(Comparator.comparing(Entry::timestamp).thenComparingLong(Entry::offset));
+    }
+
+    /**
+     * Streams the decompressed log of the entry starting at {@code offset}.
+     */
+    public InputStream open(long offset) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            ensureIndex();
+            entry = find(offset);
+            if (entry == null) {
+                // the entry may have been appended by another writer since the index was read
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    scanNewEntries(channel);
+                }
+                entry = find(offset);
+            }
+            if (entry == null) {
+                throw new IOException("Kein Log-Eintrag an Position " + offset + " in " + file);
+            }
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        channel.position(entry.dataOffset());
+        return new InflaterInputStream(Channels.newInputStream(channel), new Inflater(), BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inf.end();
+                }
+            }
+        };
+    }
+
+    private Entry find(long offset) {
+        return index.stream()
+                    .filter(candidate -> candidate.offset() == offset)
+                    .findFirst()
+                    .orElse(null);
+    }
+
+    private void ensureIndex() throws IOException {
+        if (index != null) {
+            return;
+        }
+        index = new ArrayList<>();
+        validEnd = 0;
+        if (Files.exists(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                scanNewEntries(channel);
+            }
+        }
+    }
+
+    /**
+     * Adds the complete entries between the indexed end and the current end
+     * of the file.
+     */
+    private void scanNewEntries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        while (true) {
+            Entry entry = readEntry(channel, validEnd, size);
+            if (entry == null) {
+                return;
+            }
+            index.add(entry);
+            validEnd = entry.dataOffset() + entry.compressedLength();
+        }
+    }
+
+    private Entry readEntry(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer fixed = ByteBuffer.allocate(16);
+        if (position + fixed.capacity() > size || channel.read(fixed, position) < fixed.capacity()) {
+            return null;
+        }
+        fixed.flip();
+        if (fixed.getInt() != MAGIC) {
+            return null;
+        }
+        long timestamp = fixed.getLong();
+        int nameLength = fixed.getInt();
+        if (nameLength < 0 || nameLength > MAX_NAME_BYTES) {
+            return null;
+        }
+        ByteBuffer rest = ByteBuffer.allocate(nameLength + 8);
+        long restOffset = position + fixed.capacity();
+        if (restOffset + rest.capacity() > size || channel.read(rest, restOffset) < rest.capacity()) {
+            return null;
+        }
+        rest.flip();
+        byte[] name = new byte[nameLength];
+        rest.get(name);
+        long compressedLength = rest.getLong();
+        long dataOffset = restOffset + rest.capacity();
+        if (compressedLength <= 0 || dataOffset + compressedLength > size) {
+            return null;
+        }
+        return new Entry(new String(name, StandardCharsets.UTF_8), Instant.ofEpochMilli(timestamp), position, dataOffset,
+                compressedLength);
+    }
+
+    public record Entry(
+            String nodeName,
+            Instant timestamp,
+            long offset,
+            long dataOffset,
+            long compressedLength) {
+    }
+
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
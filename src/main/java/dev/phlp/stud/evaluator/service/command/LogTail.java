@@ -0,0 +1,70 @@
+package dev.phlp.stud.evaluator.service.command;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Keeps the most recent lines of command output within a character budget,
+ * so views can show the end of a long run without holding all of it in
+ * memory. The complete output goes to the log file via {@link CommandLogSink}.
+ */
+public class LogTail {
+    public static final int DEFAULT_CAPACITY = 256 * 1024;
+
+    private final int capacity;
+    private final ArrayDeque<String> lines = new ArrayDeque<>();
+    private int size;
+    private long droppedLines;
+
+    public LogTail() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LogTail(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public synchronized void append(String line) {
+        String kept =
+                line.length() > capacity ?
+                line.substring(0, capacity) :
+                line;
+        lines.addLast(kept);
+        size += kept.length() + 1;
+        while (size > capacity && lines.size() > 1) {
+            size -= lines.removeFirst().length() + 1;
+            droppedLines++;
+        }
+    }
+
+    public synchronized void append(List<String> newLines) {
+        newLines.forEach(this::append);
+    }
+
+    /**
+     * @return the retained lines, preceded by a note if earlier lines were dropped
+     */
+    public synchronized String text() {
+        String lineSeparator = System.lineSeparator();
+        StringBuilder builder = new StringBuilder(size + 64);
+        if (droppedLines > 0) {
+            builder.append("... ").append(droppedLines).append(" fruehere Zeilen ausgeblendet (vollstaendig im Log)")
+                   .append(lineSeparator);
+        }
+        lines.forEach(line -> builder.append(line).append(lineSeparator));
+        return builder.toString();
+    }
+
+    public synchronized long droppedLines() {
+        return droppedLines;
+    }
+
+    public synchronized void clear() {
+        lines.clear();
+        size = 0;
+        droppedLines = 0;
+    }
+}
@@ -0,0 +1,93 @@
+package dev.phlp.stud.evaluator.service.export;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import dev.phlp.stud.evaluator.model.EvaluationNode;
+import dev.phlp.stud.evaluator.model.RubricIndex;
+import dev.phlp.stud.evaluator.service.storage.CohortScoreStore;
+
+/**
+ * Immutable snapshot of one evaluation node as it appears in the feedback:
+ * points are already aggregated like in {@link EvaluationNode}, pseudo nodes
+ * count zero. Snapshots can be rendered on any thread.
+ */
+public record FeedbackNode(
+        String name,
+        double achievedPoints,
+        double maxPoints,
+        boolean pseudo,
+        String configurationComment,
+        String comment,
+        List<FeedbackNode> children) {
+    public FeedbackNode {
+        Objects.requireNonNull(name, "name must not be null");
+        children = List.copyOf(children);
+    }
+
+    public boolean isLeaf() {
+        return children.isEmpty();
+    }
+
+    public double completionRatio() {
+        if (Double.compare(maxPoints, 0.0) == 0) {
+            return 0.0;
+        }
+        return achievedPoints / maxPoints;
+    }
+
+    /**
+     * @return snapshots of the live trees below {@code roots}
+     */
+    public static List<FeedbackNode> of(List<EvaluationNode> roots) {
+        List<FeedbackNode> snapshots = new ArrayList<>(roots.size());
+        for (EvaluationNode root : roots) {
+            snapshots.add(of(root));
+        }
+        return snapshots;
+    }
+
+    private static FeedbackNode of(EvaluationNode node) {
+        return new FeedbackNode(node.getName(), node.getAchievedPoints(), node.getMaxPoints(), node.isPseudo(),
+                node.getConfigurationComment(), node.getComment(), of(node.getChildren()));
+    }
+
+    /**
+     * @return the rubric of {@code scores} filled with the stored row of
+     * {@code repository}; the live nodes of the index are only read for their
+     * structure and configuration
+     */
+    public static List<FeedbackNode> of(CohortScoreStore scores, int repository) {
+        RubricIndex index = scores.index();
+        List<FeedbackNode> roots = new ArrayList<>(index.roots().size());
+        for (EvaluationNode root : index.roots()) {
+            roots.add(of(scores, repository, index, root));
+        }
+        return roots;
+    }
+
+    private static FeedbackNode of(CohortScoreStore scores, int repository, RubricIndex index, EvaluationNode node) {
+        int id = index.id(node);
+        List<FeedbackNode> children = new ArrayList<>(node.getChildren().size());
+        double achieved = 0.0;
+        double max = 0.0;
+        for (EvaluationNode child : node.getChildren()) {
+            FeedbackNode snapshot = of(scores, repository, index, child);
+            children.add(snapshot);
+            achieved += snapshot.achievedPoints();
+            max += snapshot.maxPoints();
+        }
+        if (children.isEmpty()) {
+            int slot = scores.slot(id);
+            achieved = scores.points(repository, slot);
+            max = node.getMaxPoints();
+        }
+        if (node.isPseudo()) {
+            achieved = 0.0;
+            max = 0.0;
+        }
+        return new FeedbackNode(node.getName(), achieved, max, node.isPseudo(), node.getConfigurationComment(),
+                scores.comment(repository, id), children);
+    }
+}
@@ -11,12 +11,24 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Locale;
 
+/**
+ * Renders the feedback file of one repository. Rendering works on immutable
+ * {@link FeedbackNode} snapshots and may run on several threads at once.
+ */
 public class MarkdownExporter {
-    private static final DecimalFormat POINT_FORMAT = new DecimalFormat("0.##");
-    private static final DecimalFormat PERCENT_FORMAT = new DecimalFormat("0.##%");
+    // DecimalFormat is not thread-safe
+    private static final ThreadLocal<DecimalFormat> POINT_FORMAT = ThreadLocal.withInitial(() -> new DecimalFormat("0.##"));
+    private static final ThreadLocal<DecimalFormat> PERCENT_FORMAT = ThreadLocal.withInitial(() -> new DecimalFormat("0.##%"));
 
     public Path export(Path repositoryRoot, List<EvaluationNode> roots, String contextLabel,
                        String overallComment, String outputFileName) throws IOException {
+        return exportFeedback(repositoryRoot, FeedbackNode.of(roots), contextLabel, overallComment, outputFileName);
+    }
+
+    public Path exportFeedback(Path repositoryRoot, List<FeedbackNode> roots, String contextLabel,
+                               String overallComment, String outputFileName) throws IOException {
+        DecimalFormat pointFormat = POINT_FORMAT.get();
+        DecimalFormat percentFormat = PERCENT_FORMAT.get();
         StringBuilder builder = new StringBuilder();
         builder.append("# Evaluation\n\n");
         if (appendConfigQuote(builder, "", overallComment)) {
@@ -27,41 +39,41 @@ public class MarkdownExporter {
         }
         builder.append("**Erstellt am:** ").append(Instant.now()).append("\n\n");
 
-        List<EvaluationNode> visibleRoots = roots.stream()
-                .filter(node -> !node.isPseudo())
+        List<FeedbackNode> visibleRoots = roots.stream()
+                .filter(node -> !node.pseudo())
                 .toList();
-        double totalAchieved = visibleRoots.stream().mapToDouble(EvaluationNode::getAchievedPoints).sum();
-        double totalMax = visibleRoots.stream().mapToDouble(EvaluationNode::getMaxPoints).sum();
+        double totalAchieved = visibleRoots.stream().mapToDouble(FeedbackNode::achievedPoints).sum();
+        double totalMax = visibleRoots.stream().mapToDouble(FeedbackNode::maxPoints).sum();
         double totalRatio = Double.compare(totalMax, 0.0) == 0 ? 0.0 : totalAchieved / totalMax;
 
         builder.append("| Kategorie | Erreicht | Max | % |\n");
         builder.append("| --- | ---: | ---: | ---: |\n");
         visibleRoots.forEach(root -> builder
                 .append("| ")
-                .append(root.getName())
+                .append(root.name())
                 .append(" | ")
-                .append(POINT_FORMAT.format(root.getAchievedPoints()))
+                .append(pointFormat.format(root.achievedPoints()))
                 .append(" | ")
-                .append(POINT_FORMAT.format(root.getMaxPoints()))
+                .append(pointFormat.format(root.maxPoints()))
                 .append(" | ")
-                .append(PERCENT_FORMAT.format(root.getCompletionRatio()))
+                .append(percentFormat.format(root.completionRatio()))
                 .append(" |\n"));
         builder.append("| **Gesamt** | ")
-                .append(POINT_FORMAT.format(totalAchieved))
+                .append(pointFormat.format(totalAchieved))
                 .append(" | ")
-                .append(POINT_FORMAT.format(totalMax))
+                .append(pointFormat.format(totalMax))
                 .append(" | ")
-                .append(PERCENT_FORMAT.format(totalRatio))
+                .append(percentFormat.format(totalRatio))
                 .append(" |\n\n");
 
         visibleRoots.forEach(root -> {
-            builder.append("## ").append(root.getName())
+            builder.append("## ").append(root.name())
                     .append(" (")
-                    .append(POINT_FORMAT.format(root.getAchievedPoints()))
+                    .append(pointFormat.format(root.achievedPoints()))
                     .append(" / ")
-                    .append(POINT_FORMAT.format(root.getMaxPoints()))
+                    .append(pointFormat.format(root.maxPoints()))
                     .append(")\n\n");
-            appendNodeDetails(builder, root, 0);
+            appendNodeDetails(builder, pointFormat, root, 0);
             builder.append("\n");
         });
 
@@ -74,34 +86,34 @@ public class MarkdownExporter {
         return markdownFile;
     }
 
-    private void appendNodeDetails(StringBuilder builder, EvaluationNode node, int depth) {
-        if (node.isPseudo()) {
+    private void appendNodeDetails(StringBuilder builder, DecimalFormat pointFormat, FeedbackNode node, int depth) {
+        if (node.pseudo()) {
             return;
         }
         String indent = "  ".repeat(depth);
         builder.append(indent)
                .append("- ")
                .append("[")
-               .append(node.getAchievedPoints() >= node.getMaxPoints() ? "x" : " ")
+               .append(node.achievedPoints() >= node.maxPoints() ? "x" : " ")
                .append("] ")
                .append("(")
-               .append(POINT_FORMAT.format(node.getAchievedPoints()))
+               .append(pointFormat.format(node.achievedPoints()))
                .append(" / ")
-               .append(POINT_FORMAT.format(node.getMaxPoints()))
-               .append(node.getMaxPoints() == 1.0 ? " Punkt" : " Punkte")
+               .append(pointFormat.format(node.maxPoints()))
+               .append(node.maxPoints() == 1.0 ? " Punkt" : " Punkte")
                .append(") ")
-               .append(node.getName())
+               .append(node.name())
                .append("\n");
         appendNodeComments(builder, indent + "  ", node);
         if (node.isLeaf()) {
             return;
         }
-        node.getChildren().forEach(child -> appendNodeDetails(builder, child, depth + 1));
+        node.children().forEach(child -> appendNodeDetails(builder, pointFormat, child, depth + 1));
     }
 
-    private void appendNodeComments(StringBuilder builder, String prefix, EvaluationNode node) {
-        boolean wroteConfig = appendConfigQuote(builder, prefix, node.getConfigurationComment());
-        boolean wroteEvaluation = appendConfigQuote(builder, prefix, node.getComment());
+    private void appendNodeComments(StringBuilder builder, String prefix, FeedbackNode node) {
+        boolean wroteConfig = appendConfigQuote(builder, prefix, node.configurationComment());
+        boolean wroteEvaluation = appendConfigQuote(builder, prefix, node.comment());
         if ((wroteConfig || wroteEvaluation) && !node.isLeaf()) {
             builder.append("\n");
         }
@@ -0,0 +1,184 @@
+package dev.phlp.stud.evaluator.service.git;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Commit time index over all commits reachable from a tip, sorted by commit
+ * time. Resolving the latest commit before a deadline becomes a binary search
+ * instead of a log walk, and moving the tip forward only parses the commits
+ * that were added since the index was last updated.
+ */
+final class CommitTimeIndex {
+    static final String FILE_NAME = "evaluator-commit-times.idx";
+
+    private static final int MAGIC = 0x45564354;
+    private static final int VERSION = 2;
+
+    private final ObjectId tip;
+    private final long[] commitTimes;
+    private final ObjectId[] commitIds;
+
+    private CommitTimeIndex(ObjectId tip, long[] commitTimes, ObjectId[] commitIds) {
+        this.tip = tip;
+        this.commitTimes = commitTimes;
+        this.commitIds = commitIds;
+    }
+
+    static CommitTimeIndex empty() {
+        return new CommitTimeIndex(ObjectId.zeroId(), new long[0], new ObjectId[0]);
+    }
+
+    ObjectId tip() {
+        return tip;
+    }
+
+    int size() {
+        return commitIds.length;
+    }
+
+    /**
+     * @return the newest commit whose commit time is not after {@code cutOff};
+     * among commits with the same time the one closest to the tip
+     */
+    Optional<ObjectId> latestAtOrBefore(Instant cutOff) {
+        long key = cutOff.getEpochSecond();
+        int low = 0;
+        int high = commitTimes.length - 1;
+        int match = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (commitTimes[mid] <= key) {
+                match = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return match >= 0 ?
+               Optional.of(commitIds[match]) :
+               Optional.empty();
+    }
+
+    /**
+     * Returns an index for {@code newTip}. If the current tip is an ancestor of
+     * the new one, only the commits in between are walked; otherwise (history
+     * rewritten, first use) the index is rebuilt.
+     */
+    CommitTimeIndex advanceTo(ObjectReader reader, ObjectId newTip) throws IOException {
+        if (newTip.equals(tip)) {
+            return this;
+        }
+        try (RevWalk walk = new RevWalk(reader)) {
+            RevCommit newTipCommit = walk.parseCommit(newTip);
+            boolean incremental = false;
+            if (!ObjectId.zeroId().equals(tip) && reader.has(tip)) {
+                RevCommit oldTipCommit = walk.parseCommit(tip);
+                incremental = walk.isMergedInto(oldTipCommit, newTipCommit);
+                walk.reset();
+                if (incremental) {
+                    walk.markUninteresting(oldTipCommit);
+                }
+            }
+            // ancestors first, so that descendants come last among commits sharing a timestamp
+            walk.sort(RevSort.TOPO);
+            walk.sort(RevSort.REVERSE, true);
+            walk.markStart(newTipCommit);
+            List<Entry> added = new ArrayList<>();
+            for (RevCommit commit : walk) {
+                added.add(new Entry(commit.getCommitTime(), commit.copy()));
+            }
+            int retained = incremental ? commitIds.length : 0;
+            Entry[] merged = new Entry[retained + added.size()];
+            for (int i = 0; i < retained; i++) {
+                merged[i] = new Entry(commitTimes[i], commitIds[i]);
+            }
+            for (int i = 0; i < added.size(); i++) {
+                merged[retained + i] = added.get(i);
+            }
+            // retained commits are never descendants of added ones, so retained-then-added is a
+            // topological order as well; the stable sort keeps it for commits sharing a timestamp
+            Arrays.sort(merged, Comparator.comparingLong(Entry::time));
+            long[] times = new long[merged.length];
+            ObjectId[] ids = new ObjectId[merged.length];
+            for (int i = 0; i < merged.length; i++) {
+                times[i] = merged[i].time();
+                ids[i] = merged[i].id();
+            }
+            return new CommitTimeIndex(newTip.copy(), times, ids);
+        }
+    }
+
+    static Optional<CommitTimeIndex> read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return Optional.empty();
+            }
+            byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+            in.readFully(raw);
+            ObjectId storedTip = ObjectId.fromRaw(raw);
+            int count = in.readInt();
+            long[] times = new long[count];
+            ObjectId[] ids = new ObjectId[count];
+            for (int i = 0; i < count; i++) {
+                times[i] = in.readLong();
+                in.readFully(raw);
+                ids[i] = ObjectId.fromRaw(raw);
+            }
+            return Optional.of(new CommitTimeIndex(storedTip, times, ids));
+        } catch (IOException ex) {
+            // a damaged index is simply rebuilt
+            return Optional.empty();
+        }
+    }
+
+    void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+            tip.copyRawTo(raw, 0);
+            out.write(raw);
+            out.writeInt(commitIds.length);
+            for (int i = 0; i < commitIds.length; i++) {
+                out.writeLong(commitTimes[i]);
+                commitIds[i].copyRawTo(raw, 0);
+                out.write(raw);
+            }
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private record Entry(
+            long time,
+            ObjectId id) {
+    }
+}
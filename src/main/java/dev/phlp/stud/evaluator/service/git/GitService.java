@@ -2,6 +2,8 @@ package dev.phlp.stud.evaluator.service.git;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
@@ -9,24 +11,41 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.CreateBranchCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.TransportConfigCallback;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheCheckout;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.FetchResult;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.RemoteConfig;
 import org.eclipse.jgit.transport.SshSessionFactory;
 import org.eclipse.jgit.transport.SshTransport;
 import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.transport.URIish;
 import org.eclipse.jgit.transport.sshd.SshdSessionFactory;
 import org.eclipse.jgit.transport.sshd.SshdSessionFactoryBuilder;
 
@@ -34,6 +53,8 @@ public class GitService {
     private static final String WORK_BRANCH = "evaluation-snapshot";
 
     private final TransportConfigCallback transportConfigCallback;
+    private final Map<Path, CommitTimeIndex> commitTimeIndexes = new ConcurrentHashMap<>();
+    private final Map<Path, Object> commitTimeIndexLocks = new ConcurrentHashMap<>();
 
     public GitService() {
         Path homeDirectory = resolveUserHome();
@@ -62,125 +83,392 @@ public class GitService {
         };
     }
 
-    public Path cloneOrUpdate(String repositoryUrl, Path targetDirectory) throws GitServiceException {
+    public RefreshOutcome cloneOrUpdate(String repositoryUrl, Path targetDirectory) throws GitServiceException {
+        return cloneOrUpdate(repositoryUrl, targetDirectory, null);
+    }
+
+    /**
+     * Clones or refreshes the repository. When {@code shallowSince} is given, a
+     * fresh clone only fetches the remote default branch plus tags and omits
+     * history older than that instant; existing clones keep their shape.
+     *
+     * @param repositoryUrl   remote URL
+     * @param targetDirectory local working directory
+     * @param shallowSince    oldest commit time to fetch, or {@code null} for full history
+     * @return what had to be done to bring the repository up to date
+     */
+    public RefreshOutcome cloneOrUpdate(String repositoryUrl, Path targetDirectory, Instant shallowSince)
+            throws GitServiceException {
+        try (RepositorySession session = prepareSession(repositoryUrl, targetDirectory, shallowSince)) {
+            return session.refreshOutcome();
+        }
+    }
+
+    /**
+     * Clones or refreshes the repository like {@link #cloneOrUpdate(String, Path, Instant)}
+     * and keeps the resulting repository open, so the following checkout steps
+     * of a preparation pass reuse the already loaded config, refs and pack
+     * indexes. The caller must close the session.
+     */
+    public RepositorySession prepareSession(String repositoryUrl, Path targetDirectory, Instant shallowSince)
+            throws GitServiceException {
+        return prepareSession(repositoryUrl, targetDirectory, shallowSince, null);
+    }
+
+    /**
+     * Variant of {@link #prepareSession(String, Path, Instant)} that borrows
+     * objects from a reference repository (see {@link #updateReferenceRepository}).
+     * A fresh clone is created with git alternates pointing at the reference,
+     * so only objects missing there are transferred and stored. Reference
+     * clones take precedence over shallow clones.
+     *
+     * @param referenceRepository bare reference repository, or {@code null}
+     */
+    public RepositorySession prepareSession(String repositoryUrl, Path targetDirectory, Instant shallowSince,
+                                            Path referenceRepository) throws GitServiceException {
+        Git git = null;
         try {
             Path parent = targetDirectory.getParent();
             if (parent != null) {
                 Files.createDirectories(parent);
             }
+            RefreshOutcome outcome;
             if (Files.exists(targetDirectory.resolve(".git"))) {
-                try (Git git = Git.open(targetDirectory.toFile())) {
+                git = Git.open(targetDirectory.toFile());
+                outcome = refresh(git);
+            } else {
+                git =
+                        referenceRepository != null ?
+                        cloneWithReference(repositoryUrl, targetDirectory, referenceRepository) :
+                        cloneRepository(repositoryUrl, targetDirectory, shallowSince);
+                outcome = RefreshOutcome.CLONED;
+            }
+            return new RepositorySession(targetDirectory, git, outcome);
+        } catch (GitAPIException | IOException | URISyntaxException ex) {
+            if (git != null) {
+                git.close();
+            }
+            throw new GitServiceException("Repository konnte nicht geklont oder aktualisiert werden", ex);
+        }
+    }
+
+    /**
+     * Opens an existing repository for a sequence of operations. The caller
+     * must close the session.
+     */
+    public RepositorySession openSession(Path repositoryRoot) throws GitServiceException {
+        try {
+            return new RepositorySession(repositoryRoot, Git.open(repositoryRoot.toFile()), null);
+        } catch (IOException ex) {
+            throw new GitServiceException("Repository konnte nicht geoeffnet werden", ex);
+        }
+    }
+
+    /**
+     * Fetches new commits and tags into the remote-tracking refs. The working
+     * tree is left alone; the following {@link RepositorySession#checkoutHead()}
+     * or snapshot checkout moves it by the diff to its target.
+     */
+    private RefreshOutcome refresh(Git git) throws GitAPIException, IOException {
+        if (isUpToDate(git)) {
+            return RefreshOutcome.UP_TO_DATE;
+        }
+        git.fetch()
+           .setRemote("origin")
+           .setTagOpt(TagOpt.FETCH_TAGS)
+           .setRemoveDeletedRefs(true)
+           .setTransportConfigCallback(transportConfigCallback)
+           .call();
+        return RefreshOutcome.UPDATED;
+    }
+
+    /**
+     * Checks out the default branch and resets it to its remote-tracking
+     * branch, unless it is already there.
+     */
+    private void alignWithTrackingBranch(Git git) throws GitAPIException, IOException {
+        String defaultBranch = resolveDefaultBranchName(git.getRepository());
+        if (defaultBranch != null && !isOnTrackingBranch(git.getRepository(), defaultBranch)) {
+            checkoutTrackingBranch(git, defaultBranch);
+            git.reset()
+               .setMode(ResetCommand.ResetType.HARD)
+               .setRef(Constants.R_REMOTES + "origin/" + defaultBranch)
+               .call();
+        }
+    }
+
+    /**
+     * Clones or fetches the shared bare reference repository (usually the
+     * assignment template all student repositories were forked from). Objects
+     * are never pruned from it, because student clones borrow them through
+     * alternates.
+     *
+     * @return the reference repository directory
+     */
+    public Path updateReferenceRepository(String templateUrl, Path referenceDirectory) throws GitServiceException {
+        try {
+            if (Files.exists(referenceDirectory.resolve("objects"))) {
+                try (Git git = Git.open(referenceDirectory.toFile())) {
                     git.fetch()
                        .setRemote("origin")
                        .setTagOpt(TagOpt.FETCH_TAGS)
-                       .setRemoveDeletedRefs(true)
                        .setTransportConfigCallback(transportConfigCallback)
                        .call();
-                    String defaultBranch = resolveDefaultBranchName(git.getRepository());
-                    if (defaultBranch != null) {
-                        checkoutTrackingBranch(git, defaultBranch);
-                        git.reset()
-                           .setMode(ResetCommand.ResetType.HARD)
-                           .setRef("refs/remotes/origin/" + defaultBranch)
-                           .call();
-                        git.pull()
-                           .setRemote("origin")
-                           .setRemoteBranchName(defaultBranch)
-                           .setTransportConfigCallback(transportConfigCallback)
-                           .call();
-                    }
                 }
             } else {
+                Path parent = referenceDirectory.getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
                 try (Git git = Git.cloneRepository()
-                                  .setURI(repositoryUrl)
-                                  .setDirectory(targetDirectory.toFile())
+                                  .setURI(templateUrl)
+                                  .setDirectory(referenceDirectory.toFile())
+                                  .setBare(true)
                                   .setCloneAllBranches(true)
                                   .setTransportConfigCallback(transportConfigCallback)
                                   .call()) {
-                    // cloneRepository already returns a Git instance; try-with-resources closes it.
+                    // bare clone only serves as object store
                 }
             }
-            return targetDirectory;
+            return referenceDirectory;
         } catch (GitAPIException | IOException ex) {
-            throw new GitServiceException("Repository konnte nicht geklont oder aktualisiert werden", ex);
+            throw new GitServiceException("Referenz-Repository konnte nicht aktualisiert werden", ex);
         }
     }
 
-    public String checkoutTag(Path repositoryRoot, String tagName) throws GitServiceException {
-        if (tagName == null || tagName.isBlank()) {
-            throw new IllegalArgumentException("tagName must not be blank");
-        }
-        try (Git git = Git.open(repositoryRoot.toFile())) {
-            Repository repository = git.getRepository();
-            TagReference reference = resolveTagReference(repository, tagName);
-            checkoutCommit(git, reference.objectId());
-            return reference.objectId().getName();
-        } catch (GitServiceException ex) {
+    private Git cloneWithReference(String repositoryUrl, Path targetDirectory, Path referenceRepository)
+            throws GitAPIException, IOException, URISyntaxException {
+        try (Git initialized = Git.init().setDirectory(targetDirectory.toFile()).call()) {
+            Path gitDirectory = initialized.getRepository().getDirectory().toPath();
+            Path alternates = gitDirectory.resolve("objects").resolve("info").resolve("alternates");
+            Files.createDirectories(alternates.getParent());
+            Files.writeString(alternates,
+                    referenceRepository.resolve("objects").toAbsolutePath().normalize() + "\n",
+                    StandardCharsets.UTF_8);
+
+            StoredConfig config = initialized.getRepository().getConfig();
+            RemoteConfig origin = new RemoteConfig(config, "origin");
+            origin.addURI(new URIish(repositoryUrl));
+            origin.addFetchRefSpec(new RefSpec("+" + Constants.R_HEADS + "*:" + Constants.R_REMOTES + "origin/*"));
+            origin.update(config);
+            config.save();
+        }
+        // reopen so the object database picks up the alternates written above
+        Git git = Git.open(targetDirectory.toFile());
+        try {
+            FetchResult result = git.fetch()
+                                    .setRemote("origin")
+                                    .setTagOpt(TagOpt.FETCH_TAGS)
+                                    .setTransportConfigCallback(transportConfigCallback)
+                                    .call();
+            Map<String, Ref> advertised = new HashMap<>();
+            result.getAdvertisedRefs().forEach(ref -> advertised.put(ref.getName(), ref));
+            String defaultBranch = defaultBranchOf(advertised);
+            if (defaultBranch != null) {
+                String branch = Repository.shortenRefName(defaultBranch);
+                RefUpdate originHead = git.getRepository().updateRef(Constants.R_REMOTES + "origin/" + Constants.HEAD);
+                originHead.link(Constants.R_REMOTES + "origin/" + branch);
+                checkoutTrackingBranch(git, branch);
+            }
+            return git;
+        } catch (GitAPIException | IOException ex) {
+            git.close();
             throw ex;
-        } catch (IOException | GitAPIException ex) {
-            throw new GitServiceException("Tag konnte nicht ausgecheckt werden", ex);
         }
     }
 
-    public Instant resolveTagCommitInstant(Path repositoryRoot, String tagName) throws GitServiceException {
-        if (tagName == null || tagName.isBlank()) {
-            throw new IllegalArgumentException("tagName must not be blank");
-        }
-        try (Repository repository = new FileRepositoryBuilder()
-                .setGitDir(repositoryRoot.resolve(".git").toFile())
-                .build()) {
-            TagReference reference = resolveTagReference(repository, tagName);
-            return reference.commitInstant();
-        } catch (GitServiceException ex) {
-            throw ex;
-        } catch (IOException ex) {
-            throw new GitServiceException("Tag-Informationen konnten nicht ermittelt werden", ex);
+    private Git cloneRepository(String repositoryUrl, Path targetDirectory, Instant shallowSince) throws GitAPIException {
+        CloneCommand clone = Git.cloneRepository()
+                                .setURI(repositoryUrl)
+                                .setDirectory(targetDirectory.toFile())
+                                .setTransportConfigCallback(transportConfigCallback);
+        String remoteDefaultBranch =
+                shallowSince != null ?
+                resolveRemoteDefaultBranch(repositoryUrl) :
+                null;
+        if (remoteDefaultBranch != null) {
+            clone.setCloneAllBranches(false)
+                 .setBranchesToClone(List.of(remoteDefaultBranch))
+                 .setBranch(remoteDefaultBranch)
+                 .setTagOption(TagOpt.FETCH_TAGS)
+                 .setShallowSince(shallowSince);
+        } else {
+            clone.setCloneAllBranches(true);
         }
+        return clone.call();
     }
 
-    public String checkoutLatestBefore(Path repositoryRoot, LocalDate deadline) throws GitServiceException {
-        if (deadline == null) {
-            throw new IllegalArgumentException("deadline must not be null");
-        }
-        try (Git git = Git.open(repositoryRoot.toFile())) {
-            Repository repository = git.getRepository();
-            ObjectId startPoint = resolveDefaultHead(repository);
-            if (startPoint == null) {
-                throw new GitServiceException("Es konnte kein Standard-Branch ermittelt werden");
-            }
-            Instant cutOff = deadline.atTime(LocalTime.MAX).atZone(ZoneId.systemDefault()).toInstant();
-            RevCommit targetCommit = null;
-            Iterable<RevCommit> commits = git.log().add(startPoint).call();
-            for (RevCommit commit : commits) {
-                Instant commitInstant = Instant.ofEpochSecond(commit.getCommitTime());
-                if (!commitInstant.isAfter(cutOff)) {
-                    targetCommit = commit;
-                    break;
+    /**
+     * Compares the refs advertised by {@code origin} with the local
+     * remote-tracking branches and tags. A single ls-remote round trip is much
+     * cheaper than a fetch negotiation when nothing changed upstream. Only
+     * branches covered by the configured fetch refspecs are considered, so
+     * single-branch clones are not reported as stale.
+     */
+    private boolean isUpToDate(Git git) throws GitAPIException, IOException {
+        Collection<Ref> advertised = git.lsRemote()
+                                        .setRemote("origin")
+                                        .setHeads(true)
+                                        .setTags(true)
+                                        .setTransportConfigCallback(transportConfigCallback)
+                                        .call();
+        Repository repository = git.getRepository();
+        List<RefSpec> fetchSpecs;
+        try {
+            fetchSpecs = new RemoteConfig(repository.getConfig(), "origin").getFetchRefSpecs();
+        } catch (URISyntaxException ex) {
+            return false;
+        }
+        Set<String> expectedTrackingRefs = new HashSet<>();
+        for (Ref ref : advertised) {
+            String name = ref.getName();
+            String localName = null;
+            if (name.startsWith(Constants.R_TAGS)) {
+                localName = name;
+            } else {
+                for (RefSpec spec : fetchSpecs) {
+                    if (spec.matchSource(name) && spec.getDestination() != null) {
+                        localName = spec.expandFromSource(name).getDestination();
+                        expectedTrackingRefs.add(localName);
+                        break;
+                    }
                 }
             }
-            if (targetCommit == null) {
-                throw new GitServiceException("Kein Commit am oder vor dem Stichtag gefunden");
+            if (localName == null) {
+                continue;
+            }
+            Ref local = repository.exactRef(localName);
+            if (local == null || !Objects.equals(local.getObjectId(), ref.getObjectId())) {
+                return false;
+            }
+        }
+        String remotePrefix = Constants.R_REMOTES + "origin/";
+        for (Ref local : repository.getRefDatabase().getRefsByPrefix(remotePrefix)) {
+            if (!local.isSymbolic() && !expectedTrackingRefs.contains(local.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String resolveRemoteDefaultBranch(String repositoryUrl) throws GitAPIException {
+        return defaultBranchOf(Git.lsRemoteRepository()
+                                  .setRemote(repositoryUrl)
+                                  .setTransportConfigCallback(transportConfigCallback)
+                                  .callAsMap());
+    }
+
+    private String defaultBranchOf(Map<String, Ref> advertised) {
+        Ref head = advertised.get(Constants.HEAD);
+        if (head == null) {
+            return null;
+        }
+        if (head.isSymbolic()) {
+            return head.getTarget().getName();
+        }
+        for (String candidate : new String[] {"main", "master"}) {
+            Ref branch = advertised.get(Constants.R_HEADS + candidate);
+            if (branch != null && Objects.equals(branch.getObjectId(), head.getObjectId())) {
+                return branch.getName();
             }
-            checkoutCommit(git, targetCommit.getId());
-            return targetCommit.getName();
-        } catch (IOException | GitAPIException ex) {
-            throw new GitServiceException("Checkout des Stichtag-Commits fehlgeschlagen", ex);
+        }
+        return advertised.values()
+                         .stream()
+                         .filter(ref -> ref.getName().startsWith(Constants.R_HEADS))
+                         .filter(ref -> Objects.equals(ref.getObjectId(), head.getObjectId()))
+                         .map(Ref::getName)
+                         .findFirst()
+                         .orElse(null);
+    }
+
+    private boolean isOnTrackingBranch(Repository repository, String branch) throws IOException {
+        if (!branch.equals(repository.getBranch())) {
+            return false;
+        }
+        ObjectId head = repository.resolve(Constants.HEAD);
+        ObjectId tracking = repository.resolve(Constants.R_REMOTES + "origin/" + branch);
+        return head != null && head.equals(tracking);
+    }
+
+    public String checkoutTag(Path repositoryRoot, String tagName) throws GitServiceException {
+        try (RepositorySession session = openSession(repositoryRoot)) {
+            return session.checkoutTag(tagName);
+        }
+    }
+
+    public Instant resolveTagCommitInstant(Path repositoryRoot, String tagName) throws GitServiceException {
+        try (RepositorySession session = openSession(repositoryRoot)) {
+            return session.resolveTagCommitInstant(tagName);
+        }
+    }
+
+    public String checkoutLatestBefore(Path repositoryRoot, LocalDate deadline) throws GitServiceException {
+        try (RepositorySession session = openSession(repositoryRoot)) {
+            return session.checkoutLatestBefore(deadline);
+        }
+    }
+
+    public String checkoutHead(Path repositoryRoot) throws GitServiceException {
+        try (RepositorySession session = openSession(repositoryRoot)) {
+            return session.checkoutHead();
         }
     }
 
     public String resolveCurrentCommit(Path repositoryRoot) throws GitServiceException {
-        try (Repository repository = new FileRepositoryBuilder()
-                .setGitDir(repositoryRoot.resolve(".git").toFile())
-                .build()) {
-            ObjectId head = repository.resolve(Constants.HEAD);
-            return head != null ?
-                   head.getName() :
-                   null;
-        } catch (IOException ex) {
-            throw new GitServiceException("Aktueller Commit konnte nicht ermittelt werden", ex);
+        try (RepositorySession session = openSession(repositoryRoot)) {
+            return session.resolveCurrentCommit();
         }
     }
 
+    private ObjectId findLatestBefore(Path repositoryRoot, Repository repository, ObjectReader reader, Instant cutOff)
+            throws IOException, GitServiceException {
+        ObjectId startPoint = resolveDefaultHead(repository, reader);
+        if (startPoint == null) {
+            throw new GitServiceException("Es konnte kein Standard-Branch ermittelt werden");
+        }
+        return commitTimeIndex(repositoryRoot, repository, reader, startPoint).latestAtOrBefore(cutOff).orElse(null);
+    }
+
+    /**
+     * Returns the commit time index for the repository, advanced to
+     * {@code tip}. Indexes are cached per repository for the session and
+     * persisted inside the git directory, so switching deadlines or
+     * re-preparing never walks already indexed history again.
+     */
+    private CommitTimeIndex commitTimeIndex(Path repositoryRoot, Repository repository, ObjectReader reader, ObjectId tip)
+            throws IOException {
+        Path key = repositoryRoot.toAbsolutePath().normalize();
+        Path indexFile = repository.getDirectory().toPath().resolve(CommitTimeIndex.FILE_NAME);
+        synchronized (commitTimeIndexLock(key)) {
+            CommitTimeIndex current = commitTimeIndexes.get(key);
+            if (current == null) {
+                current = CommitTimeIndex.read(indexFile).orElseGet(CommitTimeIndex::empty);
+            }
+            CommitTimeIndex advanced = current.advanceTo(reader, tip);
+            if (advanced != current || !Files.exists(indexFile)) {
+                advanced.write(indexFile);
+            }
+            commitTimeIndexes.put(key, advanced);
+            return advanced;
+        }
+    }
+
+    private void invalidateCommitTimeIndex(Path repositoryRoot, Repository repository) throws IOException {
+        Path key = repositoryRoot.toAbsolutePath().normalize();
+        synchronized (commitTimeIndexLock(key)) {
+            commitTimeIndexes.remove(key);
+            Files.deleteIfExists(repository.getDirectory().toPath().resolve(CommitTimeIndex.FILE_NAME));
+        }
+    }
+
+    private Object commitTimeIndexLock(Path key) {
+        return commitTimeIndexLocks.computeIfAbsent(key, ignored -> new Object());
+    }
+
+    private boolean isShallow(Repository repository) throws IOException {
+        return !repository.getObjectDatabase().getShallowCommits().isEmpty();
+    }
+
     private void checkoutTrackingBranch(Git git, String branch) throws GitAPIException, IOException {
         Repository repository = git.getRepository();
         Ref localRef = repository.findRef(Constants.R_HEADS + branch);
@@ -217,25 +505,78 @@ public class GitService {
                 return candidate;
             }
         }
+        String prefix = Constants.R_REMOTES + "origin/";
+        List<Ref> trackingRefs = repository.getRefDatabase()
+                                           .getRefsByPrefix(prefix)
+                                           .stream()
+                                           .filter(ref -> !ref.isSymbolic())
+                                           .toList();
+        if (trackingRefs.size() == 1) {
+            // single-branch (shallow) clones only track the remote default branch
+            return trackingRefs.get(0).getName().substring(prefix.length());
+        }
         return null;
     }
 
-    private void checkoutCommit(Git git, ObjectId commitId) throws GitAPIException {
-        try {
-            git.branchDelete().setBranchNames(WORK_BRANCH).setForce(true).call();
-        } catch (GitAPIException ignored) {
-            // branch may not exist; ignore
-        }
-        git.checkout()
-           .setName(WORK_BRANCH)
-           .setCreateBranch(true)
-           .setStartPoint(commitId.getName())
-           .setForced(true)
-           .setUpstreamMode(CreateBranchCommand.SetupUpstreamMode.NOTRACK)
-           .call();
+    /**
+     * Moves the {@value #WORK_BRANCH} branch to the given commit and checks it
+     * out. The working tree is updated from the diff between the current HEAD
+     * tree and the target tree, so switching between nearby snapshots only
+     * touches the changed paths. Local modifications to tracked files are
+     * discarded, as with a forced checkout.
+     */
+    private void checkoutCommit(Git git, ObjectId commitId) throws IOException, GitAPIException {
+        Repository repository = git.getRepository();
+        try (RevWalk walk = new RevWalk(repository)) {
+            RevCommit target = walk.parseCommit(commitId);
+            ObjectId head = repository.resolve(Constants.HEAD);
+            if (target.equals(head) && (Constants.R_HEADS + WORK_BRANCH).equals(repository.getFullBranch())) {
+                // snapshot already checked out; leave HEAD, index and working tree alone
+                return;
+            }
+            RevTree headTree =
+                    head != null ?
+                    walk.parseCommit(head).getTree() :
+                    null;
+            List<String> conflicts;
+            DirCache dirCache = repository.lockDirCache();
+            try {
+                DirCacheCheckout checkout = new DirCacheCheckout(repository, headTree, dirCache, target.getTree());
+                checkout.setFailOnConflict(false);
+                checkout.setForce(true);
+                checkout.checkout();
+                conflicts = checkout.getConflicts();
+            } finally {
+                dirCache.unlock();
+            }
+            if (!conflicts.isEmpty()) {
+                // locally modified files are overwritten, but their index entries keep the old
+                // content; restore them from the target so the next switch diffs correctly
+                git.checkout()
+                   .setStartPoint(target)
+                   .addPaths(conflicts)
+                   .setForced(true)
+                   .call();
+            }
+
+            RefUpdate branchUpdate = repository.updateRef(Constants.R_HEADS + WORK_BRANCH);
+            branchUpdate.setNewObjectId(target);
+            branchUpdate.setRefLogMessage("evaluation checkout: " + target.getName(), false);
+            RefUpdate.Result branchResult = branchUpdate.forceUpdate();
+            if (branchResult != RefUpdate.Result.NEW && branchResult != RefUpdate.Result.FORCED
+                    && branchResult != RefUpdate.Result.NO_CHANGE && branchResult != RefUpdate.Result.FAST_FORWARD) {
+                throw new IOException("Branch " + WORK_BRANCH + " konnte nicht gesetzt werden: " + branchResult);
+            }
+            if (!(Constants.R_HEADS + WORK_BRANCH).equals(repository.getFullBranch())) {
+                RefUpdate headUpdate = repository.updateRef(Constants.HEAD);
+                headUpdate.disableRefLog();
+                headUpdate.link(Constants.R_HEADS + WORK_BRANCH);
+            }
+        }
     }
 
-    private TagReference resolveTagReference(Repository repository, String tagName) throws IOException, GitServiceException {
+    private TagReference resolveTagReference(Repository repository, ObjectReader reader, String tagName)
+            throws IOException, GitServiceException {
         Ref tagRef = repository.findRef(tagName);
         if (tagRef == null) {
             tagRef = repository.findRef(Constants.R_TAGS + tagName);
@@ -251,7 +592,7 @@ public class GitService {
         if (objectId == null) {
             objectId = tagRef.getObjectId();
         }
-        try (RevWalk walk = new RevWalk(repository)) {
+        try (RevWalk walk = new RevWalk(reader)) {
             RevCommit commit = walk.parseCommit(objectId);
             Instant commitInstant = Instant.ofEpochSecond(commit.getCommitTime());
             return new TagReference(objectId, commitInstant);
@@ -288,22 +629,30 @@ public class GitService {
         }
     }
 
-    private ObjectId resolveDefaultHead(Repository repository) throws IOException {
+    private ObjectId resolveDefaultHead(Repository repository, ObjectReader reader) throws IOException {
         ObjectId head = repository.resolve("refs/remotes/origin/HEAD");
         if (head != null) {
-            return peelIfTag(repository, head);
+            return peelIfTag(reader, head);
+        }
+        // local branches are only moved by checkoutHead, so prefer the fetched tracking branch
+        String defaultBranch = resolveDefaultBranchName(repository);
+        if (defaultBranch != null) {
+            head = repository.resolve(Constants.R_REMOTES + "origin/" + defaultBranch);
+            if (head != null) {
+                return peelIfTag(reader, head);
+            }
         }
         for (String candidate : new String[] {"refs/heads/main", "refs/heads/master", Constants.HEAD}) {
             head = repository.resolve(candidate);
             if (head != null) {
-                return peelIfTag(repository, head);
+                return peelIfTag(reader, head);
             }
         }
         return null;
     }
 
-    private ObjectId peelIfTag(Repository repository, ObjectId objectId) throws IOException {
-        try (RevWalk walk = new RevWalk(repository)) {
+    private ObjectId peelIfTag(ObjectReader reader, ObjectId objectId) throws IOException {
+        try (RevWalk walk = new RevWalk(reader)) {
             return walk.parseAny(objectId).getId();
         }
     }
@@ -312,4 +661,131 @@ public class GitService {
             ObjectId objectId,
             Instant commitInstant) {
     }
+
+    /**
+     * One open repository used for a sequence of operations, typically the
+     * refresh and checkout steps of preparing a single repository. All object
+     * access goes through a shared {@link ObjectReader}, and resolved tags are
+     * memoized so the tag/deadline comparison and the tag checkout resolve the
+     * tag only once.
+     */
+    public final class RepositorySession implements AutoCloseable {
+        private final Path repositoryRoot;
+        private final Git git;
+        private final ObjectReader reader;
+        private final RefreshOutcome refreshOutcome;
+        private final Map<String, TagReference> tagReferences = new HashMap<>();
+
+        private RepositorySession(Path repositoryRoot, Git git, RefreshOutcome refreshOutcome) {
+            this.repositoryRoot = repositoryRoot;
+            this.git = git;
+            this.reader = git.getRepository().newObjectReader();
+            this.refreshOutcome = refreshOutcome;
+        }
+
+        public Path repositoryRoot() {
+            return repositoryRoot;
+        }
+
+        /**
+         * @return outcome of the refresh that opened this session, or {@code null}
+         * if the session was opened without refreshing
+         */
+        public RefreshOutcome refreshOutcome() {
+            return refreshOutcome;
+        }
+
+        public String checkoutTag(String tagName) throws GitServiceException {
+            try {
+                TagReference reference = tagReference(tagName);
+                checkoutCommit(git, reference.objectId());
+                return reference.objectId().getName();
+            } catch (IOException | GitAPIException ex) {
+                throw new GitServiceException("Tag konnte nicht ausgecheckt werden", ex);
+            }
+        }
+
+        public Instant resolveTagCommitInstant(String tagName) throws GitServiceException {
+            try {
+                return tagReference(tagName).commitInstant();
+            } catch (IOException ex) {
+                throw new GitServiceException("Tag-Informationen konnten nicht ermittelt werden", ex);
+            }
+        }
+
+        public String checkoutLatestBefore(LocalDate deadline) throws GitServiceException {
+            if (deadline == null) {
+                throw new IllegalArgumentException("deadline must not be null");
+            }
+            try {
+                Repository repository = git.getRepository();
+                Instant cutOff = deadline.atTime(LocalTime.MAX).atZone(ZoneId.systemDefault()).toInstant();
+                ObjectId targetCommit = findLatestBefore(repositoryRoot, repository, reader, cutOff);
+                if (targetCommit == null && isShallow(repository)) {
+                    // the shallow boundary cut off the qualifying commit; fetch the missing history once
+                    git.fetch()
+                       .setRemote("origin")
+                       .setUnshallow(true)
+                       .setTagOpt(TagOpt.FETCH_TAGS)
+                       .setTransportConfigCallback(transportConfigCallback)
+                       .call();
+                    invalidateCommitTimeIndex(repositoryRoot, repository);
+                    tagReferences.clear();
+                    targetCommit = findLatestBefore(repositoryRoot, repository, reader, cutOff);
+                }
+                if (targetCommit == null) {
+                    throw new GitServiceException("Kein Commit am oder vor dem Stichtag gefunden");
+                }
+                checkoutCommit(git, targetCommit);
+                return targetCommit.getName();
+            } catch (IOException | GitAPIException ex) {
+                throw new GitServiceException("Checkout des Stichtag-Commits fehlgeschlagen", ex);
+            }
+        }
+
+        /**
+         * Moves the working tree to the tip of the default branch, unless it
+         * is already there.
+         *
+         * @return the checked-out commit
+         */
+        public String checkoutHead() throws GitServiceException {
+            try {
+                alignWithTrackingBranch(git);
+            } catch (IOException | GitAPIException ex) {
+                throw new GitServiceException("Checkout des Standard-Branches fehlgeschlagen", ex);
+            }
+            return resolveCurrentCommit();
+        }
+
+        public String resolveCurrentCommit() throws GitServiceException {
+            try {
+                ObjectId head = git.getRepository().resolve(Constants.HEAD);
+                return head != null ?
+                       head.getName() :
+                       null;
+            } catch (IOException ex) {
+                throw new GitServiceException("Aktueller Commit konnte nicht ermittelt werden", ex);
+            }
+        }
+
+        private TagReference tagReference(String tagName) throws IOException, GitServiceException {
+            if (tagName == null || tagName.isBlank()) {
+                throw new IllegalArgumentException("tagName must not be blank");
+            }
+            TagReference cached = tagReferences.get(tagName);
+            if (cached != null) {
+                return cached;
+            }
+            TagReference resolved = resolveTagReference(git.getRepository(), reader, tagName);
+            tagReferences.put(tagName, resolved);
+            return resolved;
+        }
+
+        @Override
+        public void close() {
+            reader.close();
+            git.close();
+        }
+    }
 }
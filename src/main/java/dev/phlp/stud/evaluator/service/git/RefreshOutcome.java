@@ -0,0 +1,20 @@
+package dev.phlp.stud.evaluator.service.git;
+
+/**
+ * Describes what {@link GitService#cloneOrUpdate} had to do to bring a local
+ * repository in line with its remote.
+ */
+public enum RefreshOutcome {
+    /**
+     * The repository did not exist locally and was cloned.
+     */
+    CLONED,
+    /**
+     * The remote advertised new or changed refs which were fetched.
+     */
+    UPDATED,
+    /**
+     * The remote refs already matched the local tracking refs; no fetch was needed.
+     */
+    UP_TO_DATE
+}
@@ -1,11 +1,19 @@
 package dev.phlp.stud.evaluator.service.repository;
 
 import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Objects;
 import java.util.Optional;
 
 public final class RepositoryPreparationRequest {
+    /**
+     * Repository preparation is dominated by network and disk latency, so the
+     * default pool oversubscribes the available cores.
+     */
+    public static final int DEFAULT_CONCURRENCY = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+
     private final String repositoryTemplate;
     private final PlaceholderRange placeholderRange;
     private final Path repositoriesRoot;
@@ -15,6 +23,9 @@ public final class RepositoryPreparationRequest {
     private final String repositoryNumberPlaceholder;
     private final Optional<String> tag;
     private final Optional<LocalDate> deadline;
+    private final int concurrency;
+    private final Optional<Integer> shallowCloneDays;
+    private final Optional<String> templateRepositoryUrl;
 
     private RepositoryPreparationRequest(Builder builder) {
         this.repositoryTemplate = Objects.requireNonNull(builder.repositoryTemplate, "repositoryTemplate");
@@ -26,6 +37,14 @@ public final class RepositoryPreparationRequest {
         this.repositoryNumberPlaceholder = Optional.ofNullable(builder.repositoryNumberPlaceholder).orElse("{{number}}");
         this.tag = Optional.ofNullable(builder.tag).map(String::trim).filter(value -> !value.isEmpty());
         this.deadline = Optional.ofNullable(builder.deadline);
+        this.concurrency =
+                builder.concurrency != null && builder.concurrency > 0 ?
+                builder.concurrency :
+                DEFAULT_CONCURRENCY;
+        this.shallowCloneDays = Optional.ofNullable(builder.shallowCloneDays).filter(days -> days >= 0);
+        this.templateRepositoryUrl = Optional.ofNullable(builder.templateRepositoryUrl)
+                                             .map(String::trim)
+                                             .filter(value -> !value.isEmpty());
     }
 
     public static Builder builder() {
@@ -68,6 +87,28 @@ public final class RepositoryPreparationRequest {
         return deadline;
     }
 
+    public int concurrency() {
+        return concurrency;
+    }
+
+    public Optional<String> templateRepositoryUrl() {
+        return templateRepositoryUrl;
+    }
+
+    /**
+     * @return the instant from which history is cloned, present only if a
+     * shallow clone margin and a deadline are configured
+     */
+    public Optional<Instant> shallowSince() {
+        if (shallowCloneDays.isEmpty() || deadline.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(deadline.get()
+                                   .minusDays(shallowCloneDays.get())
+                                   .atStartOfDay(ZoneId.systemDefault())
+                                   .toInstant());
+    }
+
     public static final class Builder {
         private String repositoryTemplate;
         private PlaceholderRange placeholderRange;
@@ -78,6 +119,9 @@ public final class RepositoryPreparationRequest {
         private String repositoryNumberPlaceholder;
         private String tag;
         private LocalDate deadline;
+        private Integer concurrency;
+        private Integer shallowCloneDays;
+        private String templateRepositoryUrl;
 
         private Builder() {
         }
@@ -127,6 +171,21 @@ public final class RepositoryPreparationRequest {
             return this;
         }
 
+        public Builder concurrency(Integer concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public Builder shallowCloneDays(Integer shallowCloneDays) {
+            this.shallowCloneDays = shallowCloneDays;
+            return this;
+        }
+
+        public Builder templateRepositoryUrl(String templateRepositoryUrl) {
+            this.templateRepositoryUrl = templateRepositoryUrl;
+            return this;
+        }
+
         public RepositoryPreparationRequest build() {
             return new RepositoryPreparationRequest(this);
         }
@@ -2,11 +2,16 @@ package dev.phlp.stud.evaluator.service.repository;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+
+import dev.phlp.stud.evaluator.service.git.RefreshOutcome;
 
 public record RepositoryPreparationResult(
         List<RepositoryContext> contexts,
-        String errors) {
-    public RepositoryPreparationResult(List<RepositoryContext> contexts, String errors) {
+        String errors,
+        Map<Integer, RefreshOutcome> refreshOutcomes) {
+    public RepositoryPreparationResult(List<RepositoryContext> contexts, String errors,
+                                       Map<Integer, RefreshOutcome> refreshOutcomes) {
         this.contexts =
                 contexts != null ?
                 List.copyOf(contexts) :
@@ -15,10 +20,25 @@ public record RepositoryPreparationResult(
                 errors != null ?
                 errors :
                 "";
+        this.refreshOutcomes =
+                refreshOutcomes != null ?
+                Map.copyOf(refreshOutcomes) :
+                Map.of();
+    }
+
+    public RepositoryPreparationResult(List<RepositoryContext> contexts, String errors) {
+        this(contexts, errors, Map.of());
     }
 
     @Override
     public List<RepositoryContext> contexts() {
         return Collections.unmodifiableList(contexts);
     }
+
+    /**
+     * @return number of repositories whose refresh found no upstream changes
+     */
+    public long unchangedCount() {
+        return refreshOutcomes.values().stream().filter(outcome -> outcome == RefreshOutcome.UP_TO_DATE).count();
+    }
 }
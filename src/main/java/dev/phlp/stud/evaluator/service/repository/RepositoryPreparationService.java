@@ -12,15 +12,25 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
 import dev.phlp.stud.evaluator.service.git.GitService;
 import dev.phlp.stud.evaluator.service.git.GitServiceException;
+import dev.phlp.stud.evaluator.service.git.RefreshOutcome;
 import dev.phlp.stud.evaluator.service.storage.AutoSaveService;
 
 public class RepositoryPreparationService {
+    private static final String REFERENCE_DIRECTORY = ".reference.git";
+
     private final GitService gitService;
     private final AutoSaveService autoSaveService;
 
@@ -33,35 +43,97 @@ public class RepositoryPreparationService {
                                                            RepositoryPreparationListener listener) {
         List<Integer> placeholderValues = request.placeholderRange().values();
         int total = placeholderValues.size();
-        List<RepositoryContext> contexts = new ArrayList<>();
-        StringBuilder errors = new StringBuilder();
+        RepositoryContext[] contexts = new RepositoryContext[total];
+        String[] errors = new String[total];
+        Map<Integer, RefreshOutcome> refreshOutcomes = new ConcurrentHashMap<>();
         Path legacyEvaluationsRoot = Optional.ofNullable(request.evaluationsRoot().getParent()).orElse(null);
 
-        int completed = 0;
-        for (int value : placeholderValues) {
+        StringBuilder errorText = new StringBuilder();
+        Path referenceRepository = updateReferenceRepository(request, errorText);
+
+        int poolSize = Math.max(1, Math.min(request.concurrency(), total));
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread thread = new Thread(r, "repository-preparation-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ProgressTracker progress = new ProgressTracker(total, listener);
+        try {
+            List<Future<?>> futures = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                int index = i;
+                int value = placeholderValues.get(i);
+                futures.add(executor.submit(() -> {
+                    try {
+                        contexts[index] = prepareSingleRepository(request, value, legacyEvaluationsRoot, referenceRepository,
+                                refreshOutcomes);
+                    } catch (GitServiceException | IOException | RuntimeException ex) {
+                        errors[index] = formatError(formatPlaceholder(value), ex);
+                    } finally {
+                        progress.increment();
+                    }
+                }));
+            }
+            awaitAll(futures);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<RepositoryContext> prepared = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            if (contexts[i] != null) {
+                prepared.add(contexts[i]);
+            }
+            if (errors[i] != null) {
+                errorText.append(errors[i]);
+            }
+        }
+        return new RepositoryPreparationResult(prepared, errorText.toString(), refreshOutcomes);
+    }
+
+    private Path updateReferenceRepository(RepositoryPreparationRequest request, StringBuilder errors) {
+        if (request.templateRepositoryUrl().isEmpty()) {
+            return null;
+        }
+        try {
+            return gitService.updateReferenceRepository(request.templateRepositoryUrl().get(),
+                    request.repositoriesRoot().resolve(REFERENCE_DIRECTORY));
+        } catch (GitServiceException ex) {
+            // students are still cloned, just without shared objects
+            errors.append(formatError("Template", ex));
+            return null;
+        }
+    }
+
+    private void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
             try {
-                RepositoryContext context = prepareSingleRepository(request, value, legacyEvaluationsRoot);
-                contexts.add(context);
-            } catch (GitServiceException | IOException ex) {
-                appendError(errors, value, ex);
-            } finally {
-                completed++;
-                if (listener != null) {
-                    listener.onProgress(completed, total);
-                }
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                return;
+            } catch (ExecutionException ex) {
+                // individual failures are recorded by the task itself
             }
         }
-        return new RepositoryPreparationResult(contexts, errors.toString());
     }
 
     private RepositoryContext prepareSingleRepository(RepositoryPreparationRequest request, int placeholderValue,
-                                                      Path legacyEvaluationsRoot) throws IOException, GitServiceException {
+                                                      Path legacyEvaluationsRoot, Path referenceRepository,
+                                                      Map<Integer, RefreshOutcome> refreshOutcomes)
+            throws IOException, GitServiceException {
         String repositoryUrl = buildRepositoryUrl(request.repositoryTemplate(), request.repositoryNumberPlaceholder(), placeholderValue);
         Path repositoryPath = request.repositoriesRoot().resolve(formatPlaceholder(placeholderValue));
         Files.createDirectories(repositoryPath.getParent());
-        gitService.cloneOrUpdate(repositoryUrl, repositoryPath);
-
-        CheckoutInfo checkoutInfo = resolveCheckoutInfo(repositoryPath, request.tag(), request.deadline());
+        CheckoutInfo checkoutInfo;
+        try (GitService.RepositorySession session =
+                     gitService.prepareSession(repositoryUrl, repositoryPath, request.shallowSince().orElse(null),
+                             referenceRepository)) {
+            refreshOutcomes.put(placeholderValue, session.refreshOutcome());
+            checkoutInfo = resolveCheckoutInfo(session, request.tag(), request.deadline());
+        }
 
         Path evaluationDirectory = request.evaluationsRoot().resolve(formatPlaceholder(placeholderValue));
         Files.createDirectories(evaluationDirectory);
@@ -86,52 +158,52 @@ public class RepositoryPreparationService {
                 evaluationFile, logsDirectory, checkoutInfo);
     }
 
-    private CheckoutInfo resolveCheckoutInfo(Path repositoryPath, Optional<String> tag, Optional<LocalDate> deadline)
-            throws GitServiceException {
+    private CheckoutInfo resolveCheckoutInfo(GitService.RepositorySession session, Optional<String> tag,
+                                             Optional<LocalDate> deadline) throws GitServiceException {
         if (tag.isPresent()) {
             String tagName = tag.get();
             if (deadline.isPresent()) {
                 LocalDate deadlineDate = deadline.get();
                 try {
-                    Instant tagInstant = gitService.resolveTagCommitInstant(repositoryPath, tagName);
+                    Instant tagInstant = session.resolveTagCommitInstant(tagName);
                     Instant deadlineInstant = deadlineDate.atTime(LocalTime.MAX)
                                                           .atZone(ZoneId.systemDefault())
                                                           .toInstant();
                     if (tagInstant.isAfter(deadlineInstant)) {
-                        return checkoutByDeadline(repositoryPath, deadlineDate);
+                        return checkoutByDeadline(session, deadlineDate);
                     }
                 } catch (GitServiceException ex) {
-                    return checkoutByDeadlineOrHead(repositoryPath, deadline);
+                    return checkoutByDeadlineOrHead(session, deadline);
                 }
             }
             try {
-                String ref = gitService.checkoutTag(repositoryPath, tagName);
+                String ref = session.checkoutTag(tagName);
                 return new CheckoutInfo(ref, CheckoutStrategy.of(CheckoutMode.TAG, tagName));
             } catch (GitServiceException ex) {
-                return checkoutByDeadlineOrHead(repositoryPath, deadline);
+                return checkoutByDeadlineOrHead(session, deadline);
             }
         }
         if (deadline.isPresent()) {
-            return checkoutByDeadline(repositoryPath, deadline.get());
+            return checkoutByDeadline(session, deadline.get());
         }
-        return checkoutHead(repositoryPath);
+        return checkoutHead(session);
     }
 
-    private CheckoutInfo checkoutByDeadlineOrHead(Path repositoryPath, Optional<LocalDate> deadline)
+    private CheckoutInfo checkoutByDeadlineOrHead(GitService.RepositorySession session, Optional<LocalDate> deadline)
             throws GitServiceException {
         if (deadline.isPresent()) {
-            return checkoutByDeadline(repositoryPath, deadline.get());
+            return checkoutByDeadline(session, deadline.get());
         }
-        return checkoutHead(repositoryPath);
+        return checkoutHead(session);
     }
 
-    private CheckoutInfo checkoutByDeadline(Path repositoryPath, LocalDate deadline) throws GitServiceException {
-        String ref = gitService.checkoutLatestBefore(repositoryPath, deadline);
+    private CheckoutInfo checkoutByDeadline(GitService.RepositorySession session, LocalDate deadline) throws GitServiceException {
+        String ref = session.checkoutLatestBefore(deadline);
         return new CheckoutInfo(ref, CheckoutStrategy.of(CheckoutMode.DEADLINE, deadline.toString()));
     }
 
-    private CheckoutInfo checkoutHead(Path repositoryPath) throws GitServiceException {
-        String ref = gitService.resolveCurrentCommit(repositoryPath);
+    private CheckoutInfo checkoutHead(GitService.RepositorySession session) throws GitServiceException {
+        String ref = session.checkoutHead();
         return new CheckoutInfo(ref, CheckoutStrategy.of(CheckoutMode.HEAD, null));
     }
 
@@ -214,16 +286,18 @@ public class RepositoryPreparationService {
         }
     }
 
-    private void appendError(StringBuilder errors, int placeholderValue, Exception ex) {
-        errors.append('[')
-              .append(formatPlaceholder(placeholderValue))
-              .append("] ")
-              .append(ex.getMessage());
+    private String formatError(String label, Exception ex) {
+        StringBuilder error = new StringBuilder();
+        error.append('[')
+             .append(label)
+             .append("] ")
+             .append(ex.getMessage());
         Optional.ofNullable(ex.getCause())
                 .map(Throwable::getMessage)
                 .filter(message -> !message.isBlank())
-                .ifPresent(message -> errors.append(" (").append(message).append(')'));
-        errors.append(System.lineSeparator());
+                .ifPresent(message -> error.append(" (").append(message).append(')'));
+        error.append(System.lineSeparator());
+        return error.toString();
     }
 
     private String buildRepositoryUrl(String template, String configuredPlaceholder, int value) {
@@ -244,4 +318,26 @@ public class RepositoryPreparationService {
     private String formatPlaceholder(int value) {
         return String.format(Locale.ROOT, "%03d", value);
     }
+
+    /**
+     * Serializes progress callbacks so listeners observe a strictly increasing
+     * completed count even though repositories finish out of order.
+     */
+    private static final class ProgressTracker {
+        private final int total;
+        private final RepositoryPreparationListener listener;
+        private int completed;
+
+        private ProgressTracker(int total, RepositoryPreparationListener listener) {
+            this.total = total;
+            this.listener = listener;
+        }
+
+        private synchronized void increment() {
+            completed++;
+            if (listener != null) {
+                listener.onProgress(completed, total);
+            }
+        }
+    }
 }
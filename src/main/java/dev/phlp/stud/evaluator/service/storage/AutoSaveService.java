@@ -1,87 +1,343 @@
 package dev.phlp.stud.evaluator.service.storage;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.TimeoutException;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
 import dev.phlp.stud.evaluator.util.JsonMapperFactory;
 
+/**
+ * Loads and stores evaluation files. Scheduled saves are kept per file: a
+ * save for one file never cancels the pending save of another, and repeated
+ * saves of the same file within {@link #WRITE_DELAY} are coalesced into one
+ * write of the latest data. Every write goes to a temporary file that is
+ * synced and then moved over the evaluation file, so a crash leaves either
+ * the old or the new content.
+ *
+ * <p>Single edits can instead be appended to the file's
+ * {@link EvaluationJournal} with {@link #appendChange}. {@link #load} replays
+ * the journal on top of the snapshot, and every snapshot write compacts the
+ * journal lines it already contains.</p>
+ */
 public class AutoSaveService implements AutoCloseable {
-    private final ObjectMapper objectMapper;
+    public static final Duration WRITE_DELAY = Duration.ofMillis(750);
+    public static final Duration CLOSE_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final int FLUSH_THREADS = 4;
+
+    private final JsonFactory jsonFactory;
+    private final EvaluationSaveDataParser saveDataParser;
+    private final ObjectWriter saveDataWriter;
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
         Thread thread = new Thread(r, "autosave-writer");
         thread.setDaemon(true);
         return thread;
     });
-    private final AtomicReference<ScheduledFuture<?>> pendingSave = new AtomicReference<>();
+    private final ExecutorService flushExecutor = Executors.newFixedThreadPool(FLUSH_THREADS, r -> {
+        Thread thread = new Thread(r, "autosave-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Path, PendingSave> pendingSaves = new ConcurrentHashMap<>();
+    private final Map<Path, Object> fileLocks = new ConcurrentHashMap<>();
+    private final Map<Path, JournalState> journals = new ConcurrentHashMap<>();
 
     public AutoSaveService() {
         this(JsonMapperFactory.createDefaultMapper());
     }
 
     public AutoSaveService(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.saveDataParser = new EvaluationSaveDataParser(JsonMapperFactory.createReader(objectMapper, Instant.class));
+        this.saveDataWriter = JsonMapperFactory.createPrettyWriter(objectMapper).forType(EvaluationSaveData.class);
     }
 
     public Optional<EvaluationSaveData> load(Path evaluationFile) {
-        if (evaluationFile == null || !Files.exists(evaluationFile)) {
+        if (evaluationFile == null) {
+            return Optional.empty();
+        }
+        boolean snapshotExists = Files.exists(evaluationFile);
+        if (!snapshotExists && !Files.exists(EvaluationJournal.journalFile(evaluationFile))) {
             return Optional.empty();
         }
         try {
-            return Optional.of(objectMapper.readValue(evaluationFile.toFile(), EvaluationSaveData.class));
+            EvaluationSaveData data =
+                    snapshotExists ?
+                    read(evaluationFile) :
+                    new EvaluationSaveData();
+            EvaluationJournal.replay(evaluationFile, data);
+            return Optional.of(data);
         } catch (IOException ex) {
             return Optional.empty();
         }
     }
 
+    /**
+     * Appends {@code change} to the journal of {@code evaluationFile} in the
+     * background. Changes are written in the order of the calls.
+     */
+    public void appendChange(Path evaluationFile, EvaluationJournal.Change change) {
+        if (evaluationFile == null) {
+            return;
+        }
+        Path key = key(evaluationFile);
+        JournalState journal = journal(key);
+        long sequence = journal.next();
+        scheduler.execute(() -> {
+            synchronized (lock(key)) {
+                if (sequence <= journal.compacted) {
+                    return;
+                }
+                try {
+                    EvaluationJournal.append(key, sequence, change);
+                } catch (IOException ex) {
+                    System.err.println("Autosave journal failed: " + ex.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes {@code data} to {@code evaluationFile} in the background. If a
+     * save of the same file is still pending, only its data is replaced.
+     */
     public void scheduleSave(Path evaluationFile, EvaluationSaveData data) {
         if (evaluationFile == null) {
             return;
         }
         data.setSavedAt(Instant.now());
-        Runnable writer = () -> writeNow(evaluationFile, data);
-        ScheduledFuture<?> future = scheduler.schedule(writer, 750, TimeUnit.MILLISECONDS);
-        ScheduledFuture<?> previous = pendingSave.getAndSet(future);
-        if (previous != null) {
-            previous.cancel(false);
-        }
+        Path key = key(evaluationFile);
+        long sequence = journal(key).current();
+        pendingSaves.compute(key, (path, pending) -> {
+            if (pending != null) {
+                pending.data = data;
+                pending.sequence = sequence;
+                return pending;
+            }
+            PendingSave created = new PendingSave(data, sequence);
+            created.future = scheduler.schedule(() -> flushPending(path, created), WRITE_DELAY.toMillis(),
+                    TimeUnit.MILLISECONDS);
+            return created;
+        });
     }
 
+    /**
+     * Writes {@code data} right away; a pending save of the same file is
+     * dropped because {@code data} supersedes it.
+     */
     public void writeImmediately(Path evaluationFile, EvaluationSaveData data) throws IOException {
         if (evaluationFile == null) {
             return;
         }
         data.setSavedAt(Instant.now());
-        writeNow(evaluationFile, data);
+        Path key = key(evaluationFile);
+        long sequence = journal(key).current();
+        synchronized (lock(key)) {
+            PendingSave pending = pendingSaves.remove(key);
+            if (pending != null) {
+                pending.future.cancel(false);
+            }
+            write(key, data, sequence);
+        }
     }
 
-    private void writeNow(Path evaluationFile, EvaluationSaveData data) {
+    /**
+     * Writes the pending save and the queued journal appends of
+     * {@code evaluationFile}, so a following {@link #load} sees every change
+     * issued before this call. Callers that load, modify and
+     * {@link #writeImmediately write} a file use this first; otherwise the
+     * write compacts queued changes that the loaded data does not contain.
+     */
+    public void flush(Path evaluationFile) throws IOException {
+        if (evaluationFile == null) {
+            return;
+        }
+        Path key = key(evaluationFile);
+        PendingSave pending = pendingSaves.get(key);
+        if (pending != null) {
+            flushPending(key, pending);
+        }
         try {
-            Path parent = evaluationFile.getParent();
-            if (parent != null) {
-                Files.createDirectories(parent);
+            // the single writer thread runs appends in order, so this completes after all queued ones
+            scheduler.submit(() -> {
+            }).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Warten auf das Journal von " + evaluationFile + " unterbrochen");
+        } catch (ExecutionException ex) {
+            throw new IOException("Journal von " + evaluationFile + " konnte nicht geschrieben werden", ex.getCause());
+        }
+    }
+
+    /**
+     * Writes all pending saves in parallel and waits at most {@code timeout}.
+     *
+     * @return {@code true} if every pending save has been written
+     */
+    public boolean flushAll(Duration timeout) {
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        writes.add(CompletableFuture.runAsync(() -> {
+            // completes once all journal appends queued before it are written
+        }, scheduler));
+        pendingSaves.forEach((path, pending) -> writes.add(CompletableFuture.runAsync(() -> flushPending(path, pending),
+                flushExecutor)));
+        try {
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException ex) {
+            return false;
+        }
+    }
+
+    private void flushPending(Path path, PendingSave pending) {
+        synchronized (lock(path)) {
+            if (!pendingSaves.remove(path, pending)) {
+                return;
             }
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(evaluationFile.toFile(), data);
-        } catch (IOException ex) {
-            System.err.println("Autosave failed: " + ex.getMessage());
+            pending.future.cancel(false);
+            try {
+                write(path, pending.data, pending.sequence);
+            } catch (IOException ex) {
+                System.err.println("Autosave failed: " + ex.getMessage());
+            }
+        }
+    }
+
+    private EvaluationSaveData read(Path evaluationFile) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(evaluationFile.toFile())) {
+            return saveDataParser.parse(parser);
+        }
+    }
+
+    /**
+     * Writes the snapshot and compacts the journal up to {@code sequence},
+     * the last change the snapshot contains.
+     */
+    private void write(Path evaluationFile, EvaluationSaveData data, long sequence) throws IOException {
+        Path parent = evaluationFile.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = evaluationFile.resolveSibling(evaluationFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            saveDataWriter.writeValue(new NonClosingOutputStream(out), data);
+            channel.force(true);
+        }
+        try {
+            Files.move(temporary, evaluationFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temporary, evaluationFile, StandardCopyOption.REPLACE_EXISTING);
         }
+        JournalState journal = journal(evaluationFile);
+        if (sequence > journal.compacted) {
+            EvaluationJournal.compact(evaluationFile, sequence);
+            journal.compacted = sequence;
+        }
+    }
+
+    private JournalState journal(Path key) {
+        return journals.computeIfAbsent(key, path -> new JournalState(EvaluationJournal.open(path)));
+    }
+
+    private Object lock(Path path) {
+        return fileLocks.computeIfAbsent(path, ignored -> new Object());
+    }
+
+    private static Path key(Path evaluationFile) {
+        return evaluationFile.toAbsolutePath().normalize();
     }
 
+    /**
+     * Flushes pending saves for at most {@link #CLOSE_FLUSH_TIMEOUT} and stops
+     * the writer threads.
+     */
     @Override
     public void close() {
-        ScheduledFuture<?> future = pendingSave.getAndSet(null);
-        if (future != null) {
-            future.cancel(false);
-        }
+        flushAll(CLOSE_FLUSH_TIMEOUT);
         scheduler.shutdownNow();
+        flushExecutor.shutdownNow();
+    }
+
+    private static final class PendingSave {
+        private volatile EvaluationSaveData data;
+        private volatile long sequence;
+        private volatile ScheduledFuture<?> future;
+
+        private PendingSave(EvaluationSaveData data, long sequence) {
+            this.data = data;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class JournalState {
+        private long appended;
+        private volatile long compacted;
+
+        private JournalState(long highestSequence) {
+            this.appended = highestSequence;
+        }
+
+        private synchronized long next() {
+            return ++appended;
+        }
+
+        private synchronized long current() {
+            return appended;
+        }
+    }
+
+    private static final class NonClosingOutputStream extends OutputStream {
+        private final OutputStream out;
+
+        private NonClosingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
     }
 }
@@ -0,0 +1,259 @@
+package dev.phlp.stud.evaluator.service.storage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import dev.phlp.stud.evaluator.model.EvaluationNode;
+import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.model.RubricIndex;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
+import dev.phlp.stud.evaluator.model.state.NodeSaveState;
+
+/**
+ * In-memory evaluation state of all repositories of a cohort, laid out in
+ * columns over the leaves of a {@link RubricIndex}: one {@code double} row of
+ * points and one {@code byte} row of statuses per repository. Comments and
+ * log references are kept sparsely per node id, the remaining fields of the
+ * evaluation file as a header without nodes.
+ *
+ * <p>Rows are filled from {@link EvaluationSaveData}, either when the files
+ * are loaded or whenever the workflow saves the current repository, so
+ * switching repositories and computing repository totals never touches the
+ * disk.</p>
+ *
+ * <p>Not thread-safe for writes. {@link #put} is only called from one thread
+ * (the JavaFX thread, or the loading thread before the store is handed on);
+ * once filled, a store that is no longer modified may be read from several
+ * threads, as the cohort export does.</p>
+ */
+public class CohortScoreStore {
+    private static final byte STATUS_PENDING = (byte) EvaluationStatus.PENDING.ordinal();
+    private static final EvaluationStatus[] STATUSES = EvaluationStatus.values();
+
+    private final RubricIndex index;
+    private final int[] leafIds;
+    private final int[] slotById;
+    private final double[] maxPoints;
+    private final boolean[] counted;
+    private final double[][] points;
+    private final boolean[][] defined;
+    private final byte[][] statuses;
+    private final String[][] comments;
+    private final String[][] logReferences;
+    private final EvaluationSaveData[] headers;
+
+    public CohortScoreStore(RubricIndex index, int repositories) {
+        this.index = Objects.requireNonNull(index, "index must not be null");
+        this.leafIds = index.leafIds();
+        this.slotById = new int[index.size()];
+        this.maxPoints = new double[leafIds.length];
+        this.counted = new boolean[leafIds.length];
+        Arrays.fill(slotById, -1);
+        for (int slot = 0; slot < leafIds.length; slot++) {
+            EvaluationNode leaf = index.node(leafIds[slot]);
+            slotById[leafIds[slot]] = slot;
+            maxPoints[slot] = leaf.getMaxPoints();
+            counted[slot] = !hasPseudoAncestorOrSelf(leaf);
+        }
+        this.points = new double[repositories][leafIds.length];
+        this.defined = new boolean[repositories][leafIds.length];
+        this.statuses = new byte[repositories][leafIds.length];
+        this.comments = new String[repositories][];
+        this.logReferences = new String[repositories][];
+        this.headers = new EvaluationSaveData[repositories];
+        for (byte[] row : statuses) {
+            Arrays.fill(row, STATUS_PENDING);
+        }
+    }
+
+    private static boolean hasPseudoAncestorOrSelf(EvaluationNode node) {
+        for (EvaluationNode current = node; current != null; current = current.getParent()) {
+            if (current.isPseudo()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public RubricIndex index() {
+        return index;
+    }
+
+    public int repositoryCount() {
+        return headers.length;
+    }
+
+    public int leafCount() {
+        return leafIds.length;
+    }
+
+    /**
+     * Replaces the row of {@code repository} with the content of
+     * {@code data}; {@code null} clears it. {@code data} itself is not kept.
+     */
+    public void put(int repository, EvaluationSaveData data) {
+        Arrays.fill(points[repository], 0.0);
+        Arrays.fill(defined[repository], false);
+        Arrays.fill(statuses[repository], STATUS_PENDING);
+        comments[repository] = null;
+        logReferences[repository] = null;
+        headers[repository] = null;
+        if (data == null) {
+            return;
+        }
+        headers[repository] = header(data);
+        Map<String, NodeSaveState> nodes = data.getNodes();
+        for (int id = 0; id < index.size(); id++) {
+            NodeSaveState state = nodes.get(index.qualifiedName(id));
+            if (state == null) {
+                continue;
+            }
+            if (state.getComment() != null) {
+                commentRow(repository)[id] = state.getComment();
+            }
+            int slot = slotById[id];
+            if (slot < 0) {
+                continue;
+            }
+            points[repository][slot] = Math.max(0.0, Math.min(state.getAchievedPoints(), maxPoints[slot]));
+            Boolean pointsDefined = state.getAchievedPointsDefined();
+            defined[repository][slot] =
+                    pointsDefined != null ?
+                    pointsDefined :
+                    Double.compare(state.getAchievedPoints(), 0.0) != 0;
+            if (state.getStatus() != null) {
+                statuses[repository][slot] = (byte) state.getStatus().ordinal();
+            }
+            if (state.getLastLogFile() != null) {
+                logReferenceRow(repository)[id] = state.getLastLogFile();
+            }
+        }
+    }
+
+    /**
+     * @return the stored fields of the evaluation file without its nodes, or
+     * empty if the repository has no evaluation file
+     */
+    public Optional<EvaluationSaveData> header(int repository) {
+        return Optional.ofNullable(headers[repository]);
+    }
+
+    /**
+     * Writes the row of {@code repository} into the indexed tree in one bulk
+     * update, resetting every node without stored state, and copies the log
+     * references into {@code logReferenceTarget} if given.
+     */
+    public void applyTo(int repository, String[] logReferenceTarget) {
+        String[] commentRow = comments[repository];
+        try (EvaluationNode.BulkUpdate ignored = EvaluationNode.bulkUpdate(index.roots())) {
+            for (int id = 0; id < index.size(); id++) {
+                EvaluationNode node = index.node(id);
+                node.setCommentFromStorage(
+                        commentRow != null ?
+                        commentRow[id] :
+                        null);
+                int slot = slotById[id];
+                if (slot >= 0) {
+                    node.setAchievedPointsFromStorage(points[repository][slot], defined[repository][slot]);
+                    node.setStatusFromStorage(STATUSES[statuses[repository][slot]]);
+                }
+            }
+        }
+        if (logReferenceTarget != null) {
+            String[] row = logReferences[repository];
+            for (int id = 0; id < logReferenceTarget.length; id++) {
+                logReferenceTarget[id] =
+                        row != null ?
+                        row[id] :
+                        null;
+            }
+        }
+    }
+
+    public double points(int repository, int slot) {
+        return points[repository][slot];
+    }
+
+    public boolean isDefined(int repository, int slot) {
+        return defined[repository][slot];
+    }
+
+    public EvaluationStatus status(int repository, int slot) {
+        return STATUSES[statuses[repository][slot]];
+    }
+
+    /**
+     * @return stored comment of node {@code id}, or {@code null}
+     */
+    public String comment(int repository, int id) {
+        String[] row = comments[repository];
+        return
+                row != null ?
+                row[id] :
+                null;
+    }
+
+    /**
+     * @return column of node {@code id}, or -1 if it is not a leaf
+     */
+    public int slot(int id) {
+        return slotById[id];
+    }
+
+    /**
+     * @return node id of the leaf stored in column {@code slot}
+     */
+    public int leafId(int slot) {
+        return leafIds[slot];
+    }
+
+    public double total(int repository) {
+        double[] row = points[repository];
+        double sum = 0.0;
+        for (int slot = 0; slot < row.length; slot++) {
+            if (counted[slot]) {
+                sum += row[slot];
+            }
+        }
+        return sum;
+    }
+
+    public double maxTotal() {
+        double sum = 0.0;
+        for (int slot = 0; slot < maxPoints.length; slot++) {
+            if (counted[slot]) {
+                sum += maxPoints[slot];
+            }
+        }
+        return sum;
+    }
+
+    private String[] commentRow(int repository) {
+        if (comments[repository] == null) {
+            comments[repository] = new String[index.size()];
+        }
+        return comments[repository];
+    }
+
+    private String[] logReferenceRow(int repository) {
+        if (logReferences[repository] == null) {
+            logReferences[repository] = new String[index.size()];
+        }
+        return logReferences[repository];
+    }
+
+    private static EvaluationSaveData header(EvaluationSaveData data) {
+        EvaluationSaveData header = new EvaluationSaveData();
+        header.setRepositoryUrl(data.getRepositoryUrl());
+        header.setCheckedOutReference(data.getCheckedOutReference());
+        header.setPlaceholderValue(data.getPlaceholderValue());
+        header.setEvaluationTitle(data.getEvaluationTitle());
+        header.setCheckoutStrategy(data.getCheckoutStrategy());
+        header.setSavedAt(data.getSavedAt());
+        header.setNodes(new HashMap<>());
+        return header;
+    }
+}
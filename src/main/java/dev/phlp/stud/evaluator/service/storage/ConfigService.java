@@ -3,36 +3,34 @@ package dev.phlp.stud.evaluator.service.storage;
 import java.io.File;
 import java.io.IOException;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import dev.phlp.stud.evaluator.model.config.EvaluationConfig;
 import dev.phlp.stud.evaluator.util.JsonMapperFactory;
 
 public class ConfigService {
-    private final ObjectMapper objectMapper;
+    private final ObjectReader configReader;
+    private final ObjectWriter configWriter;
 
     public ConfigService() {
         this(JsonMapperFactory.createDefaultMapper());
     }
 
     public ConfigService(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this.configReader = JsonMapperFactory.createReader(objectMapper, EvaluationConfig.class);
+        this.configWriter = JsonMapperFactory.createPrettyWriter(objectMapper);
     }
 
     public EvaluationConfig load(File file) throws IOException {
-        return objectMapper.readValue(file, EvaluationConfig.class);
+        return configReader.readValue(file);
     }
 
     public void save(EvaluationConfig config, File file) throws IOException {
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, config);
+        configWriter.writeValue(file, config);
     }
 
     public EvaluationConfig clone(EvaluationConfig original) throws IOException {
-        try {
-            String json = objectMapper.writeValueAsString(original);
-            return objectMapper.readValue(json, EvaluationConfig.class);
-        } catch (JsonProcessingException ex) {
-            throw new IOException("Konfiguration konnte nicht kopiert werden", ex);
-        }
+        return original.copy();
     }
 }
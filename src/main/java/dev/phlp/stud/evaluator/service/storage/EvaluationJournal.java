@@ -0,0 +1,286 @@
+package dev.phlp.stud.evaluator.service.storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
+import dev.phlp.stud.evaluator.model.state.NodeSaveState;
+
+/**
+ * Append-only change journal next to an evaluation file
+ * ({@code <file>.journal}). Each line sets one field of one node to an
+ * absolute value, so replaying the journal on top of the JSON snapshot is
+ * idempotent. Lines are numbered; writing a snapshot removes the lines it
+ * already contains. An incomplete last line left by a crash is ignored.
+ *
+ * <pre>
+ * sequence TAB epoch-millis TAB field TAB qualified-name TAB value
+ * </pre>
+ */
+public final class EvaluationJournal {
+    public static final String SUFFIX = ".journal";
+
+    private EvaluationJournal() {
+    }
+
+    public enum Field {
+        /**
+         * Achieved points; an empty value clears them.
+         */
+        POINTS,
+        STATUS,
+        COMMENT,
+        LOG_FILE
+    }
+
+    public record Change(
+            String qualifiedName,
+            Field field,
+            String value,
+            Instant timestamp) {
+        public Change {
+            Objects.requireNonNull(qualifiedName, "qualifiedName must not be null");
+            Objects.requireNonNull(field, "field must not be null");
+            Objects.requireNonNull(timestamp, "timestamp must not be null");
+        }
+
+        public static Change points(String qualifiedName, double points, boolean defined) {
+            return new Change(qualifiedName, Field.POINTS,
+                    defined ?
+                    Double.toString(points) :
+                    "",
+                    Instant.now());
+        }
+
+        public static Change status(String qualifiedName, EvaluationStatus status) {
+            return new Change(qualifiedName, Field.STATUS,
+                    status != null ?
+                    status.name() :
+                    null,
+                    Instant.now());
+        }
+
+        public static Change comment(String qualifiedName, String comment) {
+            return new Change(qualifiedName, Field.COMMENT, comment, Instant.now());
+        }
+
+        public static Change logFile(String qualifiedName, String logFile) {
+            return new Change(qualifiedName, Field.LOG_FILE, logFile, Instant.now());
+        }
+    }
+
+    public static Path journalFile(Path evaluationFile) {
+        return evaluationFile.resolveSibling(evaluationFile.getFileName() + SUFFIX);
+    }
+
+    static void append(Path evaluationFile, long sequence, Change change) throws IOException {
+        Path journal = journalFile(evaluationFile);
+        Path parent = journal.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        String line = sequence + "\t" + change.timestamp().toEpochMilli() + "\t" + change.field().name() + "\t"
+                + escape(change.qualifiedName()) + "\t" + escape(change.value()) + "\n";
+        Files.writeString(journal, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Applies all journaled changes to {@code data}.
+     *
+     * @return the highest sequence number found, or 0 for an empty journal
+     */
+    static long replay(Path evaluationFile, EvaluationSaveData data) throws IOException {
+        long highest = 0;
+        for (Line line : read(journalFile(evaluationFile))) {
+            try {
+                apply(data, line);
+            } catch (IllegalArgumentException ex) {
+                continue;
+            }
+            highest = Math.max(highest, line.sequence());
+        }
+        return highest;
+    }
+
+    /**
+     * Prepares the journal for appending: an incomplete last line left by a
+     * crash is cut off, so that the next line does not continue it.
+     *
+     * @return the highest sequence number in the journal, or 0 if there is
+     * none or it cannot be read
+     */
+    static long open(Path evaluationFile) {
+        Path journal = journalFile(evaluationFile);
+        if (!Files.exists(journal)) {
+            return 0L;
+        }
+        try {
+            String content = Files.readString(journal, StandardCharsets.UTF_8);
+            int complete = content.lastIndexOf('\n') + 1;
+            if (complete < content.length()) {
+                try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                    channel.truncate(content.substring(0, complete).getBytes(StandardCharsets.UTF_8).length);
+                }
+            }
+            return read(journal).stream().mapToLong(Line::sequence).max().orElse(0L);
+        } catch (IOException ex) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Removes every line up to {@code sequence}; deletes the journal if
+     * nothing newer remains.
+     */
+    static void compact(Path evaluationFile, long sequence) throws IOException {
+        Path journal = journalFile(evaluationFile);
+        if (!Files.exists(journal)) {
+            return;
+        }
+        List<String> remaining = new ArrayList<>();
+        for (String text : completeLines(journal)) {
+            Line line = parse(text);
+            if (line != null && line.sequence() > sequence) {
+                remaining.add(text);
+            }
+        }
+        if (remaining.isEmpty()) {
+            Files.deleteIfExists(journal);
+            return;
+        }
+        Path temporary = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for (String text : remaining) {
+                writer.write(text);
+                writer.write('\n');
+            }
+        }
+        try {
+            Files.move(temporary, journal, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temporary, journal, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static List<Line> read(Path journal) throws IOException {
+        List<Line> lines = new ArrayList<>();
+        if (!Files.exists(journal)) {
+            return lines;
+        }
+        for (String text : completeLines(journal)) {
+            Line line = parse(text);
+            if (line != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @return all lines terminated by a line feed; a trailing fragment
+     * without one was cut off by a crash during append
+     */
+    private static List<String> completeLines(Path journal) throws IOException {
+        String content = Files.readString(journal, StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            lines.add(content.substring(start, end));
+            start = end + 1;
+        }
+        return lines;
+    }
+
+    private static Line parse(String text) {
+        String[] parts = text.split("\t", -1);
+        if (parts.length != 5) {
+            return null;
+        }
+        try {
+            return new Line(Long.parseLong(parts[0]), Field.valueOf(parts[2]), unescape(parts[3]), unescape(parts[4]));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static void apply(EvaluationSaveData data, Line line) {
+        NodeSaveState state = data.getNodes().computeIfAbsent(line.qualifiedName(), ignored -> new NodeSaveState());
+        String value = line.value();
+        switch (line.field()) {
+            case POINTS -> {
+                boolean defined = value != null && !value.isEmpty();
+                state.setAchievedPoints(
+                        defined ?
+                        Double.parseDouble(value) :
+                        0.0);
+                state.setAchievedPointsDefined(defined);
+            }
+            case STATUS -> state.setStatus(
+                    value != null ?
+                    EvaluationStatus.valueOf(value) :
+                    null);
+            case COMMENT -> state.setComment(value);
+            case LOG_FILE -> state.setLastLogFile(value);
+        }
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "\\0";
+        }
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String value) {
+        if (value.equals("\\0")) {
+            return null;
+        }
+        StringBuilder plain = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                plain.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            switch (next) {
+                case 't' -> plain.append('\t');
+                case 'n' -> plain.append('\n');
+                case 'r' -> plain.append('\r');
+                default -> plain.append(next);
+            }
+        }
+        return plain.toString();
+    }
+
+    private record Line(
+            long sequence,
+            Field field,
+            String qualifiedName,
+            String value) {
+    }
+}
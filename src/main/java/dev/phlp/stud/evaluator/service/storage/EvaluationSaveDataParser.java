@@ -0,0 +1,139 @@
+package dev.phlp.stud.evaluator.service.storage;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
+import dev.phlp.stud.evaluator.model.state.NodeSaveState;
+
+/**
+ * Reads an evaluation file token by token. The node map, which makes up
+ * almost all of the file, is filled directly from the parser without
+ * building an intermediate tree or going through bean deserializers; only
+ * {@code savedAt} is delegated to {@code instantReader} so that every format
+ * the Java time module accepts keeps working. Unknown fields are skipped.
+ */
+final class EvaluationSaveDataParser {
+    private static final EvaluationStatus[] STATUSES = EvaluationStatus.values();
+
+    private final ObjectReader instantReader;
+
+    /**
+     * @param instantReader reader for {@link Instant}
+     */
+    EvaluationSaveDataParser(ObjectReader instantReader) {
+        this.instantReader = Objects.requireNonNull(instantReader, "instantReader must not be null");
+    }
+
+    EvaluationSaveData parse(JsonParser parser) throws IOException {
+        expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+        EvaluationSaveData data = new EvaluationSaveData();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "repositoryUrl" ->
+                        data.setRepositoryUrl(text(parser, value));
+                case "checkedOutReference" ->
+                        data.setCheckedOutReference(text(parser, value));
+                case "placeholderValue" ->
+                        data.setPlaceholderValue(
+                                value == JsonToken.VALUE_NULL ?
+                                null :
+                                parser.getValueAsInt());
+                case "evaluationTitle" ->
+                        data.setEvaluationTitle(text(parser, value));
+                case "checkoutStrategy" ->
+                        data.setCheckoutStrategy(text(parser, value));
+                case "savedAt" ->
+                        data.setSavedAt(
+                                value == JsonToken.VALUE_NULL ?
+                                null :
+                                instantReader.<Instant>readValue(parser));
+                case "nodes" ->
+                        data.setNodes(nodes(parser, value));
+                default ->
+                        parser.skipChildren();
+            }
+        }
+        return data;
+    }
+
+    private Map<String, NodeSaveState> nodes(JsonParser parser, JsonToken token) throws IOException {
+        Map<String, NodeSaveState> nodes = new HashMap<>();
+        if (token == JsonToken.VALUE_NULL) {
+            return nodes;
+        }
+        expect(parser, token, JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String qualifiedName = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.VALUE_NULL) {
+                nodes.put(qualifiedName, node(parser, value));
+            }
+        }
+        return nodes;
+    }
+
+    private NodeSaveState node(JsonParser parser, JsonToken token) throws IOException {
+        expect(parser, token, JsonToken.START_OBJECT);
+        NodeSaveState state = new NodeSaveState();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "achievedPoints" ->
+                        state.setAchievedPoints(parser.getValueAsDouble());
+                case "achievedPointsDefined" ->
+                        state.setAchievedPointsDefined(
+                                value == JsonToken.VALUE_NULL ?
+                                null :
+                                parser.getValueAsBoolean());
+                case "lastLogFile" ->
+                        state.setLastLogFile(text(parser, value));
+                case "status" ->
+                        state.setStatus(status(parser, value));
+                case "comment" ->
+                        state.setComment(text(parser, value));
+                default ->
+                        parser.skipChildren();
+            }
+        }
+        return state;
+    }
+
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        return
+                token == JsonToken.VALUE_NULL ?
+                null :
+                parser.getValueAsString();
+    }
+
+    private static EvaluationStatus status(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        String name = parser.getValueAsString();
+        for (EvaluationStatus status : STATUSES) {
+            if (status.name().equals(name)) {
+                return status;
+            }
+        }
+        throw MismatchedInputException.from(parser, EvaluationStatus.class, "Unbekannter Status: " + name);
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw MismatchedInputException.from(parser, EvaluationSaveData.class,
+                    "Erwartet " + expected + ", gefunden " + actual);
+        }
+    }
+}
@@ -5,67 +5,161 @@ import java.util.List;
 import java.util.Map;
 
 import dev.phlp.stud.evaluator.model.EvaluationNode;
+import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.model.RubricIndex;
 import dev.phlp.stud.evaluator.model.state.NodeSaveState;
 
+/**
+ * Converts between the node states of an evaluation tree and the stored
+ * {@link NodeSaveState} map. The index based variants take the log
+ * references as an array indexed by {@link RubricIndex} id; the list based
+ * variants build a temporary index and are kept for one-off callers.
+ */
 public final class EvaluationStateSynchronizer {
     private EvaluationStateSynchronizer() {
     }
 
     public static Map<String, NodeSaveState> captureNodeStates(List<EvaluationNode> roots, Map<String, String> logReferences) {
-        Map<String, NodeSaveState> snapshot = new HashMap<>();
-        roots.forEach(root -> captureNodeState(root, snapshot, logReferences));
-        return snapshot;
+        RubricIndex index = RubricIndex.of(roots);
+        return captureNodeStates(index, toArray(index, logReferences));
     }
 
-    private static void captureNodeState(EvaluationNode node, Map<String, NodeSaveState> snapshot, Map<String, String> logReferences) {
-        boolean isLeaf = node.isLeaf();
-        boolean hasComment = node.getComment() != null && !node.getComment().isBlank();
-        if (isLeaf || hasComment) {
+    public static Map<String, NodeSaveState> captureNodeStates(RubricIndex index, String[] logReferences) {
+        Map<String, NodeSaveState> snapshot = HashMap.newHashMap(index.size());
+        for (int id = 0; id < index.size(); id++) {
+            EvaluationNode node = index.node(id);
+            boolean isLeaf = node.isLeaf();
+            boolean hasComment = node.getComment() != null && !node.getComment().isBlank();
+            if (!isLeaf && !hasComment) {
+                continue;
+            }
             NodeSaveState state = new NodeSaveState();
             if (isLeaf) {
                 state.setAchievedPoints(node.getAchievedPoints());
                 state.setAchievedPointsDefined(node.isAchievedPointsDefined());
                 if (logReferences != null) {
-                    state.setLastLogFile(logReferences.get(node.getQualifiedName()));
+                    state.setLastLogFile(logReferences[id]);
                 }
                 state.setStatus(node.getStatus());
             }
             state.setComment(node.getComment());
-            snapshot.put(node.getQualifiedName(), state);
+            snapshot.put(index.qualifiedName(id), state);
         }
-        node.getChildren().forEach(child -> captureNodeState(child, snapshot, logReferences));
+        return snapshot;
     }
 
+    /**
+     * Applies the stored states to the matching nodes. The leaf values are
+     * written inside a bulk update, so the aggregates are computed once at
+     * the end instead of after every single value.
+     */
     public static void applyNodeStates(List<EvaluationNode> roots, Map<String, NodeSaveState> savedStates, Map<String, String> logReferences) {
         if (savedStates == null || savedStates.isEmpty()) {
             return;
         }
-        roots.forEach(root -> applyNodeState(root, savedStates, logReferences));
-        roots.forEach(EvaluationNode::refreshAggregatedPoints);
-        roots.forEach(EvaluationNode::refreshAggregatedStatus);
+        RubricIndex index = RubricIndex.of(roots);
+        String[] references = toArray(index, logReferences);
+        applyNodeStates(index, savedStates, references);
+        copyInto(index, references, logReferences);
     }
 
-    private static void applyNodeState(EvaluationNode node, Map<String, NodeSaveState> savedStates, Map<String, String> logReferences) {
-        NodeSaveState state = savedStates.get(node.getQualifiedName());
-        if (state != null && state.getComment() != null) {
-            node.setCommentFromStorage(state.getComment());
+    public static void applyNodeStates(RubricIndex index, Map<String, NodeSaveState> savedStates, String[] logReferences) {
+        if (savedStates == null || savedStates.isEmpty()) {
+            return;
         }
-        if (node.isLeaf() && state != null) {
-            Boolean defined = state.getAchievedPointsDefined();
-            boolean pointsDefined;
-            if (defined != null) {
-                pointsDefined = defined;
-            } else {
-                pointsDefined = Double.compare(state.getAchievedPoints(), 0.0) != 0;
+        try (EvaluationNode.BulkUpdate ignored = EvaluationNode.bulkUpdate(index.roots())) {
+            for (int id = 0; id < index.size(); id++) {
+                NodeSaveState state = savedStates.get(index.qualifiedName(id));
+                if (state != null) {
+                    applyNodeState(index.node(id), state, logReferences, id, false);
+                }
             }
-            node.setAchievedPointsFromStorage(state.getAchievedPoints(), pointsDefined);
-            if (logReferences != null && state.getLastLogFile() != null) {
-                logReferences.put(node.getQualifiedName(), state.getLastLogFile());
+        }
+    }
+
+    /**
+     * Like {@link #applyNodeStates}, but first resets every node without a
+     * stored state (no comment, no points, pending). Used when switching
+     * repositories, so reset and restore share one bulk update.
+     */
+    public static void replaceNodeStates(List<EvaluationNode> roots, Map<String, NodeSaveState> savedStates, Map<String, String> logReferences) {
+        RubricIndex index = RubricIndex.of(roots);
+        String[] references = toArray(index, logReferences);
+        replaceNodeStates(index, savedStates, references);
+        copyInto(index, references, logReferences);
+    }
+
+    public static void replaceNodeStates(RubricIndex index, Map<String, NodeSaveState> savedStates, String[] logReferences) {
+        Map<String, NodeSaveState> states =
+                savedStates != null ?
+                savedStates :
+                Map.of();
+        try (EvaluationNode.BulkUpdate ignored = EvaluationNode.bulkUpdate(index.roots())) {
+            for (int id = 0; id < index.size(); id++) {
+                EvaluationNode node = index.node(id);
+                NodeSaveState state = states.get(index.qualifiedName(id));
+                if (state != null) {
+                    applyNodeState(node, state, logReferences, id, true);
+                } else {
+                    node.setCommentFromStorage(null);
+                    if (node.isLeaf()) {
+                        node.setAchievedPointsFromStorage(0.0, false);
+                        node.setStatusFromStorage(EvaluationStatus.PENDING);
+                    }
+                }
             }
-            if (state.getStatus() != null) {
-                node.setStatusFromStorage(state.getStatus());
+        }
+    }
+
+    private static void applyNodeState(EvaluationNode node, NodeSaveState state, String[] logReferences, int id, boolean reset) {
+        if (state.getComment() != null) {
+            node.setCommentFromStorage(state.getComment());
+        } else if (reset) {
+            node.setCommentFromStorage(null);
+        }
+        if (!node.isLeaf()) {
+            return;
+        }
+        Boolean defined = state.getAchievedPointsDefined();
+        boolean pointsDefined;
+        if (defined != null) {
+            pointsDefined = defined;
+        } else {
+            pointsDefined = Double.compare(state.getAchievedPoints(), 0.0) != 0;
+        }
+        node.setAchievedPointsFromStorage(state.getAchievedPoints(), pointsDefined);
+        if (logReferences != null && state.getLastLogFile() != null) {
+            logReferences[id] = state.getLastLogFile();
+        }
+        if (state.getStatus() != null) {
+            node.setStatusFromStorage(state.getStatus());
+        } else if (reset) {
+            node.setStatusFromStorage(EvaluationStatus.PENDING);
+        }
+    }
+
+    private static String[] toArray(RubricIndex index, Map<String, String> logReferences) {
+        if (logReferences == null) {
+            return null;
+        }
+        String[] references = new String[index.size()];
+        logReferences.forEach((qualifiedName, reference) -> {
+            int id = index.id(qualifiedName);
+            if (id >= 0) {
+                references[id] = reference;
+            }
+        });
+        return references;
+    }
+
+    private static void copyInto(RubricIndex index, String[] references, Map<String, String> logReferences) {
+        if (references == null) {
+            return;
+        }
+        for (int id = 0; id < references.length; id++) {
+            if (references[id] != null) {
+                logReferences.put(index.qualifiedName(id), references[id]);
             }
         }
-        node.getChildren().forEach(child -> applyNodeState(child, savedStates, logReferences));
     }
 }
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import dev.phlp.stud.evaluator.model.EvaluationNode;
+import dev.phlp.stud.evaluator.model.RubricIndex;
 import dev.phlp.stud.evaluator.model.config.EvaluationNodeConfig;
 
 public class EvaluationTreeBuilder {
@@ -17,6 +18,13 @@ public class EvaluationTreeBuilder {
                       .collect(Collectors.toCollection(ArrayList::new));
     }
 
+    /**
+     * Builds the tree and indexes it once; see {@link RubricIndex}.
+     */
+    public RubricIndex buildIndex(List<EvaluationNodeConfig> configs) {
+        return RubricIndex.of(buildTree(configs));
+    }
+
     private EvaluationNode buildNode(EvaluationNodeConfig config, EvaluationNode parent) {
         EvaluationNode node = new EvaluationNode(null, config.getName(), config.getMaxPoints(),
                 config.getCommands(), config.getComment(), config.isPseudo());
@@ -0,0 +1,150 @@
+package dev.phlp.stud.evaluator.service.workflow;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dev.phlp.stud.evaluator.model.RubricIndex;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
+import dev.phlp.stud.evaluator.service.export.FeedbackNode;
+import dev.phlp.stud.evaluator.service.export.MarkdownExporter;
+import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
+import dev.phlp.stud.evaluator.service.storage.AutoSaveService;
+import dev.phlp.stud.evaluator.service.storage.CohortScoreStore;
+
+/**
+ * Exports the Markdown feedback of every repository of a cohort. The
+ * evaluation files are read in parallel and collected in a
+ * {@link CohortScoreStore} over one rubric; each repository is then rendered
+ * from an immutable {@link FeedbackNode} snapshot of its row, again in
+ * parallel, into its working tree. The live evaluation tree is not touched,
+ * so the export can run next to the user interface.
+ */
+public class CohortExportService {
+    private final AutoSaveService autoSaveService;
+    private final MarkdownExporter markdownExporter;
+
+    public CohortExportService(AutoSaveService autoSaveService, MarkdownExporter markdownExporter) {
+        this.autoSaveService = Objects.requireNonNull(autoSaveService, "autoSaveService must not be null");
+        this.markdownExporter = Objects.requireNonNull(markdownExporter, "markdownExporter must not be null");
+    }
+
+    /**
+     * Blocks until every repository has been exported. A failing repository
+     * does not stop the others; a repository whose evaluation file exists but
+     * cannot be read is reported as failed instead of being exported empty.
+     *
+     * @return one result per repository, in the order of {@code repositories}
+     */
+    public List<RepositoryExportResult> export(RubricIndex rubric, List<RepositoryContext> repositories,
+                                               ExportSettings settings, int parallelism) throws InterruptedException {
+        Objects.requireNonNull(rubric, "rubric must not be null");
+        Objects.requireNonNull(repositories, "repositories must not be null");
+        Objects.requireNonNull(settings, "settings must not be null");
+        int total = repositories.size();
+        if (total == 0) {
+            return List.of();
+        }
+
+        int poolSize = Math.max(1, Math.min(parallelism, total));
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread thread = new Thread(r, "cohort-export-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            EvaluationSaveData[] loaded = new EvaluationSaveData[total];
+            String[] loadErrors = new String[total];
+            List<Future<?>> loads = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                int index = i;
+                loads.add(executor.submit(() -> {
+                    Path evaluationFile = repositories.get(index).evaluationFile();
+                    loaded[index] = autoSaveService.load(evaluationFile).orElse(null);
+                    if (loaded[index] == null && Files.exists(evaluationFile)) {
+                        loadErrors[index] = "Bewertung konnte nicht gelesen werden: " + evaluationFile.getFileName();
+                    }
+                }));
+            }
+            for (int i = 0; i < total; i++) {
+                try {
+                    loads.get(i).get();
+                } catch (ExecutionException ex) {
+                    loadErrors[i] = "Bewertung konnte nicht gelesen werden: " + ex.getCause().getMessage();
+                }
+            }
+
+            CohortScoreStore scores = new CohortScoreStore(rubric, total);
+            for (int i = 0; i < total; i++) {
+                scores.put(i, loaded[i]);
+            }
+
+            List<Future<RepositoryExportResult>> exports = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                int index = i;
+                exports.add(executor.submit(() ->
+                        loadErrors[index] != null ?
+                        new RepositoryExportResult(repositories.get(index), null, 0.0, loadErrors[index]) :
+                        exportRepository(scores, index, repositories.get(index), settings)));
+            }
+            List<RepositoryExportResult> results = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                results.add(result(exports.get(i), repositories.get(i)));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private RepositoryExportResult exportRepository(CohortScoreStore scores, int index, RepositoryContext repository,
+                                                    ExportSettings settings) {
+        double achievedPoints = scores.total(index);
+        try {
+            Path file = markdownExporter.exportFeedback(repository.repositoryPath(), FeedbackNode.of(scores, index),
+                    "Repository " + EvaluationEngine.formatPlaceholder(repository.placeholderValue()),
+                    settings.overallComment(), settings.outputFileName());
+            return new RepositoryExportResult(repository, file, achievedPoints, null);
+        } catch (IOException ex) {
+            return new RepositoryExportResult(repository, null, achievedPoints, ex.getMessage());
+        }
+    }
+
+    private static RepositoryExportResult result(Future<RepositoryExportResult> future, RepositoryContext repository)
+            throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            return new RepositoryExportResult(repository, null, 0.0, String.valueOf(ex.getCause().getMessage()));
+        }
+    }
+
+    public record ExportSettings(
+            String overallComment,
+            String outputFileName) {
+    }
+
+    /**
+     * @param file  written feedback file, or {@code null} if the export failed
+     * @param error reason of the failure, or {@code null}
+     */
+    public record RepositoryExportResult(
+            RepositoryContext repository,
+            Path file,
+            double achievedPoints,
+            String error) {
+
+        public boolean successful() {
+            return error == null;
+        }
+    }
+}
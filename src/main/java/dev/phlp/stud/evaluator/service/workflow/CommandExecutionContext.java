@@ -5,16 +5,20 @@ import java.util.Objects;
 
 import dev.phlp.stud.evaluator.service.command.CommandLogService;
 import dev.phlp.stud.evaluator.service.command.CommandRunner;
+import dev.phlp.stud.evaluator.service.command.ExecutionResultCache;
 
 /**
  * Provides all dependencies required to launch the command terminal for a
- * specific evaluation node.
+ * specific evaluation node. {@code commitId} is the checked-out commit used
+ * to look up cached results; it is {@code null} if unknown.
  */
 public record CommandExecutionContext(
         Path repositoryPath,
         Path evaluationDirectory,
         CommandRunner commandRunner,
         CommandLogService commandLogService,
+        ExecutionResultCache executionResultCache,
+        String commitId,
         double maxPoints,
         double achievedPoints) {
 
@@ -23,5 +27,6 @@ public record CommandExecutionContext(
         Objects.requireNonNull(evaluationDirectory, "evaluationDirectory must not be null");
         Objects.requireNonNull(commandRunner, "commandRunner must not be null");
         Objects.requireNonNull(commandLogService, "commandLogService must not be null");
+        Objects.requireNonNull(executionResultCache, "executionResultCache must not be null");
     }
 }
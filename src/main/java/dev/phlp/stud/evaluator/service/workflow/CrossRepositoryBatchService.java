@@ -0,0 +1,346 @@
+package dev.phlp.stud.evaluator.service.workflow;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import dev.phlp.stud.evaluator.model.EvaluationNode;
+import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
+import dev.phlp.stud.evaluator.model.state.ExecutionCacheEntry;
+import dev.phlp.stud.evaluator.model.state.NodeSaveState;
+import dev.phlp.stud.evaluator.service.command.CommandLogService;
+import dev.phlp.stud.evaluator.service.command.CommandLogSink;
+import dev.phlp.stud.evaluator.service.command.CommandOutcome;
+import dev.phlp.stud.evaluator.service.command.CommandRunner;
+import dev.phlp.stud.evaluator.service.command.ExecutionResultCache;
+import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
+import dev.phlp.stud.evaluator.service.storage.AutoSaveService;
+
+/**
+ * Runs the commands of a set of evaluation nodes in every prepared
+ * repository. Repositories are processed in parallel up to a configurable
+ * limit; the nodes of one repository run one after another because they
+ * share its working tree. Logs are written per repository and node, and the
+ * results are stored in each repository's evaluation file. Nodes whose
+ * result is cached for the checked-out commit are not run again unless a
+ * re-run is forced.
+ */
+public class CrossRepositoryBatchService {
+    private final CommandRunner commandRunner;
+    private final CommandLogService commandLogService;
+    private final AutoSaveService autoSaveService;
+    private final ExecutionResultCache executionResultCache;
+
+    public CrossRepositoryBatchService(CommandRunner commandRunner, CommandLogService commandLogService,
+                                       AutoSaveService autoSaveService) {
+        this(commandRunner, commandLogService, autoSaveService, new ExecutionResultCache());
+    }
+
+    public CrossRepositoryBatchService(CommandRunner commandRunner, CommandLogService commandLogService,
+                                       AutoSaveService autoSaveService, ExecutionResultCache executionResultCache) {
+        this.commandRunner = Objects.requireNonNull(commandRunner, "commandRunner must not be null");
+        this.commandLogService = Objects.requireNonNull(commandLogService, "commandLogService must not be null");
+        this.autoSaveService = Objects.requireNonNull(autoSaveService, "autoSaveService must not be null");
+        this.executionResultCache = Objects.requireNonNull(executionResultCache, "executionResultCache must not be null");
+    }
+
+    public List<RepositoryBatchResult> run(List<RepositoryContext> repositories, List<EvaluationNode> runnableNodes,
+                                           int parallelism, BatchListener listener) {
+        return run(repositories, runnableNodes, parallelism, false, listener);
+    }
+
+    /**
+     * Blocks until every repository has been processed.
+     *
+     * @param forceRerun run every node even if its result is cached
+     * @return one result per repository, in the order of {@code repositories}
+     */
+    public List<RepositoryBatchResult> run(List<RepositoryContext> repositories, List<EvaluationNode> runnableNodes,
+                                           int parallelism, boolean forceRerun, BatchListener listener) {
+        Objects.requireNonNull(repositories, "repositories must not be null");
+        Objects.requireNonNull(runnableNodes, "runnableNodes must not be null");
+        Objects.requireNonNull(listener, "listener must not be null");
+        List<BatchTask> tasks = runnableNodes.stream()
+                                             .map(node -> new BatchTask(node.getQualifiedName(),
+                                                     List.copyOf(node.getCommands()), node.getMaxPoints()))
+                                             .toList();
+        int total = repositories.size();
+        if (total == 0 || tasks.isEmpty()) {
+            return List.of();
+        }
+
+        RepositoryBatchResult[] results = new RepositoryBatchResult[total];
+        int poolSize = Math.max(1, Math.min(parallelism, total));
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread thread = new Thread(r, "cross-repository-batch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                int index = i;
+                RepositoryContext repository = repositories.get(i);
+                futures.add(executor.submit(() -> {
+                    listener.onRepositoryStarted(repository);
+                    RepositoryBatchResult result = runRepository(repository, tasks, forceRerun, listener);
+                    results[index] = result;
+                    listener.onRepositoryFinished(result);
+                }));
+            }
+            awaitAll(futures);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<RepositoryBatchResult> finished = new ArrayList<>(total);
+        for (RepositoryBatchResult result : results) {
+            if (result != null) {
+                finished.add(result);
+            }
+        }
+        return finished;
+    }
+
+    private RepositoryBatchResult runRepository(RepositoryContext repository, List<BatchTask> tasks, boolean forceRerun,
+                                                BatchListener listener) {
+        Map<String, CommandOutcome> outcomes = new LinkedHashMap<>();
+        Map<String, String> logFiles = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        String commitId = repository.checkoutInfo().reference().orElse(null);
+        for (BatchTask task : tasks) {
+            Optional<ExecutionCacheEntry> cached =
+                    forceRerun ?
+                    Optional.empty() :
+                    executionResultCache.lookup(repository.evaluationDirectory(), commitId, task.qualifiedName(),
+                            task.commands());
+            if (cached.isPresent()) {
+                ExecutionCacheEntry entry = cached.get();
+                listener.onOutput(repository, List.of("# " + task.qualifiedName(),
+                        "Ergebnis aus dem Cache (Commit " + abbreviate(commitId) + ", Exit " + entry.getExitCode() + ")"));
+                outcomes.put(task.qualifiedName(), ExecutionResultCache.outcome(entry));
+                if (entry.getLogFile() != null) {
+                    logFiles.put(task.qualifiedName(), entry.getLogFile());
+                }
+                continue;
+            }
+
+            listener.onOutput(repository, List.of("# " + task.qualifiedName()));
+            CommandLogSink logSink = null;
+            try {
+                logSink = commandLogService.openLog(repository.evaluationDirectory(), task.qualifiedName(), task.commands());
+            } catch (IOException ex) {
+                errors.add("Log fuer " + task.qualifiedName() + " konnte nicht angelegt werden: " + ex.getMessage());
+            }
+            CommandLogSink sink = logSink;
+            TaskRun run = runTask(repository, task, lines -> {
+                if (sink != null) {
+                    sink.append(lines);
+                }
+                listener.onOutput(repository, lines);
+            });
+            outcomes.put(task.qualifiedName(), run.outcome());
+            if (sink != null) {
+                try {
+                    Path logPath = commandLogService.writeLog(sink);
+                    logFiles.put(task.qualifiedName(), logPath.toString().replace("\\", "/"));
+                } catch (IOException ex) {
+                    errors.add("Log fuer " + task.qualifiedName() + " konnte nicht gespeichert werden: " + ex.getMessage());
+                }
+            }
+            try {
+                executionResultCache.record(repository.evaluationDirectory(), commitId, task.qualifiedName(), task.commands(),
+                        run.outcome(), run.exitCode(), logFiles.get(task.qualifiedName()));
+            } catch (IOException ex) {
+                errors.add("Cache fuer " + task.qualifiedName() + " konnte nicht gespeichert werden: " + ex.getMessage());
+            }
+        }
+
+        double achievedPoints = 0.0;
+        try {
+            autoSaveService.flush(repository.evaluationFile());
+        } catch (IOException ex) {
+            errors.add("Bewertung konnte nicht gespeichert werden: " + ex.getMessage());
+            return new RepositoryBatchResult(repository, Collections.unmodifiableMap(outcomes), achievedPoints,
+                    List.copyOf(errors));
+        }
+        EvaluationSaveData data = autoSaveService.load(repository.evaluationFile()).orElseGet(() -> {
+            EvaluationSaveData created = new EvaluationSaveData();
+            created.setRepositoryUrl(repository.repositoryUrl());
+            created.setPlaceholderValue(repository.placeholderValue());
+            return created;
+        });
+        for (BatchTask task : tasks) {
+            CommandOutcome outcome = outcomes.get(task.qualifiedName());
+            double points =
+                    outcome == CommandOutcome.SUCCESS ?
+                    task.maxPoints() :
+                    0.0;
+            achievedPoints += points;
+            NodeSaveState state = data.getNodes().computeIfAbsent(task.qualifiedName(), key -> new NodeSaveState());
+            state.setAchievedPoints(points);
+            state.setAchievedPointsDefined(true);
+            state.setStatus(toStatus(outcome));
+            String logFile = logFiles.get(task.qualifiedName());
+            if (logFile != null) {
+                state.setLastLogFile(logFile);
+            }
+        }
+        try {
+            autoSaveService.writeImmediately(repository.evaluationFile(), data);
+        } catch (IOException ex) {
+            errors.add("Bewertung konnte nicht gespeichert werden: " + ex.getMessage());
+        }
+        return new RepositoryBatchResult(repository, Collections.unmodifiableMap(outcomes), achievedPoints, List.copyOf(errors));
+    }
+
+    private TaskRun runTask(RepositoryContext repository, BatchTask task, Consumer<List<String>> output) {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger lastExitCode = new AtomicInteger();
+        AtomicBoolean encounteredFailure = new AtomicBoolean(false);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        commandRunner.runCommands(task.commands(), repository.repositoryPath(), new CommandRunner.CommandOutputListener() {
+            @Override
+            public void onCommandStarted(String command) {
+                output.accept(List.of("$ " + command));
+            }
+
+            @Override
+            public void onStdout(String line) {
+                output.accept(List.of("[OUT] " + line));
+            }
+
+            @Override
+            public void onStderr(String line) {
+                output.accept(List.of("[ERR] " + line));
+            }
+
+            @Override
+            public void onOutput(List<CommandRunner.OutputLine> lines) {
+                List<String> formatted = new ArrayList<>(lines.size());
+                for (CommandRunner.OutputLine line : lines) {
+                    formatted.add((line.stderr() ?
+                                   "[ERR] " :
+                                   "[OUT] ") + line.text());
+                }
+                output.accept(formatted);
+            }
+
+            @Override
+            public void onCommandFinished(String command, int exitCode) {
+                output.accept(List.of("Command beendet (Exit " + exitCode + ")"));
+                lastExitCode.set(exitCode);
+                if (exitCode != 0) {
+                    encounteredFailure.set(true);
+                }
+            }
+
+            @Override
+            public void onFailure(String command, Exception exception) {
+                encounteredFailure.set(true);
+                output.accept(List.of("Fehler bei '" + command + "': " + exception.getMessage()));
+            }
+
+            @Override
+            public void onAllCommandsFinished(boolean cancelledExecution) {
+                cancelled.set(cancelledExecution);
+                latch.countDown();
+            }
+        }, CommandRunner.OutputBatching.DEFAULT);
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new TaskRun(CommandOutcome.CANCELLED, lastExitCode.get());
+        }
+        if (cancelled.get()) {
+            return new TaskRun(CommandOutcome.CANCELLED, lastExitCode.get());
+        }
+        return new TaskRun(
+                encounteredFailure.get() ?
+                CommandOutcome.FAILED :
+                CommandOutcome.SUCCESS,
+                lastExitCode.get());
+    }
+
+    private static String abbreviate(String commitId) {
+        return commitId.length() > 7 ?
+               commitId.substring(0, 7) :
+               commitId;
+    }
+
+    private EvaluationStatus toStatus(CommandOutcome outcome) {
+        return switch (outcome) {
+            case SUCCESS ->
+                    EvaluationStatus.SUCCESS;
+            case FAILED ->
+                    EvaluationStatus.FAILED;
+            case CANCELLED ->
+                    EvaluationStatus.CANCELLED;
+        };
+    }
+
+    private void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                return;
+            } catch (ExecutionException ex) {
+                // a failing listener must not stop the other repositories
+            }
+        }
+    }
+
+    /**
+     * Receives progress from worker threads; implementations hand updates to
+     * the UI thread themselves. Command output arrives in chunks of lines.
+     */
+    public interface BatchListener {
+        void onRepositoryStarted(RepositoryContext repository);
+
+        void onOutput(RepositoryContext repository, List<String> lines);
+
+        void onRepositoryFinished(RepositoryBatchResult result);
+    }
+
+    public record RepositoryBatchResult(
+            RepositoryContext repository,
+            Map<String, CommandOutcome> outcomes,
+            double achievedPoints,
+            List<String> errors) {
+
+        public boolean successful() {
+            return errors.isEmpty() && outcomes.values().stream().allMatch(outcome -> outcome == CommandOutcome.SUCCESS);
+        }
+    }
+
+    private record TaskRun(
+            CommandOutcome outcome,
+            int exitCode) {
+    }
+
+    private record BatchTask(
+            String qualifiedName,
+            List<String> commands,
+            double maxPoints) {
+    }
+}
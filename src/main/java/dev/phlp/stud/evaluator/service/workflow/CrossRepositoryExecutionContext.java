@@ -0,0 +1,24 @@
+package dev.phlp.stud.evaluator.service.workflow;
+
+import java.util.List;
+import java.util.Objects;
+
+import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
+
+/**
+ * Provides all dependencies required to run a category's commands in every
+ * prepared repository.
+ */
+public record CrossRepositoryExecutionContext(
+        List<RepositoryContext> repositories,
+        CrossRepositoryBatchService batchService,
+        int parallelism) {
+
+    public CrossRepositoryExecutionContext {
+        repositories = List.copyOf(Objects.requireNonNull(repositories, "repositories must not be null"));
+        Objects.requireNonNull(batchService, "batchService must not be null");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+    }
+}
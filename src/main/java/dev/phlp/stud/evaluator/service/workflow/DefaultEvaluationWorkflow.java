@@ -5,14 +5,12 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.text.Normalizer;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -20,7 +18,6 @@ import java.util.Optional;
 import javafx.application.Platform;
 import javafx.stage.Stage;
 
-import dev.phlp.stud.evaluator.controller.CommandTerminalController;
 import dev.phlp.stud.evaluator.core.di.ServiceRegistry;
 import dev.phlp.stud.evaluator.core.events.EventBus;
 import dev.phlp.stud.evaluator.events.CheckoutInfoChanged;
@@ -38,10 +35,12 @@ import dev.phlp.stud.evaluator.events.StatusMessageUpdated;
 import dev.phlp.stud.evaluator.events.TotalsUpdated;
 import dev.phlp.stud.evaluator.model.EvaluationNode;
 import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.model.RubricIndex;
 import dev.phlp.stud.evaluator.model.config.EvaluationConfig;
 import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
 import dev.phlp.stud.evaluator.model.state.NodeSaveState;
 import dev.phlp.stud.evaluator.service.command.CommandLogService;
+import dev.phlp.stud.evaluator.service.command.CommandOutcome;
 import dev.phlp.stud.evaluator.service.command.CommandRunner;
 import dev.phlp.stud.evaluator.service.dialog.DialogService;
 import dev.phlp.stud.evaluator.service.export.MarkdownExporter;
@@ -54,10 +53,10 @@ import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
 import dev.phlp.stud.evaluator.service.repository.RepositoryPreparationListener;
 import dev.phlp.stud.evaluator.service.repository.RepositoryPreparationRequest;
 import dev.phlp.stud.evaluator.service.repository.RepositoryPreparationResult;
-import dev.phlp.stud.evaluator.service.repository.RepositoryPreparationService;
 import dev.phlp.stud.evaluator.service.storage.AutoSaveService;
+import dev.phlp.stud.evaluator.service.storage.CohortScoreStore;
+import dev.phlp.stud.evaluator.service.storage.EvaluationJournal;
 import dev.phlp.stud.evaluator.service.storage.EvaluationStateSynchronizer;
-import dev.phlp.stud.evaluator.service.storage.EvaluationTreeBuilder;
 
 /**
  * Default implementation that preserves the existing evaluation logic while
@@ -66,17 +65,24 @@ import dev.phlp.stud.evaluator.service.storage.EvaluationTreeBuilder;
 public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
 
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    /**
+     * Number of journaled edits after which the current evaluation is written
+     * as a snapshot again, which compacts its journal.
+     */
+    private static final int JOURNAL_COMPACTION_THRESHOLD = 200;
 
     private final EventBus events;
     private final AutoSaveService autoSaveService;
     private final CommandRunner commandRunner;
     private final CommandLogService commandLogService;
-    private final MarkdownExporter markdownExporter;
     private final DialogService dialogService;
-    private final RepositoryPreparationService repositoryPreparationService;
+    private final EvaluationEngine engine;
+    private final EvaluationPrefetcher prefetcher;
     private final List<EvaluationNode> rootNodes = new ArrayList<>();
-    private final Map<String, String> logReferences = new HashMap<>();
     private final List<RepositoryContext> repositoryContexts = new ArrayList<>();
+    private RubricIndex rubricIndex = RubricIndex.of(List.of());
+    private String[] logReferences = new String[0];
+    private CohortScoreStore cohortScores = new CohortScoreStore(rubricIndex, 0);
     private EvaluationConfig evaluationConfig;
     private Path baseDirectory;
     private int currentPlaceholderValue = 1;
@@ -90,6 +96,16 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
     private String currentCheckedOutRef;
     private CheckoutStrategy currentCheckoutStrategy = CheckoutStrategy.none();
     private boolean suppressAutoSave;
+    private boolean applyingNodeStates;
+    private int journaledChanges;
+    private boolean crossRepositoryRunActive;
+    /**
+     * Per repository context: number of edits made so far and the edit count
+     * contained in the last stored snapshot. Snapshots are only written while
+     * the two differ, so merely browsing repositories writes nothing.
+     */
+    private long[] editGenerations = new long[0];
+    private long[] savedGenerations = new long[0];
 
     public DefaultEvaluationWorkflow(ServiceRegistry services, EventBus events) {
         Objects.requireNonNull(services, "ServiceRegistry must not be null");
@@ -97,15 +113,17 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
         this.autoSaveService = Objects.requireNonNull(services.get(AutoSaveService.class), "AutoSaveService not registered");
         this.commandRunner = Objects.requireNonNull(services.get(CommandRunner.class), "CommandRunner not registered");
         this.commandLogService = Objects.requireNonNull(services.get(CommandLogService.class), "CommandLogService not registered");
-        this.markdownExporter = Objects.requireNonNull(services.get(MarkdownExporter.class), "MarkdownExporter not registered");
+        MarkdownExporter markdownExporter = Objects.requireNonNull(services.get(MarkdownExporter.class), "MarkdownExporter not registered");
         this.dialogService = Objects.requireNonNull(services.get(DialogService.class), "DialogService not registered");
         GitService gitService = Objects.requireNonNull(services.get(GitService.class), "GitService not registered");
-        this.repositoryPreparationService = new RepositoryPreparationService(gitService, autoSaveService);
+        this.engine = new EvaluationEngine(gitService, commandRunner, commandLogService, autoSaveService, markdownExporter);
+        this.prefetcher = new EvaluationPrefetcher(gitService, engine.executionResultCache());
     }
 
     @Override
     public void initialize(Stage stage, EvaluationConfig config, Path baseDirectory) {
         this.evaluationConfig = config;
+        commandLogService.setArchiveEnabled(Boolean.TRUE.equals(config.getArchiveCommandLogs()));
         this.baseDirectory = Optional.ofNullable(baseDirectory)
                                      .map(Path::toAbsolutePath)
                                      .orElse(Path.of(System.getProperty("user.dir")).toAbsolutePath());
@@ -116,9 +134,11 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
                 config.getTag(),
                 configuredDeadline));
 
-        EvaluationTreeBuilder builder = new EvaluationTreeBuilder();
         rootNodes.clear();
-        rootNodes.addAll(builder.buildTree(config.getRootCategories()));
+        rubricIndex = engine.buildRubric(config);
+        logReferences = new String[rubricIndex.size()];
+        cohortScores = new CohortScoreStore(rubricIndex, 0);
+        rootNodes.addAll(rubricIndex.roots());
         rootNodes.forEach(this::registerNodeListeners);
 
         updateTotals();
@@ -139,6 +159,9 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
 
     @Override
     public Optional<CommandExecutionContext> createCommandExecutionContext(EvaluationNode node) {
+        if (rejectDuringCrossRepositoryRun()) {
+            return Optional.empty();
+        }
         if (currentRepositoryPath == null) {
             dialogService.showError("Kein Repository", "Bitte zuerst die Repositories vorbereiten.");
             return Optional.empty();
@@ -158,10 +181,49 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
                 context.evaluationDirectory(),
                 commandRunner,
                 commandLogService,
+                engine.executionResultCache(),
+                prefetcher.headCommit(context).orElse(currentCheckedOutRef),
                 node.getMaxPoints(),
                 node.getAchievedPoints()));
     }
 
+    @Override
+    public Optional<CrossRepositoryExecutionContext> createCrossRepositoryExecutionContext(EvaluationNode node) {
+        if (rejectDuringCrossRepositoryRun()) {
+            return Optional.empty();
+        }
+        if (repositoryContexts.isEmpty()) {
+            dialogService.showError("Keine Repositories", "Bitte zuerst die Repositories vorbereiten.");
+            return Optional.empty();
+        }
+        saveCurrentContext();
+        return Optional.of(new CrossRepositoryExecutionContext(repositoryContexts, engine.crossRepositoryBatchService(),
+                engine.commandParallelism(evaluationConfig)));
+    }
+
+    @Override
+    public void onCrossRepositoryExecutionStarted() {
+        saveCurrentContext();
+        crossRepositoryRunActive = true;
+        events.publish(new EvaluationTreeSelectionCleared());
+        events.publish(new EvaluationTreeAvailabilityChanged(false));
+        events.publish(new RepositoryActionsAvailabilityChanged(false, false));
+        updateStatus("Kommandos laufen in " + repositoryContexts.size() + " Repositories...");
+    }
+
+    @Override
+    public void onCrossRepositoryExecutionFinished() {
+        crossRepositoryRunActive = false;
+        events.publish(new RepositoryActionsAvailabilityChanged(true, !repositoryContexts.isEmpty()));
+        if (currentContextIndex < 0 || currentContextIndex >= repositoryContexts.size()) {
+            return;
+        }
+        events.publish(new EvaluationTreeAvailabilityChanged(true));
+        cohortScores = engine.loadCohortScores(rubricIndex, repositoryContexts);
+        prefetcher.invalidate();
+        loadEvaluationForContext(currentContextIndex);
+    }
+
     @Override
     public void onCommandExecutionStarted(EvaluationNode node) {
         node.setStatus(EvaluationStatus.RUNNING);
@@ -169,7 +231,7 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
     }
 
     @Override
-    public void onCommandExecutionFinished(EvaluationNode node, CommandTerminalController.CommandOutcome outcome) {
+    public void onCommandExecutionFinished(EvaluationNode node, CommandOutcome outcome) {
         switch (outcome) {
             case SUCCESS ->
                     node.setStatus(EvaluationStatus.SUCCESS);
@@ -188,13 +250,16 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
             return;
         }
         String stored = relativePath.toString().replace("\\", "/");
-        logReferences.put(node.getQualifiedName(), stored);
-        triggerAutoSave();
+        int id = rubricIndex.id(node);
+        if (id >= 0) {
+            logReferences[id] = stored;
+        }
+        journal(EvaluationJournal.Change.logFile(node.getQualifiedName(), stored));
     }
 
     @Override
     public void adjustPlaceholder(int delta) {
-        if (repositoryContexts.isEmpty()) {
+        if (repositoryContexts.isEmpty() || rejectDuringCrossRepositoryRun()) {
             return;
         }
         int newIndex = Math.max(0, Math.min(repositoryContexts.size() - 1, currentContextIndex + delta));
@@ -214,6 +279,9 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
 
     @Override
     public void prepareRepositories(String template, int startIndex, int endIndex) {
+        if (rejectDuringCrossRepositoryRun()) {
+            return;
+        }
         String sanitizedTemplate = Optional.ofNullable(template).map(String::trim).orElse("");
         if (sanitizedTemplate.isBlank()) {
             dialogService.showError("Repository-Template fehlt", "Bitte eine Repository-URL angeben.");
@@ -229,8 +297,8 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
         }
         currentPlaceholderValue = placeholderRange.start();
 
-        repositoriesRoot = baseDirectory.resolve("repos");
-        evaluationsRoot = resolveEvaluationsRootDirectory();
+        repositoriesRoot = engine.repositoriesRoot(baseDirectory);
+        evaluationsRoot = engine.evaluationsRoot(evaluationConfig, baseDirectory);
         try {
             Files.createDirectories(repositoriesRoot);
             Files.createDirectories(evaluationsRoot);
@@ -241,14 +309,15 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
 
         saveCurrentContext();
         repositoryContexts.clear();
+        prefetcher.invalidate();
         currentContextIndex = -1;
         currentRepositoryPath = null;
         currentRepositoryUrl = null;
         currentCheckedOutRef = null;
         currentCheckoutStrategy = CheckoutStrategy.none();
         updateCheckoutInfoLabel();
-        logReferences.clear();
-        runWithoutAutoSave(() -> rootNodes.forEach(this::resetNodeState));
+        Arrays.fill(logReferences, null);
+        applyNodeStatesInBulk(() -> EvaluationStateSynchronizer.replaceNodeStates(rubricIndex, null, null));
         events.publish(new EvaluationTreeRefreshRequested());
         updateTotals();
         events.publish(new EvaluationTreeAvailabilityChanged(false));
@@ -260,28 +329,29 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
         events.publish(new CloneProgressVisibilityChanged(true));
         events.publish(new CloneProgressUpdated(0, values.size()));
 
-        RepositoryPreparationRequest request = RepositoryPreparationRequest.builder()
-                                                                           .repositoryTemplate(sanitizedTemplate)
-                                                                           .placeholderRange(placeholderRange)
-                                                                           .repositoriesRoot(repositoriesRoot)
-                                                                           .evaluationsRoot(evaluationsRoot)
-                                                                           .evaluationFileName(buildEvaluationFileName())
-                                                                           .evaluationTitle(Optional.ofNullable(evaluationConfig.getTitle()).orElse(""))
-                                                                           .repositoryNumberPlaceholder(evaluationConfig.getRepositoryNumberPlaceholder())
-                                                                           .tag(evaluationConfig.getTag())
-                                                                           .deadline(evaluationConfig.getDeadline())
-                                                                           .build();
+        RepositoryPreparationRequest request = engine.preparationRequest(evaluationConfig, sanitizedTemplate, placeholderRange,
+                baseDirectory);
 
         RepositoryPreparationListener listener = (completed, total) ->
                 Platform.runLater(() -> events.publish(new CloneProgressUpdated(completed, total)));
 
+        RubricIndex index = rubricIndex;
         new Thread(() -> {
-            RepositoryPreparationResult result = repositoryPreparationService.prepareRepositories(request, listener);
-            Platform.runLater(() -> handlePreparationResult(result));
+            RepositoryPreparationResult result = engine.prepareRepositories(request, listener);
+            CohortScoreStore scores = engine.loadCohortScores(index, result.contexts());
+            Platform.runLater(() -> handlePreparationResult(result, scores));
         }, "repository-preparation").start();
     }
 
-    private void handlePreparationResult(RepositoryPreparationResult result) {
+    /**
+     * Loads the stored evaluations of {@code result} on the calling thread
+     * and activates its repositories, like the end of a preparation run.
+     */
+    void activatePreparedRepositories(RepositoryPreparationResult result) {
+        handlePreparationResult(result, engine.loadCohortScores(rubricIndex, result.contexts()));
+    }
+
+    private void handlePreparationResult(RepositoryPreparationResult result, CohortScoreStore scores) {
         events.publish(new RepositoryActionsAvailabilityChanged(true, false));
         events.publish(new CloneProgressVisibilityChanged(false));
         String errors = result.errors();
@@ -290,9 +360,11 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
             publishLogEntry("Fehler bei der Vorbereitung:\n" + errors, null, true);
         }
         List<RepositoryContext> contexts = result.contexts();
+        cohortScores = scores;
         if (contexts.isEmpty()) {
             updateStatus("Keine Repositories verfuegbar");
             repositoryContexts.clear();
+            resetGenerations();
             currentCheckedOutRef = null;
             currentCheckoutStrategy = CheckoutStrategy.none();
             updateCheckoutInfoLabel();
@@ -302,17 +374,20 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
         }
         repositoryContexts.clear();
         repositoryContexts.addAll(contexts);
+        resetGenerations();
         events.publish(new EvaluationTreeAvailabilityChanged(true));
         events.publish(new RepositoryActionsAvailabilityChanged(true, true));
         selectContext(0);
-        updateStatus("Repositories vorbereitet: " + contexts.size());
+        long unchanged = result.unchangedCount();
+        updateStatus("Repositories vorbereitet: " + contexts.size()
+                + (unchanged > 0 ? " (" + unchanged + " ohne Aenderungen)" : ""));
     }
 
     private void selectContext(int index) {
         if (index < 0 || index >= repositoryContexts.size()) {
             return;
         }
-        saveCurrentContext();
+        triggerAutoSave();
         currentContextIndex = index;
         RepositoryContext context = repositoryContexts.get(index);
         currentPlaceholderValue = context.placeholderValue();
@@ -322,19 +397,16 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
         currentCheckoutStrategy = checkoutInfo.strategy();
         currentCheckedOutRef = checkoutInfo.reference().orElse(null);
         updateCheckoutInfoLabel();
-        loadEvaluationForContext(context);
+        loadEvaluationForContext(index);
+        prefetcher.prefetchAround(repositoryContexts, index);
     }
 
-    private void loadEvaluationForContext(RepositoryContext context) {
-        logReferences.clear();
-        runWithoutAutoSave(() -> {
-            rootNodes.forEach(this::resetNodeState);
-            Optional<EvaluationSaveData> maybeData = autoSaveService.load(context.evaluationFile());
+    private void loadEvaluationForContext(int index) {
+        applyNodeStatesInBulk(() -> {
+            cohortScores.applyTo(index, logReferences);
+            Optional<EvaluationSaveData> maybeData = cohortScores.header(index);
             if (maybeData.isPresent()) {
                 EvaluationSaveData data = maybeData.get();
-                Map<String, NodeSaveState> nodes = data.getNodes();
-                normalizeLegacyLogReferences(nodes);
-                EvaluationStateSynchronizer.applyNodeStates(rootNodes, nodes, logReferences);
                 if (currentCheckoutStrategy.mode().isEmpty()) {
                     CheckoutStrategy.decode(data.getCheckoutStrategy())
                                     .ifPresent(strategy -> currentCheckoutStrategy = strategy);
@@ -347,15 +419,18 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
                 }
             }
         });
+        savedGenerations[index] = editGenerations[index];
         events.publish(new EvaluationTreeRefreshRequested());
         events.publish(new EvaluationTreeSelectionCleared());
         updateTotals();
         updateCheckoutInfoLabel();
-        triggerAutoSave();
     }
 
     @Override
     public void exportMarkdown() {
+        if (rejectDuringCrossRepositoryRun()) {
+            return;
+        }
         if (currentContextIndex < 0 || currentContextIndex >= repositoryContexts.size()) {
             dialogService.showError("Keine Evaluation", "Bitte zuerst Repositories vorbereiten.");
             return;
@@ -366,9 +441,7 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
         }
         RepositoryContext context = repositoryContexts.get(currentContextIndex);
         try {
-            String sheetComment = evaluationConfig != null ? evaluationConfig.getComment() : null;
-            Path file = markdownExporter.export(currentRepositoryPath, rootNodes,
-                    "Repository " + formatPlaceholder(context.placeholderValue()), sheetComment, buildFeedbackFileName());
+            Path file = engine.exportMarkdown(evaluationConfig, context, rootNodes);
             updateStatus("Markdown exportiert: " + file.getFileName());
         } catch (IOException ex) {
             dialogService.showError("Export fehlgeschlagen", ex.getMessage());
@@ -377,9 +450,68 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
     }
 
     @Override
-    public void shutdown() {
+    public void exportAllMarkdown() {
+        if (rejectDuringCrossRepositoryRun()) {
+            return;
+        }
+        if (repositoryContexts.isEmpty()) {
+            dialogService.showError("Keine Repositories", "Bitte zuerst die Repositories vorbereiten.");
+            return;
+        }
         saveCurrentContext();
+        List<RepositoryContext> contexts = List.copyOf(repositoryContexts);
+        EvaluationConfig config = evaluationConfig;
+        // a separate tree, so the export threads never read nodes the user is editing
+        RubricIndex exportRubric = engine.buildRubric(config);
+        events.publish(new RepositoryActionsAvailabilityChanged(false, false));
+        updateStatus("Exportiere Markdown fuer " + contexts.size() + " Repositories...");
+        new Thread(() -> {
+            autoSaveService.flushAll(AutoSaveService.CLOSE_FLUSH_TIMEOUT);
+            List<CohortExportService.RepositoryExportResult> results;
+            try {
+                results = engine.exportCohortMarkdown(config, exportRubric, contexts);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                results = List.of();
+            }
+            List<CohortExportService.RepositoryExportResult> finished = results;
+            Platform.runLater(() -> handleCohortExportResult(contexts.size(), finished));
+        }, "markdown-export").start();
+    }
+
+    private void handleCohortExportResult(int total, List<CohortExportService.RepositoryExportResult> results) {
+        events.publish(new RepositoryActionsAvailabilityChanged(true, !repositoryContexts.isEmpty()));
+        StringBuilder failures = new StringBuilder();
+        long exported = 0;
+        for (CohortExportService.RepositoryExportResult result : results) {
+            if (result.successful()) {
+                exported++;
+            } else {
+                failures.append(EvaluationEngine.formatPlaceholder(result.repository().placeholderValue()))
+                        .append(": ")
+                        .append(result.error())
+                        .append('\n');
+            }
+        }
+        updateStatus("Markdown exportiert: " + exported + "/" + total);
+        if (exported < total) {
+            String message =
+                    failures.isEmpty() ?
+                    "Der Export wurde abgebrochen." :
+                    failures.toString();
+            dialogService.showError("Export unvollstaendig", message);
+            publishLogEntry("Export fehlgeschlagen:\n" + message, null, true);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        triggerAutoSave();
         commandRunner.close();
+        prefetcher.close();
+        if (!autoSaveService.flushAll(AutoSaveService.CLOSE_FLUSH_TIMEOUT)) {
+            System.err.println("Autosave: nicht alle Bewertungen konnten rechtzeitig gespeichert werden");
+        }
         autoSaveService.close();
     }
 
@@ -435,28 +567,81 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
     }
 
     private void triggerAutoSave() {
-        if (suppressAutoSave || currentContextIndex < 0 || currentContextIndex >= repositoryContexts.size()) {
+        if (suppressAutoSave || crossRepositoryRunActive || !isCurrentContextDirty()) {
             return;
         }
         RepositoryContext context = repositoryContexts.get(currentContextIndex);
         EvaluationSaveData data = buildSaveData();
+        cohortScores.put(currentContextIndex, data);
         autoSaveService.scheduleSave(context.evaluationFile(), data);
+        savedGenerations[currentContextIndex] = editGenerations[currentContextIndex];
+        journaledChanges = 0;
+    }
+
+    /**
+     * Appends a single edit to the journal of the current evaluation instead
+     * of rewriting the whole file; every {@link #JOURNAL_COMPACTION_THRESHOLD}
+     * edits a snapshot is scheduled.
+     */
+    private void journal(EvaluationJournal.Change change) {
+        if (suppressAutoSave || crossRepositoryRunActive || currentContextIndex < 0 || currentContextIndex >= repositoryContexts.size()) {
+            return;
+        }
+        editGenerations[currentContextIndex]++;
+        autoSaveService.appendChange(repositoryContexts.get(currentContextIndex).evaluationFile(), change);
+        if (++journaledChanges >= JOURNAL_COMPACTION_THRESHOLD) {
+            triggerAutoSave();
+        }
     }
 
     private void saveCurrentContext() {
-        if (currentContextIndex < 0 || currentContextIndex >= repositoryContexts.size()) {
+        if (!isCurrentContextDirty()) {
             return;
         }
         RepositoryContext context = repositoryContexts.get(currentContextIndex);
         EvaluationSaveData data = buildSaveData();
+        cohortScores.put(currentContextIndex, data);
         try {
             autoSaveService.writeImmediately(context.evaluationFile(), data);
+            savedGenerations[currentContextIndex] = editGenerations[currentContextIndex];
+            journaledChanges = 0;
         } catch (IOException ex) {
             dialogService.showError("Autosave", "Bewertung konnte nicht gespeichert werden: " + ex.getMessage());
             publishLogEntry("Autosave fehlgeschlagen: " + ex.getMessage(), ex, true);
         }
     }
 
+    /**
+     * Rejects an action while a cross-repository batch rewrites the
+     * evaluation files and uses the working trees.
+     */
+    private boolean rejectDuringCrossRepositoryRun() {
+        if (!crossRepositoryRunActive) {
+            return false;
+        }
+        updateStatus("Bitte warten, bis die Kommandos in allen Repositories beendet sind.");
+        return true;
+    }
+
+    private boolean isCurrentContextDirty() {
+        return currentContextIndex >= 0
+                && currentContextIndex < repositoryContexts.size()
+                && isDirty(currentContextIndex);
+    }
+
+    /**
+     * @return whether context {@code index} has edits that are not in its
+     * last stored snapshot
+     */
+    boolean isDirty(int index) {
+        return editGenerations[index] != savedGenerations[index];
+    }
+
+    private void resetGenerations() {
+        editGenerations = new long[repositoryContexts.size()];
+        savedGenerations = new long[repositoryContexts.size()];
+    }
+
     private EvaluationSaveData buildSaveData() {
         EvaluationSaveData data = new EvaluationSaveData();
         data.setCheckedOutReference(currentCheckedOutRef);
@@ -464,43 +649,11 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
         data.setPlaceholderValue(currentPlaceholderValue);
         data.setEvaluationTitle(Optional.ofNullable(evaluationConfig.getTitle()).orElse(""));
         data.setCheckoutStrategy(currentCheckoutStrategy.encode().orElse(null));
-        Map<String, NodeSaveState> snapshot = EvaluationStateSynchronizer.captureNodeStates(rootNodes, logReferences);
+        Map<String, NodeSaveState> snapshot = EvaluationStateSynchronizer.captureNodeStates(rubricIndex, logReferences);
         data.setNodes(snapshot);
         return data;
     }
 
-    private void normalizeLegacyLogReferences(Map<String, NodeSaveState> nodes) {
-        if (nodes == null || nodes.isEmpty()) {
-            return;
-        }
-        nodes.values().forEach(state -> {
-            String logFile = state.getLastLogFile();
-            if (logFile == null || logFile.isBlank()) {
-                return;
-            }
-            String sanitized = logFile.trim().replace('\\', '/');
-            if (sanitized.startsWith(".eval/")) {
-                sanitized = sanitized.substring(".eval/".length());
-            }
-            if (!sanitized.startsWith("logs/")) {
-                int idx = sanitized.lastIndexOf('/');
-                String fileName =
-                        idx >= 0 ?
-                        sanitized.substring(idx + 1) :
-                        sanitized;
-                sanitized =
-                        fileName.isBlank() ?
-                        null :
-                        "logs/" + fileName;
-            }
-            if (sanitized == null || sanitized.isBlank()) {
-                state.setLastLogFile(null);
-            } else {
-                state.setLastLogFile(sanitized);
-            }
-        });
-    }
-
     private void runWithoutAutoSave(Runnable action) {
         boolean previous = suppressAutoSave;
         suppressAutoSave = true;
@@ -511,55 +664,45 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
         }
     }
 
-    private void resetNodeState(EvaluationNode node) {
-        node.setComment(null);
-        if (node.isLeaf()) {
-            node.clearAchievedPoints();
-        } else {
-            node.getChildren().forEach(this::resetNodeState);
-            node.refreshAggregatedPoints();
+    /**
+     * Runs {@code action} without auto-save and without the per-node refresh
+     * events; the caller publishes one refresh and the totals afterwards.
+     */
+    private void applyNodeStatesInBulk(Runnable action) {
+        boolean previous = applyingNodeStates;
+        applyingNodeStates = true;
+        try {
+            runWithoutAutoSave(action);
+        } finally {
+            applyingNodeStates = previous;
         }
-        node.setStatus(EvaluationStatus.PENDING);
     }
 
     private void registerNodeListeners(EvaluationNode node) {
         node.achievedPointsProperty().addListener((obs, oldVal, newVal) -> {
+            if (applyingNodeStates) {
+                return;
+            }
             updateTotals();
             events.publish(new EvaluationTreeRefreshRequested());
-            triggerAutoSave();
+            journalPoints(node);
+        });
+        node.achievedPointsDefinedProperty().addListener((obs, oldVal, newVal) -> journalPoints(node));
+        node.statusProperty().addListener((obs, oldVal, newVal) -> {
+            if (node.isLeaf()) {
+                journal(EvaluationJournal.Change.status(node.getQualifiedName(), newVal));
+            }
         });
-        node.commentProperty().addListener((obs, oldVal, newVal) -> triggerAutoSave());
+        node.commentProperty().addListener((obs, oldVal, newVal) ->
+                journal(EvaluationJournal.Change.comment(node.getQualifiedName(), newVal)));
         node.getChildren().forEach(this::registerNodeListeners);
     }
 
-    private Path resolveEvaluationsRootDirectory() {
-        Path baseEvaluations = baseDirectory.resolve("evaluations");
-        return baseEvaluations.resolve(buildConfigSlug());
-    }
-
-    private String buildConfigSlug() {
-        String title = Optional.ofNullable(evaluationConfig)
-                               .map(EvaluationConfig::getTitle)
-                               .map(String::trim)
-                               .filter(value -> !value.isBlank())
-                               .orElse("default");
-        String normalized = Normalizer.normalize(title, Normalizer.Form.NFD)
-                                      .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
-        normalized = normalized.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9-_]+", "-");
-        normalized = normalized.replaceAll("-+", "-");
-        normalized = normalized.replaceAll("^-|-$", "");
-        if (normalized.isBlank()) {
-            normalized = "default";
+    private void journalPoints(EvaluationNode node) {
+        if (node.isLeaf()) {
+            journal(EvaluationJournal.Change.points(node.getQualifiedName(), node.getAchievedPoints(),
+                    node.isAchievedPointsDefined()));
         }
-        return normalized;
-    }
-
-    private String buildFeedbackFileName() {
-        return "feedback-" + buildConfigSlug() + ".md";
-    }
-
-    private String buildEvaluationFileName() {
-        return buildConfigSlug() + ".json";
     }
 
     private void updateStatus(String message) {
@@ -589,8 +732,4 @@ public final class DefaultEvaluationWorkflow implements EvaluationWorkflow {
         throwable.printStackTrace(new PrintWriter(writer));
         return writer.toString();
     }
-
-    private String formatPlaceholder(int value) {
-        return String.format(Locale.ROOT, "%03d", value);
-    }
 }
@@ -0,0 +1,240 @@
+package dev.phlp.stud.evaluator.service.workflow;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import dev.phlp.stud.evaluator.model.EvaluationNode;
+import dev.phlp.stud.evaluator.model.RubricIndex;
+import dev.phlp.stud.evaluator.model.config.EvaluationConfig;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
+import dev.phlp.stud.evaluator.model.state.NodeSaveState;
+import dev.phlp.stud.evaluator.service.command.CommandLogService;
+import dev.phlp.stud.evaluator.service.command.CommandRunner;
+import dev.phlp.stud.evaluator.service.command.ExecutionResultCache;
+import dev.phlp.stud.evaluator.service.export.MarkdownExporter;
+import dev.phlp.stud.evaluator.service.git.GitService;
+import dev.phlp.stud.evaluator.service.repository.PlaceholderRange;
+import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
+import dev.phlp.stud.evaluator.service.repository.RepositoryPreparationListener;
+import dev.phlp.stud.evaluator.service.repository.RepositoryPreparationRequest;
+import dev.phlp.stud.evaluator.service.repository.RepositoryPreparationResult;
+import dev.phlp.stud.evaluator.service.repository.RepositoryPreparationService;
+import dev.phlp.stud.evaluator.service.storage.AutoSaveService;
+import dev.phlp.stud.evaluator.service.storage.CohortScoreStore;
+import dev.phlp.stud.evaluator.service.storage.EvaluationTreeBuilder;
+
+/**
+ * Evaluation logic shared by the JavaFX workflow and the headless runner:
+ * directory and file naming, repository preparation, command execution,
+ * loading stored evaluations and Markdown export. It keeps no session state
+ * and never touches the JavaFX toolkit, dialogs or the event bus.
+ */
+public class EvaluationEngine {
+    private final AutoSaveService autoSaveService;
+    private final MarkdownExporter markdownExporter;
+    private final RepositoryPreparationService repositoryPreparationService;
+    private final CrossRepositoryBatchService crossRepositoryBatchService;
+    private final CohortExportService cohortExportService;
+    private final ExecutionResultCache executionResultCache = new ExecutionResultCache();
+    private final EvaluationTreeBuilder treeBuilder = new EvaluationTreeBuilder();
+
+    public EvaluationEngine(GitService gitService, CommandRunner commandRunner, CommandLogService commandLogService,
+                            AutoSaveService autoSaveService, MarkdownExporter markdownExporter) {
+        Objects.requireNonNull(gitService, "gitService must not be null");
+        this.autoSaveService = Objects.requireNonNull(autoSaveService, "autoSaveService must not be null");
+        this.markdownExporter = Objects.requireNonNull(markdownExporter, "markdownExporter must not be null");
+        this.repositoryPreparationService = new RepositoryPreparationService(gitService, autoSaveService);
+        this.crossRepositoryBatchService = new CrossRepositoryBatchService(commandRunner, commandLogService, autoSaveService,
+                executionResultCache);
+        this.cohortExportService = new CohortExportService(autoSaveService, markdownExporter);
+    }
+
+    public CrossRepositoryBatchService crossRepositoryBatchService() {
+        return crossRepositoryBatchService;
+    }
+
+    public ExecutionResultCache executionResultCache() {
+        return executionResultCache;
+    }
+
+    public List<EvaluationNode> buildTree(EvaluationConfig config) {
+        return treeBuilder.buildTree(config.getRootCategories());
+    }
+
+    public RubricIndex buildRubric(EvaluationConfig config) {
+        return treeBuilder.buildIndex(config.getRootCategories());
+    }
+
+    public Path repositoriesRoot(Path baseDirectory) {
+        return baseDirectory.resolve("repos");
+    }
+
+    public Path evaluationsRoot(EvaluationConfig config, Path baseDirectory) {
+        return baseDirectory.resolve("evaluations").resolve(configSlug(config));
+    }
+
+    public String evaluationFileName(EvaluationConfig config) {
+        return configSlug(config) + ".json";
+    }
+
+    public String feedbackFileName(EvaluationConfig config) {
+        return "feedback-" + configSlug(config) + ".md";
+    }
+
+    public RepositoryPreparationRequest preparationRequest(EvaluationConfig config, String repositoryTemplate,
+                                                           PlaceholderRange placeholderRange, Path baseDirectory) {
+        return RepositoryPreparationRequest.builder()
+                                           .repositoryTemplate(repositoryTemplate)
+                                           .placeholderRange(placeholderRange)
+                                           .repositoriesRoot(repositoriesRoot(baseDirectory))
+                                           .evaluationsRoot(evaluationsRoot(config, baseDirectory))
+                                           .evaluationFileName(evaluationFileName(config))
+                                           .evaluationTitle(Optional.ofNullable(config.getTitle()).orElse(""))
+                                           .repositoryNumberPlaceholder(config.getRepositoryNumberPlaceholder())
+                                           .tag(config.getTag())
+                                           .deadline(config.getDeadline())
+                                           .concurrency(config.getPreparationConcurrency())
+                                           .shallowCloneDays(config.getShallowCloneDays())
+                                           .templateRepositoryUrl(config.getTemplateRepositoryUrl())
+                                           .build();
+    }
+
+    public RepositoryPreparationResult prepareRepositories(RepositoryPreparationRequest request,
+                                                           RepositoryPreparationListener listener) {
+        return repositoryPreparationService.prepareRepositories(request, listener);
+    }
+
+    /**
+     * @return number of repositories whose commands run at the same time
+     */
+    public int commandParallelism(EvaluationConfig config) {
+        return Optional.ofNullable(config.getCommandParallelism())
+                       .filter(value -> value > 0)
+                       .orElse(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Runs every node with commands below {@code roots} in all repositories
+     * and stores the results in their evaluation files. Cached results for
+     * the checked-out commits are reused unless {@code forceRerun} is set.
+     */
+    public List<CrossRepositoryBatchService.RepositoryBatchResult> runAllCommands(
+            EvaluationConfig config, List<RepositoryContext> repositories, List<EvaluationNode> roots,
+            boolean forceRerun, CrossRepositoryBatchService.BatchListener listener) {
+        List<EvaluationNode> runnableNodes = new ArrayList<>();
+        roots.forEach(root -> collectRunnableNodes(root, runnableNodes));
+        return crossRepositoryBatchService.run(repositories, runnableNodes, commandParallelism(config), forceRerun, listener);
+    }
+
+    /**
+     * Loads the stored evaluation of a repository and normalizes log
+     * references written by older versions.
+     */
+    public Optional<EvaluationSaveData> loadEvaluation(RepositoryContext context) {
+        Optional<EvaluationSaveData> data = autoSaveService.load(context.evaluationFile());
+        data.ifPresent(loaded -> normalizeLegacyLogReferences(loaded.getNodes()));
+        return data;
+    }
+
+    /**
+     * Loads the stored evaluations of all {@code repositories} into one
+     * cohort-wide store; row {@code i} belongs to {@code repositories.get(i)}.
+     */
+    public CohortScoreStore loadCohortScores(RubricIndex index, List<RepositoryContext> repositories) {
+        CohortScoreStore store = new CohortScoreStore(index, repositories.size());
+        for (int i = 0; i < repositories.size(); i++) {
+            store.put(i, loadEvaluation(repositories.get(i)).orElse(null));
+        }
+        return store;
+    }
+
+    public Path exportMarkdown(EvaluationConfig config, RepositoryContext context, List<EvaluationNode> roots)
+            throws IOException {
+        return markdownExporter.export(context.repositoryPath(), roots,
+                "Repository " + formatPlaceholder(context.placeholderValue()), config.getComment(), feedbackFileName(config));
+    }
+
+    /**
+     * Exports the feedback of all {@code repositories} from their stored
+     * evaluations, rendering several repositories at once.
+     *
+     * @param rubric tree the exported feedback is laid out on; only read
+     * @return one result per repository, in the order of {@code repositories}
+     */
+    public List<CohortExportService.RepositoryExportResult> exportCohortMarkdown(EvaluationConfig config,
+                                                                                 RubricIndex rubric,
+                                                                                 List<RepositoryContext> repositories)
+            throws InterruptedException {
+        return cohortExportService.export(rubric, repositories,
+                new CohortExportService.ExportSettings(config.getComment(), feedbackFileName(config)),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public static String configSlug(EvaluationConfig config) {
+        String title = Optional.ofNullable(config)
+                               .map(EvaluationConfig::getTitle)
+                               .map(String::trim)
+                               .filter(value -> !value.isBlank())
+                               .orElse("default");
+        String normalized = Normalizer.normalize(title, Normalizer.Form.NFD)
+                                      .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+        normalized = normalized.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9-_]+", "-");
+        normalized = normalized.replaceAll("-+", "-");
+        normalized = normalized.replaceAll("^-|-$", "");
+        if (normalized.isBlank()) {
+            normalized = "default";
+        }
+        return normalized;
+    }
+
+    public static String formatPlaceholder(int value) {
+        return String.format(Locale.ROOT, "%03d", value);
+    }
+
+    private void collectRunnableNodes(EvaluationNode node, List<EvaluationNode> target) {
+        if (!node.getCommands().isEmpty()) {
+            target.add(node);
+            return;
+        }
+        node.getChildren().forEach(child -> collectRunnableNodes(child, target));
+    }
+
+    private void normalizeLegacyLogReferences(Map<String, NodeSaveState> nodes) {
+        if (nodes == null || nodes.isEmpty()) {
+            return;
+        }
+        nodes.values().forEach(state -> {
+            String logFile = state.getLastLogFile();
+            if (logFile == null || logFile.isBlank()) {
+                return;
+            }
+            String sanitized = logFile.trim().replace('\\', '/');
+            if (sanitized.startsWith(".eval/")) {
+                sanitized = sanitized.substring(".eval/".length());
+            }
+            if (!sanitized.startsWith("logs/")) {
+                int idx = sanitized.lastIndexOf('/');
+                String fileName =
+                        idx >= 0 ?
+                        sanitized.substring(idx + 1) :
+                        sanitized;
+                sanitized =
+                        fileName.isBlank() ?
+                        null :
+                        "logs/" + fileName;
+            }
+            if (sanitized == null || sanitized.isBlank()) {
+                state.setLastLogFile(null);
+            } else {
+                state.setLastLogFile(sanitized);
+            }
+        });
+    }
+}
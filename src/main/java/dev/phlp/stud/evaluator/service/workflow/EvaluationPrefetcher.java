@@ -0,0 +1,90 @@
+package dev.phlp.stud.evaluator.service.workflow;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import dev.phlp.stud.evaluator.service.command.ExecutionResultCache;
+import dev.phlp.stud.evaluator.service.git.GitService;
+import dev.phlp.stud.evaluator.service.git.GitServiceException;
+import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
+
+/**
+ * Warms the repositories around the current one on a background thread, so
+ * that navigating to them never waits for disk reads on the JavaFX thread:
+ * the execution result cache of their evaluation directories is parsed and
+ * the commit checked out in their working trees is resolved. Only the
+ * current repository and its direct neighbours are kept.
+ */
+public class EvaluationPrefetcher implements AutoCloseable {
+    private final GitService gitService;
+    private final ExecutionResultCache executionResultCache;
+    private final Map<Path, CompletableFuture<String>> headCommits = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "evaluation-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EvaluationPrefetcher(GitService gitService, ExecutionResultCache executionResultCache) {
+        this.gitService = Objects.requireNonNull(gitService, "gitService must not be null");
+        this.executionResultCache = Objects.requireNonNull(executionResultCache, "executionResultCache must not be null");
+    }
+
+    /**
+     * Starts warming {@code contexts.get(index)} and its neighbours and drops
+     * everything prefetched for other repositories. Returns immediately.
+     */
+    public void prefetchAround(List<RepositoryContext> contexts, int index) {
+        Set<Path> retained = new HashSet<>();
+        for (int candidate : new int[]{index, index + 1, index - 1}) {
+            if (candidate >= 0 && candidate < contexts.size()) {
+                RepositoryContext context = contexts.get(candidate);
+                retained.add(context.repositoryPath());
+                prefetch(context);
+            }
+        }
+        headCommits.keySet().retainAll(retained);
+    }
+
+    /**
+     * @return the commit checked out in the repository, if it has already
+     * been resolved; never blocks
+     */
+    public Optional<String> headCommit(RepositoryContext context) {
+        CompletableFuture<String> future = headCommits.get(context.repositoryPath());
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(future.join());
+    }
+
+    public void invalidate() {
+        headCommits.clear();
+    }
+
+    private void prefetch(RepositoryContext context) {
+        headCommits.computeIfAbsent(context.repositoryPath(), path -> CompletableFuture.supplyAsync(() -> {
+            executionResultCache.preload(context.evaluationDirectory());
+            try {
+                return gitService.resolveCurrentCommit(path);
+            } catch (GitServiceException ex) {
+                return null;
+            }
+        }, executor));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        headCommits.clear();
+    }
+}
@@ -6,9 +6,9 @@ import java.util.Optional;
 
 import javafx.stage.Stage;
 
-import dev.phlp.stud.evaluator.controller.CommandTerminalController;
 import dev.phlp.stud.evaluator.model.EvaluationNode;
 import dev.phlp.stud.evaluator.model.config.EvaluationConfig;
+import dev.phlp.stud.evaluator.service.command.CommandOutcome;
 
 /**
  * Coordinates evaluation specific workflows and exposes domain operations to
@@ -45,6 +45,32 @@ public interface EvaluationWorkflow {
      */
     Optional<CommandExecutionContext> createCommandExecutionContext(EvaluationNode node);
 
+    /**
+     * Creates an execution context for running the commands below the given
+     * node in every prepared repository. The current evaluation is saved
+     * first so the batch starts from the stored state. Implementations may
+     * present error dialogs and return an empty optional if execution is not
+     * possible.
+     *
+     * @param node selected evaluation node
+     * @return optional execution context
+     */
+    Optional<CrossRepositoryExecutionContext> createCrossRepositoryExecutionContext(EvaluationNode node);
+
+    /**
+     * Notifies the workflow that a cross-repository batch starts. Until
+     * {@link #onCrossRepositoryExecutionFinished()} the batch owns the
+     * evaluation files and working trees, so navigation, edits and other
+     * command runs are blocked.
+     */
+    void onCrossRepositoryExecutionStarted();
+
+    /**
+     * Notifies the workflow that a cross-repository batch finished and the
+     * evaluation files were updated on disk.
+     */
+    void onCrossRepositoryExecutionFinished();
+
     /**
      * Notifies the workflow that command execution started for the given node.
      *
@@ -58,7 +84,7 @@ public interface EvaluationWorkflow {
      * @param node    affected node
      * @param outcome execution outcome
      */
-    void onCommandExecutionFinished(EvaluationNode node, CommandTerminalController.CommandOutcome outcome);
+    void onCommandExecutionFinished(EvaluationNode node, CommandOutcome outcome);
 
     /**
      * Registers a produced log file for the given node.
@@ -92,6 +118,12 @@ public interface EvaluationWorkflow {
      */
     void exportMarkdown();
 
+    /**
+     * Exports the stored evaluations of all prepared repositories as markdown
+     * in the background and reports the repositories that failed.
+     */
+    void exportAllMarkdown();
+
     /**
      * Releases resources held by the workflow.
      */
@@ -1,6 +1,8 @@
 package dev.phlp.stud.evaluator.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 public final class JsonMapperFactory {
@@ -14,4 +16,20 @@ public final class JsonMapperFactory {
         mapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         return mapper;
     }
+
+    /**
+     * @return an immutable, thread-safe reader for {@code type}; build it once
+     * and reuse it for every read
+     */
+    public static ObjectReader createReader(ObjectMapper mapper, Class<?> type) {
+        return mapper.readerFor(type);
+    }
+
+    /**
+     * @return an immutable, thread-safe writer that pretty-prints; build it
+     * once and reuse it for every write
+     */
+    public static ObjectWriter createPrettyWriter(ObjectMapper mapper) {
+        return mapper.writerWithDefaultPrettyPrinter();
+    }
 }
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ConfigServiceTest {
     @Test
@@ -47,12 +48,14 @@ class ConfigServiceTest {
         copy.setTag("changed");
         copy.setDeadline(LocalDate.of(2025, 1, 1));
         copy.getRootCategories().get(0).setName("Changed Category");
+        copy.getRootCategories().get(0).getChildren().get(0).getCommands().add("mvn verify");
 
         assertEquals("Original", original.getTitle());
         assertEquals("v1.0.0", original.getTag());
         assertEquals(LocalDate.of(2024, 9, 15), original.getDeadline());
         assertEquals("Category", original.getRootCategories().get(0).getName());
         assertTrue(original.getRootCategories().get(0).getChildren().get(0).isPseudo());
+        assertEquals(List.of("mvn test"), original.getRootCategories().get(0).getChildren().get(0).getCommands());
         assertTrue(copy.getRootCategories().get(0).getChildren().get(0).isPseudo());
     }
 }
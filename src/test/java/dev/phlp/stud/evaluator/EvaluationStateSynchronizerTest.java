@@ -3,13 +3,16 @@ package dev.phlp.stud.evaluator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import dev.phlp.stud.evaluator.model.EvaluationNode;
+import dev.phlp.stud.evaluator.model.EvaluationStatus;
 import dev.phlp.stud.evaluator.model.state.NodeSaveState;
 import dev.phlp.stud.evaluator.service.storage.EvaluationStateSynchronizer;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class EvaluationStateSynchronizerTest {
@@ -40,4 +43,37 @@ class EvaluationStateSynchronizerTest {
         assertEquals(4.0, taskB.getAchievedPoints(), 1e-6);
         assertEquals(7.0, category.getAchievedPoints(), 1e-6);
     }
+
+    @Test
+    void replaceResetsNodesWithoutStateAndAggregatesOnce() {
+        EvaluationNode taskA = new EvaluationNode(null, "Task A", 5.0, List.of(), "", false);
+        EvaluationNode taskB = new EvaluationNode(null, "Task B", 5.0, List.of(), "", false);
+        EvaluationNode category = new EvaluationNode(null, "Category", 0.0, List.of(), "", false);
+        category.addChildren(List.of(taskA, taskB));
+        taskA.setAchievedPoints(2.0);
+        taskB.setAchievedPoints(5.0);
+        taskB.setStatus(EvaluationStatus.FAILED);
+        taskB.setComment("alt");
+
+        NodeSaveState stored = new NodeSaveState();
+        stored.setAchievedPoints(4.0);
+        stored.setAchievedPointsDefined(true);
+        stored.setStatus(EvaluationStatus.SUCCESS);
+        AtomicInteger pointChanges = new AtomicInteger();
+        AtomicInteger statusChanges = new AtomicInteger();
+        category.achievedPointsProperty().addListener((obs, oldVal, newVal) -> pointChanges.incrementAndGet());
+        category.statusProperty().addListener((obs, oldVal, newVal) -> statusChanges.incrementAndGet());
+
+        EvaluationStateSynchronizer.replaceNodeStates(List.of(category), Map.of("Category/Task A", stored), new HashMap<>());
+
+        assertEquals(4.0, taskA.getAchievedPoints(), 1e-6);
+        assertEquals(0.0, taskB.getAchievedPoints(), 1e-6);
+        assertFalse(taskB.isAchievedPointsDefined());
+        assertEquals(EvaluationStatus.PENDING, taskB.getStatus());
+        assertEquals("", taskB.getComment());
+        assertEquals(4.0, category.getAchievedPoints(), 1e-6);
+        assertEquals(EvaluationStatus.PENDING, category.getStatus());
+        assertEquals(1, pointChanges.get());
+        assertEquals(1, statusChanges.get());
+    }
 }
@@ -0,0 +1,110 @@
+package dev.phlp.stud.evaluator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import dev.phlp.stud.evaluator.model.config.EvaluationConfig;
+import dev.phlp.stud.evaluator.model.config.EvaluationNodeConfig;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
+import dev.phlp.stud.evaluator.service.command.CommandLogService;
+import dev.phlp.stud.evaluator.service.command.CommandRunner;
+import dev.phlp.stud.evaluator.service.export.MarkdownExporter;
+import dev.phlp.stud.evaluator.service.git.GitService;
+import dev.phlp.stud.evaluator.service.repository.PlaceholderRange;
+import dev.phlp.stud.evaluator.service.storage.AutoSaveService;
+import dev.phlp.stud.evaluator.service.workflow.CohortExportService;
+import dev.phlp.stud.evaluator.service.workflow.EvaluationEngine;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadlessEvaluatorTest {
+
+    @Test
+    void evaluatesAllRepositoriesWithoutUserInterface(@TempDir Path tempDir) throws Exception {
+        Path upstreamRoot = tempDir.resolve("upstream");
+        createUpstream(upstreamRoot.resolve("001"), true);
+        createUpstream(upstreamRoot.resolve("002"), false);
+
+        EvaluationNodeConfig task = new EvaluationNodeConfig();
+        task.setName("Loesung vorhanden");
+        task.setMaxPoints(4.0);
+        task.setCommands(List.of("test -f Solution.java"));
+        EvaluationNodeConfig category = new EvaluationNodeConfig();
+        category.setName("Automatisch");
+        category.setChildren(List.of(task));
+        EvaluationConfig config = new EvaluationConfig();
+        config.setTitle("Blatt 1");
+        config.setRepositoryUrlTemplate(upstreamRoot.toUri() + "{{number}}");
+        config.setRootCategories(List.of(category));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CommandRunner commandRunner = new CommandRunner();
+             AutoSaveService autoSaveService = new AutoSaveService()) {
+            EvaluationEngine engine = new EvaluationEngine(new GitService(), commandRunner, new CommandLogService(),
+                    autoSaveService, new MarkdownExporter());
+            HeadlessEvaluator evaluator = new HeadlessEvaluator(engine,
+                    new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(new ByteArrayOutputStream()));
+
+            int exitCode = evaluator.evaluate(config, null, new PlaceholderRange(1, 2), tempDir);
+
+            assertEquals(0, exitCode);
+            EvaluationSaveData first = autoSaveService.load(
+                    tempDir.resolve("evaluations/blatt-1/001/blatt-1.json")).orElseThrow();
+            assertEquals(4.0, first.getNodes().get("Automatisch/Loesung vorhanden").getAchievedPoints());
+            EvaluationSaveData second = autoSaveService.load(
+                    tempDir.resolve("evaluations/blatt-1/002/blatt-1.json")).orElseThrow();
+            assertEquals(0.0, second.getNodes().get("Automatisch/Loesung vorhanden").getAchievedPoints());
+            assertTrue(Files.readString(tempDir.resolve("repos/001/feedback-blatt-1.md")).contains("| **Gesamt** | 4 | 4 |"));
+            assertTrue(out.toString(StandardCharsets.UTF_8).contains("[002] 0 / 4 Punkte"));
+            assertTrue(out.toString(StandardCharsets.UTF_8).contains("Durchschnitt: 2 / 4 Punkte"));
+        }
+    }
+
+    @Test
+    void reportsInvalidArgumentsOnErrorStream(@TempDir Path tempDir) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PrintStream outStream = new PrintStream(out, true, StandardCharsets.UTF_8);
+        PrintStream errStream = new PrintStream(err, true, StandardCharsets.UTF_8);
+
+        assertEquals(2, HeadlessEvaluator.run(new String[] {"config.json", "1"}, outStream, errStream));
+        assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("Aufruf: " + HeadlessEvaluator.FLAG));
+
+        err.reset();
+        String missing = tempDir.resolve("fehlt.json").toString();
+        assertEquals(2, HeadlessEvaluator.run(new String[] {missing, "1", "2"}, outStream, errStream));
+        assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("Konfiguration konnte nicht geladen werden"));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void averageIgnoresFailedExports() {
+        List<CohortExportService.RepositoryExportResult> exports = List.of(
+                new CohortExportService.RepositoryExportResult(null, Path.of("a.md"), 3.0, null),
+                new CohortExportService.RepositoryExportResult(null, Path.of("b.md"), 4.0, null),
+                new CohortExportService.RepositoryExportResult(null, null, 0.0, "Export fehlgeschlagen"));
+
+        assertEquals(3.5, HeadlessEvaluator.averagePoints(exports));
+        assertEquals(0.0, HeadlessEvaluator.averagePoints(List.of(exports.get(2))));
+    }
+
+    private void createUpstream(Path directory, boolean withSolution) throws Exception {
+        try (Git git = Git.init().setDirectory(directory.toFile()).setInitialBranch("main").call()) {
+            Files.writeString(directory.resolve("README.md"), "hello");
+            git.add().addFilepattern("README.md").call();
+            if (withSolution) {
+                Files.writeString(directory.resolve("Solution.java"), "class Solution {}");
+                git.add().addFilepattern("Solution.java").call();
+            }
+            git.commit().setMessage("initial").setSign(false).call();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package dev.phlp.stud.evaluator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EvaluationNodeTest {
+    @Test
+    void propagatesPointDeltasAndStatusCountsToAllAncestors() {
+        EvaluationNode root = node("Root", 0.0);
+        EvaluationNode category = node("Category", 0.0);
+        EvaluationNode taskA = node("Task A", 0.1);
+        EvaluationNode taskB = node("Task B", 0.2);
+        category.addChildren(List.of(taskA, taskB));
+        root.addChild(category);
+
+        taskA.setAchievedPoints(0.1);
+        taskB.setAchievedPoints(0.2);
+        assertEquals(0.3, category.getAchievedPoints());
+        assertEquals(0.3, root.getAchievedPoints());
+
+        taskA.setStatus(EvaluationStatus.SUCCESS);
+        assertEquals(EvaluationStatus.PENDING, root.getStatus());
+        taskB.setStatus(EvaluationStatus.SUCCESS);
+        assertEquals(EvaluationStatus.SUCCESS, root.getStatus());
+        taskB.setStatus(EvaluationStatus.FAILED);
+        assertEquals(EvaluationStatus.FAILED, category.getStatus());
+        assertEquals(EvaluationStatus.FAILED, root.getStatus());
+
+        category.getChildren().remove(taskB);
+        assertEquals(0.1, root.getAchievedPoints());
+        assertEquals(EvaluationStatus.SUCCESS, root.getStatus());
+        taskB.setAchievedPoints(0.0);
+        assertEquals(0.1, root.getAchievedPoints());
+    }
+
+    @Test
+    void bulkUpdateRecomputesAggregatesOnceWhenClosed() {
+        EvaluationNode root = node("Root", 0.0);
+        List<EvaluationNode> categories = new ArrayList<>();
+        for (int c = 0; c < 10; c++) {
+            EvaluationNode category = node("Category " + c, 0.0);
+            for (int t = 0; t < 10; t++) {
+                category.addChild(node("Task " + t, 1.0));
+            }
+            categories.add(category);
+        }
+        root.addChildren(categories);
+        AtomicInteger pointChanges = new AtomicInteger();
+        root.achievedPointsProperty().addListener((obs, oldVal, newVal) -> pointChanges.incrementAndGet());
+
+        root.markFullyAwarded();
+        assertEquals(1, pointChanges.get());
+        assertEquals(100.0, root.getAchievedPoints());
+
+        try (EvaluationNode.BulkUpdate ignored = EvaluationNode.bulkUpdate(List.of(root))) {
+            categories.forEach(category -> category.getChildren().forEach(task -> {
+                task.setAchievedPoints(0.5);
+                task.setStatus(EvaluationStatus.SUCCESS);
+            }));
+            assertEquals(100.0, root.getAchievedPoints());
+        }
+        assertEquals(2, pointChanges.get());
+        assertEquals(50.0, root.getAchievedPoints());
+        assertEquals(5.0, categories.get(3).getAchievedPoints());
+        assertEquals(EvaluationStatus.SUCCESS, root.getStatus());
+
+        categories.get(0).getChildren().get(0).setAchievedPoints(1.0);
+        assertEquals(50.5, root.getAchievedPoints());
+    }
+
+    @Test
+    void bulkOperationsOnInnerNodesRecomputeEachAggregateOnce() {
+        EvaluationNode root = node("Root", 0.0);
+        EvaluationNode category = node("Category", 0.0);
+        EvaluationNode group = node("Group", 0.0);
+        group.addChildren(List.of(node("Task A", 1.0), node("Task B", 2.0)));
+        category.addChildren(List.of(group, node("Task C", 3.0)));
+        root.addChildren(List.of(category, node("Task D", 4.0)));
+        AtomicInteger rootChanges = new AtomicInteger();
+        AtomicInteger groupChanges = new AtomicInteger();
+        root.achievedPointsProperty().addListener((obs, oldVal, newVal) -> rootChanges.incrementAndGet());
+        group.achievedPointsProperty().addListener((obs, oldVal, newVal) -> groupChanges.incrementAndGet());
+
+        category.markFullyAwarded();
+        assertEquals(6.0, category.getAchievedPoints());
+        assertEquals(6.0, root.getAchievedPoints());
+        assertEquals(1, rootChanges.get());
+        assertEquals(1, groupChanges.get());
+
+        category.resetToZero();
+        assertEquals(0.0, root.getAchievedPoints());
+        assertEquals(2, rootChanges.get());
+        assertEquals(2, groupChanges.get());
+
+        root.markFullyAwarded();
+        category.clearAchievedPoints();
+        assertEquals(4.0, root.getAchievedPoints());
+        assertEquals(0.0, group.getAchievedPoints());
+        assertEquals(4, rootChanges.get());
+        assertEquals(4, groupChanges.get());
+    }
+
+    private static EvaluationNode node(String name, double maxPoints) {
+        return new EvaluationNode(null, name, maxPoints, List.of(), "", false);
+    }
+}
@@ -0,0 +1,45 @@
+package dev.phlp.stud.evaluator.model;
+
+import java.util.List;
+
+import dev.phlp.stud.evaluator.model.config.EvaluationNodeConfig;
+import dev.phlp.stud.evaluator.service.storage.EvaluationTreeBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RubricIndexTest {
+    @Test
+    void assignsDenseIdsInPreOrderAndResolvesQualifiedNames() {
+        EvaluationNodeConfig task = new EvaluationNodeConfig();
+        task.setName("Task");
+        task.setMaxPoints(2.0);
+        EvaluationNodeConfig other = new EvaluationNodeConfig();
+        other.setName("Other");
+        other.setMaxPoints(1.0);
+        EvaluationNodeConfig category = new EvaluationNodeConfig();
+        category.setName("Category");
+        category.setChildren(List.of(task, other));
+        EvaluationNodeConfig single = new EvaluationNodeConfig();
+        single.setName("Single");
+        single.setMaxPoints(3.0);
+
+        RubricIndex index = new EvaluationTreeBuilder().buildIndex(List.of(category, single));
+
+        assertEquals(4, index.size());
+        assertEquals(2, index.roots().size());
+        assertEquals("Category/Other", index.qualifiedName(2));
+        assertEquals(1, index.id("Category/Task"));
+        assertEquals(-1, index.id("Category/Missing"));
+        assertTrue(index.find("Category/Missing").isEmpty());
+        EvaluationNode otherNode = index.find("Category/Other").orElseThrow();
+        assertSame(otherNode, index.node(2));
+        assertEquals(2, index.id(otherNode));
+        assertEquals(-1, index.id(new EvaluationNode(null, "Other", 1.0, List.of(), "", false)));
+        assertArrayEquals(new int[]{1, 2, 3}, index.leafIds());
+        assertEquals("Category/Other", otherNode.getQualifiedName());
+    }
+}
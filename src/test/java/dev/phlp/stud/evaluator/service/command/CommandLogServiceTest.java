@@ -0,0 +1,137 @@
+package dev.phlp.stud.evaluator.service.command;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandLogServiceTest {
+
+    @Test
+    void sinkStreamsOutputAndRenamesOnFinish(@TempDir Path tempDir) throws Exception {
+        CommandLogService service = new CommandLogService();
+        CommandLogSink sink = service.openLog(tempDir, "Aufgabe 1/Build", List.of("mvn test"));
+        sink.append(List.of("first", "second"));
+        sink.append("third");
+        try (Stream<Path> files = Files.list(tempDir.resolve("logs"))) {
+            assertTrue(files.allMatch(file -> file.getFileName().toString().endsWith(".partial")));
+        }
+
+        Path relative = service.writeLog(sink);
+
+        assertTrue(relative.startsWith("logs"));
+        assertTrue(relative.getFileName().toString().endsWith("_Aufgabe_1_Build.log"));
+        String separator = System.lineSeparator();
+        assertEquals("# Commands" + separator + "$ mvn test" + separator + separator + "# Output" + separator
+                + "first" + separator + "second" + separator + "third" + separator, Files.readString(tempDir.resolve(relative)));
+        try (Stream<Path> files = Files.list(tempDir.resolve("logs"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void writeLogStreamsLargeOutputInSlices(@TempDir Path tempDir) throws Exception {
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            output.append("zeile ").append(i).append(" \u00e4\u00f6\u00fc").append('\n');
+        }
+
+        Path relative = new CommandLogService().writeLog(tempDir, "node", List.of("make"), output);
+
+        String content = Files.readString(tempDir.resolve(relative));
+        assertTrue(content.endsWith(output.toString()));
+        assertTrue(content.startsWith("# Commands"));
+        try (Stream<Path> files = Files.list(tempDir.resolve("logs"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void closingUnfinishedSinkDiscardsPartialFile(@TempDir Path tempDir) throws Exception {
+        try (CommandLogSink sink = new CommandLogService().openLog(tempDir, "node", List.of("true"))) {
+            sink.append("output");
+        }
+        try (Stream<Path> files = Files.list(tempDir.resolve("logs"))) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+
+    @Test
+    void archiveModeStoresLogsInOneCompressedFile(@TempDir Path tempDir) throws Exception {
+        CommandLogService service = new CommandLogService();
+        service.setArchiveEnabled(true);
+        Path first = service.writeLog(tempDir, "Aufgabe 1", List.of("make"), "erste Ausgabe\n");
+        CommandLogSink sink = service.openLog(tempDir, "Aufgabe 2", List.of("make test"));
+        sink.append("zweite Ausgabe");
+        Path second = service.writeLog(sink);
+
+        try (Stream<Path> files = Files.list(tempDir.resolve("logs"))) {
+            assertEquals(List.of(LogArchive.FILE_NAME), files.map(file -> file.getFileName().toString()).toList());
+        }
+        assertTrue(first.toString().replace('\\', '/').startsWith("logs/" + LogArchive.FILE_NAME + "#"));
+
+        Files.write(tempDir.resolve("logs").resolve(LogArchive.FILE_NAME), new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+        CommandLogService reopened = new CommandLogService();
+        try (InputStream in = reopened.openLogReference(tempDir, second.toString())) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(content.startsWith("# Commands" + System.lineSeparator() + "$ make test"));
+            assertTrue(content.endsWith("zweite Ausgabe" + System.lineSeparator()));
+        }
+        try (InputStream in = reopened.openLogReference(tempDir, first.toString())) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).endsWith("erste Ausgabe\n"));
+        }
+        assertEquals(2, reopened.archive(tempDir).entries().size());
+        assertEquals("Aufgabe 2", reopened.archive(tempDir).latest("Aufgabe 2").orElseThrow().nodeName());
+
+        reopened.setArchiveEnabled(true);
+        reopened.writeLog(tempDir, "Aufgabe 3", List.of("make"), "dritte Ausgabe\n");
+        assertEquals(3, new CommandLogService().archive(tempDir).entries().size());
+    }
+
+    @Test
+    void archiveKeepsEntriesOfConcurrentWriters(@TempDir Path tempDir) throws Exception {
+        CommandLogService application = new CommandLogService();
+        application.setArchiveEnabled(true);
+        CommandLogService headless = new CommandLogService();
+        headless.setArchiveEnabled(true);
+
+        Path first = application.writeLog(tempDir, "Aufgabe 1", List.of("make"), "erste Ausgabe\n");
+        Path second = headless.writeLog(tempDir, "Aufgabe 2", List.of("make"), "zweite Ausgabe\n");
+        Path third = application.writeLog(tempDir, "Aufgabe 3", List.of("make"), "dritte Ausgabe\n");
+
+        assertEquals(List.of("Aufgabe 1", "Aufgabe 2", "Aufgabe 3"),
+                new CommandLogService().archive(tempDir).entries().stream().map(LogArchive.Entry::nodeName).toList());
+        try (InputStream in = application.openLogReference(tempDir, second.toString())) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).endsWith("zweite Ausgabe\n"));
+        }
+        try (InputStream in = headless.openLogReference(tempDir, third.toString())) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).endsWith("dritte Ausgabe\n"));
+        }
+        try (InputStream in = headless.openLogReference(tempDir, first.toString())) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).endsWith("erste Ausgabe\n"));
+        }
+    }
+
+    @Test
+    void tailKeepsOnlyMostRecentLines() {
+        LogTail tail = new LogTail(20);
+        for (int i = 0; i < 100; i++) {
+            tail.append("line-" + i);
+        }
+
+        String text = tail.text();
+        assertTrue(text.endsWith("line-98" + System.lineSeparator() + "line-99" + System.lineSeparator()));
+        assertFalse(text.contains("line-97"));
+        assertEquals(98, tail.droppedLines());
+    }
+}
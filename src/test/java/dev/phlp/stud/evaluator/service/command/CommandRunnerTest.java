@@ -0,0 +1,121 @@
+package dev.phlp.stud.evaluator.service.command;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandRunnerTest {
+
+    @Test
+    void virtualThreadModeRunsManyCommandsConcurrently(@TempDir Path tempDir) throws Exception {
+        int executions = 50;
+        CountDownLatch finished = new CountDownLatch(executions);
+        AtomicInteger successful = new AtomicInteger();
+        List<Boolean> forwardedOnVirtualThread = new CopyOnWriteArrayList<>();
+        try (CommandRunner runner = new CommandRunner(CommandRunner.ThreadMode.VIRTUAL)) {
+            List<CommandRunner.CommandExecution> started = new ArrayList<>();
+            for (int i = 0; i < executions; i++) {
+                started.add(runner.runCommands(List.of("echo run-" + i), tempDir, new CommandRunner.CommandOutputListener() {
+                    @Override
+                    public void onCommandStarted(String command) {
+                    }
+
+                    @Override
+                    public void onStdout(String line) {
+                        forwardedOnVirtualThread.add(Thread.currentThread().isVirtual());
+                    }
+
+                    @Override
+                    public void onStderr(String line) {
+                    }
+
+                    @Override
+                    public void onCommandFinished(String command, int exitCode) {
+                        if (exitCode == 0) {
+                            successful.incrementAndGet();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(String command, Exception exception) {
+                    }
+
+                    @Override
+                    public void onAllCommandsFinished(boolean cancelled) {
+                        finished.countDown();
+                    }
+                }));
+            }
+
+            assertTrue(finished.await(30, TimeUnit.SECONDS));
+            assertEquals(executions, started.size());
+        }
+        assertEquals(executions, successful.get());
+        assertEquals(executions, forwardedOnVirtualThread.size());
+        assertTrue(forwardedOnVirtualThread.stream().allMatch(Boolean::booleanValue));
+    }
+
+    @Test
+    void batchedOutputArrivesInOrderedChunksBeforeCommandFinishes(@TempDir Path tempDir) throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        List<String> lines = new CopyOnWriteArrayList<>();
+        AtomicInteger chunks = new AtomicInteger();
+        AtomicInteger linesAtFinish = new AtomicInteger(-1);
+        try (CommandRunner runner = new CommandRunner()) {
+            runner.runCommands(List.of("seq 1 2000"), tempDir, new CommandRunner.CommandOutputListener() {
+                @Override
+                public void onCommandStarted(String command) {
+                }
+
+                @Override
+                public void onStdout(String line) {
+                    throw new AssertionError("batched output must not be delivered per line");
+                }
+
+                @Override
+                public void onStderr(String line) {
+                    throw new AssertionError("batched output must not be delivered per line");
+                }
+
+                @Override
+                public void onOutput(List<CommandRunner.OutputLine> chunk) {
+                    chunks.incrementAndGet();
+                    chunk.forEach(line -> lines.add(line.text()));
+                }
+
+                @Override
+                public void onCommandFinished(String command, int exitCode) {
+                    linesAtFinish.set(lines.size());
+                }
+
+                @Override
+                public void onFailure(String command, Exception exception) {
+                }
+
+                @Override
+                public void onAllCommandsFinished(boolean cancelled) {
+                    finished.countDown();
+                }
+            }, new CommandRunner.OutputBatching(Duration.ofSeconds(30), 1024));
+
+            assertTrue(finished.await(30, TimeUnit.SECONDS));
+        }
+        assertEquals(2000, linesAtFinish.get());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(String.valueOf(i + 1), lines.get(i));
+        }
+        assertTrue(chunks.get() > 1);
+        assertTrue(chunks.get() < 50);
+    }
+}
@@ -0,0 +1,43 @@
+package dev.phlp.stud.evaluator.service.command;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import dev.phlp.stud.evaluator.model.state.ExecutionCacheEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutionResultCacheTest {
+
+    @Test
+    void resultsAreKeyedByCommitNodeAndCommands(@TempDir Path tempDir) throws Exception {
+        List<String> commands = List.of("mvn -q test");
+        new ExecutionResultCache().record(tempDir, "abc123", "Tests/Unit", commands, CommandOutcome.FAILED, 1,
+                "logs/run.log");
+        new ExecutionResultCache().record(tempDir, "abc123", "Tests/Build", commands, CommandOutcome.CANCELLED, 130, null);
+
+        ExecutionResultCache reloaded = new ExecutionResultCache();
+        ExecutionCacheEntry entry = reloaded.lookup(tempDir, "abc123", "Tests/Unit", commands).orElseThrow();
+        assertEquals(CommandOutcome.FAILED, ExecutionResultCache.outcome(entry));
+        assertEquals(1, entry.getExitCode());
+        assertEquals("logs/run.log", entry.getLogFile());
+        assertTrue(Files.exists(tempDir.resolve(ExecutionResultCache.FILE_NAME)));
+
+        assertTrue(reloaded.lookup(tempDir, "def456", "Tests/Unit", commands).isEmpty());
+        assertTrue(reloaded.lookup(tempDir, "abc123", "Tests/Unit", List.of("mvn test")).isEmpty());
+        assertTrue(reloaded.lookup(tempDir, "abc123", "Tests/Build", commands).isEmpty());
+        assertTrue(reloaded.lookup(tempDir, null, "Tests/Unit", commands).isEmpty());
+    }
+
+    @Test
+    void commandHashSeparatesCommandBoundaries() {
+        assertNotEquals(ExecutionResultCache.commandHash(List.of("ab", "c")),
+                ExecutionResultCache.commandHash(List.of("a", "bc")));
+        assertEquals(ExecutionResultCache.commandHash(List.of("make")), ExecutionResultCache.commandHash(List.of("make")));
+    }
+}
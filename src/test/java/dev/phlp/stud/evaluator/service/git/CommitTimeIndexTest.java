@@ -0,0 +1,87 @@
+package dev.phlp.stud.evaluator.service.git;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CommitTimeIndexTest {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    @Test
+    void resolvesDeadlinesAndAdvancesIncrementally(@TempDir Path tempDir) throws Exception {
+        Path directory = tempDir.resolve("repo");
+        List<RevCommit> commits = GitServiceTest.createHistory(directory,
+                LocalDate.of(2024, 1, 10), LocalDate.of(2024, 2, 10), LocalDate.of(2024, 3, 10));
+
+        try (Git git = Git.open(directory.toFile());
+             ObjectReader reader = git.getRepository().newObjectReader()) {
+            CommitTimeIndex index = CommitTimeIndex.empty().advanceTo(reader, commits.get(2));
+
+            assertEquals(3, index.size());
+            assertEquals(Optional.empty(), index.latestAtOrBefore(instant(2024, 1, 1)));
+            assertEquals(Optional.of(commits.get(0)), index.latestAtOrBefore(instant(2024, 2, 1)));
+            assertEquals(Optional.of(commits.get(1)), index.latestAtOrBefore(instant(2024, 2, 10)));
+            assertEquals(Optional.of(commits.get(2)), index.latestAtOrBefore(instant(2024, 12, 31)));
+
+            Files.writeString(directory.resolve("README.md"), "late");
+            PersonIdent ident = new PersonIdent("Student", "student@example.com", instant(2024, 4, 10), ZONE);
+            RevCommit late = git.commit().setAll(true).setMessage("late").setAuthor(ident).setCommitter(ident).setSign(false).call();
+
+            CommitTimeIndex advanced = index.advanceTo(reader, late);
+            assertEquals(4, advanced.size());
+            assertEquals(Optional.of(commits.get(2)), advanced.latestAtOrBefore(instant(2024, 4, 1)));
+
+            Path file = tempDir.resolve(CommitTimeIndex.FILE_NAME);
+            advanced.write(file);
+            CommitTimeIndex restored = CommitTimeIndex.read(file).orElseThrow();
+            assertEquals(late, restored.tip());
+            assertEquals(4, restored.size());
+            assertEquals(Optional.of((ObjectId) late), restored.latestAtOrBefore(instant(2024, 5, 1)));
+            assertSame(restored, restored.advanceTo(reader, late));
+        }
+    }
+
+    @Test
+    void resolvesTipAmongCommitsSharingATimestamp(@TempDir Path tempDir) throws Exception {
+        Path directory = tempDir.resolve("repo");
+        LocalDate day = LocalDate.of(2024, 1, 10);
+        List<RevCommit> commits = GitServiceTest.createHistory(directory, day, day, day);
+
+        try (Git git = Git.open(directory.toFile());
+             ObjectReader reader = git.getRepository().newObjectReader()) {
+            CommitTimeIndex rebuilt = CommitTimeIndex.empty().advanceTo(reader, commits.get(2));
+            assertEquals(Optional.of(commits.get(2)), rebuilt.latestAtOrBefore(instant(2024, 1, 11)));
+
+            CommitTimeIndex incremental = CommitTimeIndex.empty()
+                                                         .advanceTo(reader, commits.get(0))
+                                                         .advanceTo(reader, commits.get(2));
+            assertEquals(Optional.of(commits.get(2)), incremental.latestAtOrBefore(instant(2024, 1, 11)));
+
+            Files.writeString(directory.resolve("README.md"), "same second");
+            PersonIdent ident = new PersonIdent("Student", "student@example.com",
+                    day.atTime(12, 0).atZone(ZONE).toInstant(), ZONE);
+            RevCommit next = git.commit().setAll(true).setMessage("next").setAuthor(ident).setCommitter(ident).setSign(false).call();
+            assertEquals(Optional.of((ObjectId) next),
+                    rebuilt.advanceTo(reader, next).latestAtOrBefore(instant(2024, 1, 11)));
+        }
+    }
+
+    private static Instant instant(int year, int month, int day) {
+        return LocalDate.of(year, month, day).atTime(12, 0).atZone(ZONE).toInstant();
+    }
+}
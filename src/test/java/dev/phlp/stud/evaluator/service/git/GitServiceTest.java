@@ -0,0 +1,186 @@
+package dev.phlp.stud.evaluator.service.git;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GitServiceTest {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    @Test
+    void shallowCloneDeepensWhenDeadlineIsBeforeBoundary(@TempDir Path tempDir) throws Exception {
+        Path upstream = tempDir.resolve("upstream");
+        List<RevCommit> commits = createHistory(upstream,
+                LocalDate.of(2024, 1, 10), LocalDate.of(2024, 3, 10), LocalDate.of(2024, 5, 10));
+
+        GitService service = new GitService();
+        Path clone = tempDir.resolve("clone");
+        Instant shallowSince = LocalDate.of(2024, 5, 1).atStartOfDay(ZONE).toInstant();
+        assertEquals(RefreshOutcome.CLONED, service.cloneOrUpdate(upstream.toUri().toString(), clone, shallowSince));
+        try (Repository repository = Git.open(clone.toFile()).getRepository()) {
+            assertFalse(repository.getObjectDatabase().getShallowCommits().isEmpty());
+        }
+
+        String ref = service.checkoutLatestBefore(clone, LocalDate.of(2024, 2, 1));
+
+        assertEquals(commits.get(0).getName(), ref);
+        try (Repository repository = Git.open(clone.toFile()).getRepository()) {
+            assertTrue(repository.getObjectDatabase().getShallowCommits().isEmpty());
+        }
+    }
+
+    @Test
+    void switchingSnapshotsOnlyRewritesChangedFiles(@TempDir Path tempDir) throws Exception {
+        Path upstream = tempDir.resolve("upstream");
+        Files.createDirectories(upstream);
+        Files.writeString(upstream.resolve("Unchanged.java"), "class Unchanged {}");
+        try (Git git = Git.init().setDirectory(upstream.toFile()).setInitialBranch("main").call()) {
+            git.add().addFilepattern("Unchanged.java").call();
+        }
+        List<RevCommit> commits = createHistory(upstream,
+                LocalDate.of(2024, 1, 10), LocalDate.of(2024, 3, 10));
+
+        GitService service = new GitService();
+        Path clone = tempDir.resolve("clone");
+        service.cloneOrUpdate(upstream.toUri().toString(), clone);
+        service.checkoutLatestBefore(clone, LocalDate.of(2024, 12, 31));
+        Path unchanged = clone.resolve("Unchanged.java");
+        FileTime marker = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(unchanged, marker);
+        Files.writeString(clone.resolve("README.md"), "local modification");
+
+        try (GitService.RepositorySession session = service.openSession(clone)) {
+            session.checkoutLatestBefore(LocalDate.of(2024, 2, 1));
+            assertEquals("revision 0", Files.readString(clone.resolve("README.md")));
+            assertEquals(marker, Files.getLastModifiedTime(unchanged));
+
+            session.checkoutLatestBefore(LocalDate.of(2024, 4, 1));
+            assertEquals("revision 1", Files.readString(clone.resolve("README.md")));
+            assertEquals(marker, Files.getLastModifiedTime(unchanged));
+            assertEquals(commits.get(1).getName(), session.resolveCurrentCommit());
+        }
+        try (Repository repository = Git.open(clone.toFile()).getRepository()) {
+            assertEquals("evaluation-snapshot", repository.getBranch());
+        }
+    }
+
+    @Test
+    void unchangedRepreparationInTagModeLeavesCheckoutUntouched(@TempDir Path tempDir) throws Exception {
+        Path upstream = tempDir.resolve("upstream");
+        List<RevCommit> commits = createHistory(upstream, LocalDate.of(2024, 1, 10), LocalDate.of(2024, 3, 10));
+        try (Git git = Git.open(upstream.toFile())) {
+            git.tag().setName("abgabe").setObjectId(commits.get(0)).setAnnotated(false).call();
+        }
+
+        GitService service = new GitService();
+        Path clone = tempDir.resolve("clone");
+        try (GitService.RepositorySession session = service.prepareSession(upstream.toUri().toString(), clone, null)) {
+            session.checkoutTag("abgabe");
+        }
+        Path index = clone.resolve(".git").resolve("index");
+        FileTime marker = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(index, marker);
+        byte[] indexContent = Files.readAllBytes(index);
+
+        try (GitService.RepositorySession session = service.prepareSession(upstream.toUri().toString(), clone, null)) {
+            assertEquals(RefreshOutcome.UP_TO_DATE, session.refreshOutcome());
+            try (Repository repository = Git.open(clone.toFile()).getRepository()) {
+                assertEquals("evaluation-snapshot", repository.getBranch());
+            }
+            assertEquals(commits.get(0).getName(), session.checkoutTag("abgabe"));
+        }
+
+        try (Repository repository = Git.open(clone.toFile()).getRepository()) {
+            assertEquals("evaluation-snapshot", repository.getBranch());
+            assertEquals(commits.get(0), repository.resolve("HEAD"));
+        }
+        assertEquals(marker, Files.getLastModifiedTime(index));
+        assertArrayEquals(indexContent, Files.readAllBytes(index));
+        assertEquals("revision 0", Files.readString(clone.resolve("README.md")));
+    }
+
+    @Test
+    void fetchedUpdateInTagModeOnlyRewritesChangedFiles(@TempDir Path tempDir) throws Exception {
+        Path upstream = tempDir.resolve("upstream");
+        Files.createDirectories(upstream);
+        Files.writeString(upstream.resolve("Unchanged.java"), "class Unchanged {}");
+        try (Git git = Git.init().setDirectory(upstream.toFile()).setInitialBranch("main").call()) {
+            git.add().addFilepattern("Unchanged.java").call();
+        }
+        List<RevCommit> commits = createHistory(upstream, LocalDate.of(2024, 1, 10));
+        try (Git git = Git.open(upstream.toFile())) {
+            git.tag().setName("abgabe").setObjectId(commits.get(0)).setAnnotated(false).call();
+        }
+
+        GitService service = new GitService();
+        Path clone = tempDir.resolve("clone");
+        try (GitService.RepositorySession session = service.prepareSession(upstream.toUri().toString(), clone, null)) {
+            session.checkoutTag("abgabe");
+        }
+        Path unchanged = clone.resolve("Unchanged.java");
+        FileTime marker = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(unchanged, marker);
+
+        RevCommit update;
+        try (Git git = Git.open(upstream.toFile())) {
+            Files.writeString(upstream.resolve("README.md"), "revision 1");
+            git.add().addFilepattern("README.md").call();
+            update = git.commit().setMessage("revision 1").setSign(false).call();
+            git.tag().setName("abgabe").setObjectId(update).setAnnotated(false).setForceUpdate(true).call();
+        }
+
+        try (GitService.RepositorySession session = service.prepareSession(upstream.toUri().toString(), clone, null)) {
+            assertEquals(RefreshOutcome.UPDATED, session.refreshOutcome());
+            try (Repository repository = Git.open(clone.toFile()).getRepository()) {
+                assertEquals("evaluation-snapshot", repository.getBranch());
+                assertEquals(commits.get(0), repository.resolve("HEAD"));
+            }
+            assertEquals(marker, Files.getLastModifiedTime(unchanged));
+
+            assertEquals(update.getName(), session.checkoutTag("abgabe"));
+        }
+
+        assertEquals("revision 1", Files.readString(clone.resolve("README.md")));
+        assertEquals(marker, Files.getLastModifiedTime(unchanged));
+        try (Repository repository = Git.open(clone.toFile()).getRepository()) {
+            assertEquals("evaluation-snapshot", repository.getBranch());
+            assertEquals(update, repository.resolve("HEAD"));
+        }
+    }
+
+    static List<RevCommit> createHistory(Path directory, LocalDate... commitDates) throws Exception {
+        List<RevCommit> commits = new ArrayList<>();
+        try (Git git = Git.init().setDirectory(directory.toFile()).setInitialBranch("main").call()) {
+            for (int i = 0; i < commitDates.length; i++) {
+                Files.writeString(directory.resolve("README.md"), "revision " + i);
+                git.add().addFilepattern("README.md").call();
+                PersonIdent ident = new PersonIdent("Student", "student@example.com",
+                        commitDates[i].atTime(12, 0).atZone(ZONE).toInstant(), ZONE);
+                commits.add(git.commit()
+                               .setMessage("revision " + i)
+                               .setAuthor(ident)
+                               .setCommitter(ident)
+                               .setSign(false)
+                               .call());
+            }
+        }
+        return commits;
+    }
+}
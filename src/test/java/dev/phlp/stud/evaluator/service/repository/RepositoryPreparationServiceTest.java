@@ -0,0 +1,169 @@
+package dev.phlp.stud.evaluator.service.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import dev.phlp.stud.evaluator.service.git.GitService;
+import dev.phlp.stud.evaluator.service.git.RefreshOutcome;
+import dev.phlp.stud.evaluator.service.storage.AutoSaveService;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RepositoryPreparationServiceTest {
+
+    @Test
+    void preparesRepositoriesInParallelAndKeepsPlaceholderOrder(@TempDir Path tempDir) throws Exception {
+        Path upstreamRoot = tempDir.resolve("upstream");
+        for (int i = 1; i <= 6; i++) {
+            if (i == 4) {
+                continue;
+            }
+            createUpstream(upstreamRoot.resolve(String.format("%03d", i)));
+        }
+
+        List<Integer> progress = new CopyOnWriteArrayList<>();
+        try (AutoSaveService autoSaveService = new AutoSaveService()) {
+            RepositoryPreparationService service = new RepositoryPreparationService(new GitService(), autoSaveService);
+            RepositoryPreparationRequest request = RepositoryPreparationRequest.builder()
+                                                                               .repositoryTemplate(upstreamRoot.toUri() + "{{number}}")
+                                                                               .placeholderRange(new PlaceholderRange(1, 6))
+                                                                               .repositoriesRoot(tempDir.resolve("repos"))
+                                                                               .evaluationsRoot(tempDir.resolve("evaluations").resolve("sample"))
+                                                                               .evaluationFileName("sample.json")
+                                                                               .concurrency(3)
+                                                                               .build();
+
+            RepositoryPreparationResult result = service.prepareRepositories(request, (completed, total) -> {
+                assertEquals(6, total);
+                progress.add(completed);
+            });
+
+            assertEquals(List.of(1, 2, 3, 5, 6), result.contexts().stream().map(RepositoryContext::placeholderValue).toList());
+            assertEquals(List.of(1, 2, 3, 4, 5, 6), progress);
+            assertTrue(result.errors().startsWith("[004]"));
+            assertTrue(Files.exists(tempDir.resolve("repos").resolve("006").resolve("README.md")));
+        }
+    }
+
+    @Test
+    void repeatedPreparationSkipsUnchangedRepositories(@TempDir Path tempDir) throws Exception {
+        Path upstreamRoot = tempDir.resolve("upstream");
+        createUpstream(upstreamRoot.resolve("001"));
+        createUpstream(upstreamRoot.resolve("002"));
+
+        try (AutoSaveService autoSaveService = new AutoSaveService()) {
+            RepositoryPreparationService service = new RepositoryPreparationService(new GitService(), autoSaveService);
+            RepositoryPreparationRequest request = RepositoryPreparationRequest.builder()
+                                                                               .repositoryTemplate(upstreamRoot.toUri() + "{{number}}")
+                                                                               .placeholderRange(new PlaceholderRange(1, 2))
+                                                                               .repositoriesRoot(tempDir.resolve("repos"))
+                                                                               .evaluationsRoot(tempDir.resolve("evaluations").resolve("sample"))
+                                                                               .evaluationFileName("sample.json")
+                                                                               .build();
+
+            RepositoryPreparationResult first = service.prepareRepositories(request, null);
+            assertEquals(RefreshOutcome.CLONED, first.refreshOutcomes().get(1));
+            assertEquals(0, first.unchangedCount());
+
+            try (Git git = Git.open(upstreamRoot.resolve("002").toFile())) {
+                Files.writeString(upstreamRoot.resolve("002").resolve("README.md"), "changed");
+                git.commit().setAll(true).setMessage("second").setSign(false).call();
+            }
+
+            RepositoryPreparationResult second = service.prepareRepositories(request, null);
+            assertEquals(RefreshOutcome.UP_TO_DATE, second.refreshOutcomes().get(1));
+            assertEquals(RefreshOutcome.UPDATED, second.refreshOutcomes().get(2));
+            assertEquals(1, second.unchangedCount());
+            assertEquals("changed", Files.readString(tempDir.resolve("repos").resolve("002").resolve("README.md")));
+        }
+    }
+
+    @Test
+    void sharesTemplateObjectsThroughReferenceRepository(@TempDir Path tempDir) throws Exception {
+        Path template = tempDir.resolve("template");
+        createUpstream(template);
+        Path upstreamRoot = tempDir.resolve("upstream");
+        for (String number : List.of("001", "002")) {
+            Path student = upstreamRoot.resolve(number);
+            try (Git git = Git.cloneRepository().setURI(template.toUri().toString()).setDirectory(student.toFile()).call()) {
+                Files.writeString(student.resolve("solution.txt"), "student " + number);
+                git.add().addFilepattern("solution.txt").call();
+                git.commit().setMessage("solution").setSign(false).call();
+            }
+        }
+
+        try (AutoSaveService autoSaveService = new AutoSaveService()) {
+            RepositoryPreparationService service = new RepositoryPreparationService(new GitService(), autoSaveService);
+            RepositoryPreparationRequest request = RepositoryPreparationRequest.builder()
+                                                                               .repositoryTemplate(upstreamRoot.toUri() + "{{number}}")
+                                                                               .placeholderRange(new PlaceholderRange(1, 2))
+                                                                               .repositoriesRoot(tempDir.resolve("repos"))
+                                                                               .evaluationsRoot(tempDir.resolve("evaluations").resolve("sample"))
+                                                                               .evaluationFileName("sample.json")
+                                                                               .templateRepositoryUrl(template.toUri().toString())
+                                                                               .build();
+
+            RepositoryPreparationResult result = service.prepareRepositories(request, null);
+
+            assertEquals("", result.errors());
+            assertEquals(2, result.contexts().size());
+            Path clone = tempDir.resolve("repos").resolve("002");
+            Path alternates = clone.resolve(".git").resolve("objects").resolve("info").resolve("alternates");
+            assertTrue(Files.exists(alternates));
+            ObjectId templateCommit;
+            try (Git git = Git.open(template.toFile())) {
+                templateCommit = git.getRepository().resolve(Constants.HEAD);
+            }
+            try (Git git = Git.open(clone.toFile());
+                 RevWalk walk = new RevWalk(git.getRepository())) {
+                assertEquals("initial", walk.parseCommit(templateCommit).getShortMessage());
+            }
+            // without the alternate the clone's own object store must lack the template commit
+            Path isolated = tempDir.resolve("isolated.git");
+            copyDirectory(clone.resolve(".git"), isolated);
+            Files.delete(isolated.resolve("objects").resolve("info").resolve("alternates"));
+            try (Git git = Git.open(isolated.toFile())) {
+                assertTrue(git.getRepository().getObjectDatabase().has(git.getRepository().resolve(Constants.HEAD)));
+                assertFalse(git.getRepository().getObjectDatabase().has(templateCommit));
+            }
+            assertEquals("student 002", Files.readString(clone.resolve("solution.txt")));
+            assertEquals("hello", Files.readString(clone.resolve("README.md")));
+
+            RepositoryPreparationResult second = service.prepareRepositories(request, null);
+            assertEquals(2, second.unchangedCount());
+        }
+    }
+
+    private static void copyDirectory(Path source, Path target) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.toList()) {
+                Path destination = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(destination);
+                } else {
+                    Files.copy(path, destination);
+                }
+            }
+        }
+    }
+
+    private void createUpstream(Path directory) throws Exception {
+        try (Git git = Git.init().setDirectory(directory.toFile()).setInitialBranch("main").call()) {
+            Files.writeString(directory.resolve("README.md"), "hello");
+            git.add().addFilepattern("README.md").call();
+            git.commit().setMessage("initial").setSign(false).call();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package dev.phlp.stud.evaluator.service.storage;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
+import dev.phlp.stud.evaluator.model.state.NodeSaveState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutoSaveServiceTest {
+    @Test
+    void keepsPendingSavesPerFileAndCoalescesRepeatedSaves(@TempDir Path tempDir) throws Exception {
+        Path first = tempDir.resolve("001").resolve("eval.json");
+        Path second = tempDir.resolve("002").resolve("eval.json");
+        try (AutoSaveService service = new AutoSaveService()) {
+            service.scheduleSave(first, data(1, "alt"));
+            service.scheduleSave(second, data(2, "b"));
+            service.scheduleSave(first, data(1, "neu"));
+            assertFalse(Files.exists(first));
+
+            assertTrue(service.flushAll(Duration.ofSeconds(5)));
+
+            assertEquals("neu", service.load(first).orElseThrow().getEvaluationTitle());
+            assertEquals("b", service.load(second).orElseThrow().getEvaluationTitle());
+            try (Stream<Path> files = Files.list(first.getParent())) {
+                assertEquals(1, files.count());
+            }
+        }
+    }
+
+    @Test
+    void writeImmediatelySupersedesPendingSave(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("eval.json");
+        try (AutoSaveService service = new AutoSaveService()) {
+            service.scheduleSave(file, data(1, "geplant"));
+            service.writeImmediately(file, data(1, "sofort"));
+            assertTrue(service.flushAll(Duration.ofSeconds(5)));
+            Thread.sleep(AutoSaveService.WRITE_DELAY.toMillis() + 250);
+
+            assertEquals("sofort", service.load(file).orElseThrow().getEvaluationTitle());
+        }
+    }
+
+    @Test
+    void replaysJournalOnLoadAndCompactsItOnSnapshot(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("eval.json");
+        Path journal = EvaluationJournal.journalFile(file);
+        try (AutoSaveService service = new AutoSaveService()) {
+            service.writeImmediately(file, data(1, "basis"));
+            service.appendChange(file, EvaluationJournal.Change.points("A/1", 2.5, true));
+            service.appendChange(file, EvaluationJournal.Change.comment("A/1", "Tab\tund\nZeile"));
+            service.appendChange(file, EvaluationJournal.Change.status("A/1", EvaluationStatus.FAILED));
+            service.appendChange(file, EvaluationJournal.Change.points("A/1", 3.0, true));
+            assertTrue(service.flushAll(Duration.ofSeconds(5)));
+
+            EvaluationSaveData loaded = service.load(file).orElseThrow();
+            NodeSaveState state = loaded.getNodes().get("A/1");
+            assertEquals("basis", loaded.getEvaluationTitle());
+            assertEquals(3.0, state.getAchievedPoints());
+            assertEquals(Boolean.TRUE, state.getAchievedPointsDefined());
+            assertEquals("Tab\tund\nZeile", state.getComment());
+            assertEquals(EvaluationStatus.FAILED, state.getStatus());
+
+            service.writeImmediately(file, loaded);
+            assertFalse(Files.exists(journal));
+            assertEquals(3.0, service.load(file).orElseThrow().getNodes().get("A/1").getAchievedPoints());
+        }
+    }
+
+    @Test
+    void flushMakesQueuedChangesVisibleForReadModifyWrite(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("eval.json");
+        try (AutoSaveService service = new AutoSaveService()) {
+            service.writeImmediately(file, data(1, "basis"));
+            service.scheduleSave(file, data(1, "geplant"));
+            for (int i = 0; i < 200; i++) {
+                service.appendChange(file, EvaluationJournal.Change.points("A/" + i, 1.0, true));
+            }
+
+            service.flush(file);
+            EvaluationSaveData loaded = service.load(file).orElseThrow();
+            NodeSaveState batch = new NodeSaveState();
+            batch.setAchievedPoints(4.0);
+            loaded.getNodes().put("B/1", batch);
+            service.writeImmediately(file, loaded);
+
+            EvaluationSaveData stored = service.load(file).orElseThrow();
+            assertEquals("geplant", stored.getEvaluationTitle());
+            assertEquals(201, stored.getNodes().size());
+            assertEquals(1.0, stored.getNodes().get("A/199").getAchievedPoints());
+            assertEquals(4.0, stored.getNodes().get("B/1").getAchievedPoints());
+        }
+    }
+
+    @Test
+    void ignoresTruncatedLastJournalLine(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("eval.json");
+        Path journal = EvaluationJournal.journalFile(file);
+        try (AutoSaveService service = new AutoSaveService()) {
+            service.appendChange(file, EvaluationJournal.Change.points("A/1", 1.0, true));
+            assertTrue(service.flushAll(Duration.ofSeconds(5)));
+        }
+        Files.writeString(journal, "2\t0\tPOINTS\tA/1\t4.", StandardOpenOption.APPEND);
+
+        try (AutoSaveService service = new AutoSaveService()) {
+            EvaluationSaveData loaded = service.load(file).orElseThrow();
+            assertEquals(1.0, loaded.getNodes().get("A/1").getAchievedPoints());
+
+            service.appendChange(file, EvaluationJournal.Change.points("A/1", 2.0, false));
+            assertTrue(service.flushAll(Duration.ofSeconds(5)));
+            NodeSaveState state = service.load(file).orElseThrow().getNodes().get("A/1");
+            assertEquals(Boolean.FALSE, state.getAchievedPointsDefined());
+        }
+    }
+
+    @Test
+    void loadsEveryFieldWrittenBySnapshotAndSkipsUnknownOnes(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("eval.json");
+        EvaluationSaveData original = data(7, "Titel");
+        original.setRepositoryUrl("https://example/7");
+        original.setCheckedOutReference("abc123");
+        original.setCheckoutStrategy("TAG:v1");
+        NodeSaveState state = new NodeSaveState();
+        state.setAchievedPoints(1.5);
+        state.setAchievedPointsDefined(true);
+        state.setStatus(EvaluationStatus.SUCCESS);
+        state.setComment("\"gut\"");
+        state.setLastLogFile("logs/a.log");
+        original.getNodes().put("A/1", state);
+        original.getNodes().put("A/2", new NodeSaveState());
+        try (AutoSaveService service = new AutoSaveService()) {
+            service.writeImmediately(file, original);
+            Files.writeString(file, Files.readString(file).replaceFirst("\\{", "{\"extra\": {\"x\": [1, 2]},"));
+
+            EvaluationSaveData loaded = service.load(file).orElseThrow();
+            assertEquals("https://example/7", loaded.getRepositoryUrl());
+            assertEquals("abc123", loaded.getCheckedOutReference());
+            assertEquals("TAG:v1", loaded.getCheckoutStrategy());
+            assertEquals(7, loaded.getPlaceholderValue());
+            assertEquals("Titel", loaded.getEvaluationTitle());
+            assertEquals(original.getSavedAt(), loaded.getSavedAt());
+            assertEquals(2, loaded.getNodes().size());
+            NodeSaveState loadedState = loaded.getNodes().get("A/1");
+            assertEquals(1.5, loadedState.getAchievedPoints());
+            assertEquals(Boolean.TRUE, loadedState.getAchievedPointsDefined());
+            assertEquals(EvaluationStatus.SUCCESS, loadedState.getStatus());
+            assertEquals("\"gut\"", loadedState.getComment());
+            assertEquals("logs/a.log", loadedState.getLastLogFile());
+        }
+    }
+
+    private static EvaluationSaveData data(int placeholder, String title) {
+        EvaluationSaveData data = new EvaluationSaveData();
+        data.setPlaceholderValue(placeholder);
+        data.setEvaluationTitle(title);
+        return data;
+    }
+}
@@ -0,0 +1,73 @@
+package dev.phlp.stud.evaluator.service.storage;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dev.phlp.stud.evaluator.model.EvaluationNode;
+import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.model.RubricIndex;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
+import dev.phlp.stud.evaluator.model.state.NodeSaveState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CohortScoreStoreTest {
+    @Test
+    void switchesBetweenRepositoriesAndComputesTotals() {
+        EvaluationNode taskA = new EvaluationNode(null, "Task A", 4.0, List.of(), "", false);
+        EvaluationNode taskB = new EvaluationNode(null, "Task B", 2.0, List.of(), "", false);
+        EvaluationNode bonus = new EvaluationNode(null, "Bonus", 1.0, List.of(), "", true);
+        EvaluationNode category = new EvaluationNode(null, "Category", 0.0, List.of(), "", false);
+        category.addChildren(List.of(taskA, taskB, bonus));
+        RubricIndex index = RubricIndex.of(List.of(category));
+
+        CohortScoreStore store = new CohortScoreStore(index, 3);
+        store.put(0, saveData(Map.of(
+                "Category/Task A", state(3.0, EvaluationStatus.SUCCESS, "logs/a.log", null),
+                "Category/Task B", state(9.0, null, null, "zu lang"))));
+        store.put(1, saveData(Map.of("Category/Task A", state(1.0, EvaluationStatus.FAILED, null, null))));
+        store.put(2, null);
+
+        String[] logReferences = new String[index.size()];
+        store.applyTo(0, logReferences);
+        assertEquals(5.0, category.getAchievedPoints());
+        assertEquals("zu lang", taskB.getComment());
+        assertEquals("logs/a.log", logReferences[index.id(taskA)]);
+        assertEquals(EvaluationStatus.PENDING, category.getStatus());
+
+        store.applyTo(1, logReferences);
+        assertEquals(1.0, category.getAchievedPoints());
+        assertEquals(0.0, taskB.getAchievedPoints());
+        assertFalse(taskB.isAchievedPointsDefined());
+        assertEquals("", taskB.getComment());
+        assertNull(logReferences[index.id(taskA)]);
+        assertEquals(EvaluationStatus.FAILED, category.getStatus());
+
+        assertEquals(6.0, store.maxTotal());
+        assertEquals(5.0, store.total(0));
+        assertEquals(0.0, store.total(2));
+        assertTrue(store.header(2).isEmpty());
+        assertEquals(1.0, store.total(1));
+    }
+
+    private static EvaluationSaveData saveData(Map<String, NodeSaveState> nodes) {
+        EvaluationSaveData data = new EvaluationSaveData();
+        data.setNodes(new HashMap<>(nodes));
+        return data;
+    }
+
+    private static NodeSaveState state(double points, EvaluationStatus status, String logFile, String comment) {
+        NodeSaveState state = new NodeSaveState();
+        state.setAchievedPoints(points);
+        state.setAchievedPointsDefined(true);
+        state.setStatus(status);
+        state.setLastLogFile(logFile);
+        state.setComment(comment);
+        return state;
+    }
+}
@@ -0,0 +1,73 @@
+package dev.phlp.stud.evaluator.service.workflow;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.phlp.stud.evaluator.model.EvaluationNode;
+import dev.phlp.stud.evaluator.model.RubricIndex;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
+import dev.phlp.stud.evaluator.model.state.NodeSaveState;
+import dev.phlp.stud.evaluator.service.export.MarkdownExporter;
+import dev.phlp.stud.evaluator.service.repository.CheckoutInfo;
+import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
+import dev.phlp.stud.evaluator.service.storage.AutoSaveService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CohortExportServiceTest {
+
+    @Test
+    void exportsEveryRepositoryFromStoredEvaluationsAndReportsFailures(@TempDir Path tempDir) throws Exception {
+        List<RepositoryContext> repositories = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Path repository = Files.createDirectories(tempDir.resolve("repos").resolve("00" + i));
+            Path evaluationDirectory = Files.createDirectories(tempDir.resolve("evaluations").resolve("00" + i));
+            repositories.add(new RepositoryContext(i, "https://example/00" + i, repository, evaluationDirectory,
+                    evaluationDirectory.resolve("sample.json"), evaluationDirectory.resolve("logs"),
+                    new CheckoutInfo(null, null)));
+        }
+        EvaluationNode category = new EvaluationNode(null, "Tests", 0.0, List.of(), "", false);
+        EvaluationNode compiles = new EvaluationNode(null, "Kompiliert", 3.0, List.of(), "", false);
+        EvaluationNode style = new EvaluationNode(null, "Stil", 2.0, List.of(), "", false);
+        category.addChildren(List.of(compiles, style));
+        RubricIndex rubric = RubricIndex.of(List.of(category));
+
+        try (AutoSaveService autoSaveService = new AutoSaveService()) {
+            autoSaveService.writeImmediately(repositories.get(0).evaluationFile(),
+                    saveData("Tests/Kompiliert", 3.0, "Sauber geloest"));
+            Files.writeString(repositories.get(2).evaluationFile(), "{ kaputt");
+
+            CohortExportService service = new CohortExportService(autoSaveService, new MarkdownExporter());
+            List<CohortExportService.RepositoryExportResult> results = service.export(rubric, repositories,
+                    new CohortExportService.ExportSettings(null, "feedback"), 2);
+
+            assertEquals(3, results.size());
+            assertTrue(results.get(0).successful());
+            assertEquals(3.0, results.get(0).achievedPoints());
+            String first = Files.readString(tempDir.resolve("repos/001/feedback.md"));
+            assertTrue(first.contains("| Tests | 3 | 5 | 60% |"));
+            assertTrue(first.contains("> Sauber geloest"));
+            assertTrue(results.get(1).successful());
+            assertTrue(Files.readString(results.get(1).file()).contains("| **Gesamt** | 0 | 5 | 0% |"));
+            assertFalse(results.get(2).successful());
+            assertFalse(Files.exists(tempDir.resolve("repos/003/feedback.md")));
+        }
+        assertEquals(0.0, category.getAchievedPoints());
+    }
+
+    private static EvaluationSaveData saveData(String qualifiedName, double points, String comment) {
+        NodeSaveState state = new NodeSaveState();
+        state.setAchievedPoints(points);
+        state.setAchievedPointsDefined(true);
+        state.setComment(comment);
+        EvaluationSaveData data = new EvaluationSaveData();
+        data.getNodes().put(qualifiedName, state);
+        return data;
+    }
+}
@@ -0,0 +1,126 @@
+package dev.phlp.stud.evaluator.service.workflow;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import dev.phlp.stud.evaluator.model.EvaluationNode;
+import dev.phlp.stud.evaluator.model.EvaluationStatus;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
+import dev.phlp.stud.evaluator.model.state.NodeSaveState;
+import dev.phlp.stud.evaluator.service.command.CommandLogService;
+import dev.phlp.stud.evaluator.service.command.CommandOutcome;
+import dev.phlp.stud.evaluator.service.command.CommandRunner;
+import dev.phlp.stud.evaluator.service.repository.CheckoutInfo;
+import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
+import dev.phlp.stud.evaluator.service.storage.AutoSaveService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrossRepositoryBatchServiceTest {
+
+    @Test
+    void runsTasksInEveryRepositoryAndStoresResults(@TempDir Path tempDir) throws Exception {
+        List<RepositoryContext> repositories = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Path repository = Files.createDirectories(tempDir.resolve("repos").resolve("00" + i));
+            if (i != 2) {
+                Files.writeString(repository.resolve("Solution.java"), "class Solution {}");
+            }
+            Path evaluationDirectory = Files.createDirectories(tempDir.resolve("evaluations").resolve("00" + i));
+            repositories.add(new RepositoryContext(i, "https://example/00" + i, repository, evaluationDirectory,
+                    evaluationDirectory.resolve("sample.json"), evaluationDirectory.resolve("logs"),
+                    new CheckoutInfo(null, null)));
+        }
+        EvaluationNode category = new EvaluationNode(null, "Tests", 0.0, List.of(), "", false);
+        EvaluationNode compiles = new EvaluationNode(null, "Datei vorhanden", 3.0, List.of("test -f Solution.java"), "", false);
+        EvaluationNode echo = new EvaluationNode(null, "Ausgabe", 2.0, List.of("echo ok"), "", false);
+        category.addChild(compiles);
+        category.addChild(echo);
+
+        List<Integer> started = new CopyOnWriteArrayList<>();
+        try (CommandRunner commandRunner = new CommandRunner();
+             AutoSaveService autoSaveService = new AutoSaveService()) {
+            CrossRepositoryBatchService service =
+                    new CrossRepositoryBatchService(commandRunner, new CommandLogService(), autoSaveService);
+
+            List<CrossRepositoryBatchService.RepositoryBatchResult> results = service.run(repositories,
+                    List.of(compiles, echo), 2, new CrossRepositoryBatchService.BatchListener() {
+                        @Override
+                        public void onRepositoryStarted(RepositoryContext repository) {
+                            started.add(repository.placeholderValue());
+                        }
+
+                        @Override
+                        public void onOutput(RepositoryContext repository, List<String> lines) {
+                        }
+
+                        @Override
+                        public void onRepositoryFinished(CrossRepositoryBatchService.RepositoryBatchResult result) {
+                        }
+                    });
+
+            assertEquals(3, results.size());
+            assertEquals(3, started.size());
+            assertTrue(results.get(0).successful());
+            assertEquals(5.0, results.get(0).achievedPoints());
+            assertFalse(results.get(1).successful());
+            assertEquals(CommandOutcome.FAILED, results.get(1).outcomes().get("Tests/Datei vorhanden"));
+            assertEquals(2.0, results.get(1).achievedPoints());
+
+            EvaluationSaveData saved = autoSaveService.load(repositories.get(1).evaluationFile()).orElseThrow();
+            NodeSaveState failed = saved.getNodes().get("Tests/Datei vorhanden");
+            assertEquals(0.0, failed.getAchievedPoints());
+            assertEquals(EvaluationStatus.FAILED, failed.getStatus());
+            assertTrue(Files.exists(repositories.get(1).evaluationDirectory().resolve(failed.getLastLogFile())));
+            assertEquals(2.0, saved.getNodes().get("Tests/Ausgabe").getAchievedPoints());
+        }
+    }
+
+    @Test
+    void reusesCachedResultsForUnchangedCommitUnlessForced(@TempDir Path tempDir) throws Exception {
+        Path repository = Files.createDirectories(tempDir.resolve("repos").resolve("001"));
+        Path evaluationDirectory = Files.createDirectories(tempDir.resolve("evaluations").resolve("001"));
+        List<RepositoryContext> repositories = List.of(new RepositoryContext(1, "https://example/001", repository,
+                evaluationDirectory, evaluationDirectory.resolve("sample.json"), evaluationDirectory.resolve("logs"),
+                new CheckoutInfo("0123456789abcdef", null)));
+        EvaluationNode counter = new EvaluationNode(null, "Zaehler", 1.0, List.of("echo run >> runs.txt"), "", false);
+
+        try (CommandRunner commandRunner = new CommandRunner();
+             AutoSaveService autoSaveService = new AutoSaveService()) {
+            CrossRepositoryBatchService service =
+                    new CrossRepositoryBatchService(commandRunner, new CommandLogService(), autoSaveService);
+            CrossRepositoryBatchService.BatchListener listener = new CrossRepositoryBatchService.BatchListener() {
+                @Override
+                public void onRepositoryStarted(RepositoryContext repository) {
+                }
+
+                @Override
+                public void onOutput(RepositoryContext repository, List<String> lines) {
+                }
+
+                @Override
+                public void onRepositoryFinished(CrossRepositoryBatchService.RepositoryBatchResult result) {
+                }
+            };
+
+            service.run(repositories, List.of(counter), 1, listener);
+            List<CrossRepositoryBatchService.RepositoryBatchResult> cached = service.run(repositories, List.of(counter), 1, listener);
+            assertEquals(1, Files.readAllLines(repository.resolve("runs.txt")).size());
+            assertTrue(cached.get(0).successful());
+            assertEquals(1.0, cached.get(0).achievedPoints());
+            String logFile = autoSaveService.load(repositories.get(0).evaluationFile()).orElseThrow()
+                                            .getNodes().get("Zaehler").getLastLogFile();
+            assertTrue(Files.exists(evaluationDirectory.resolve(logFile)));
+
+            service.run(repositories, List.of(counter), 1, true, listener);
+            assertEquals(2, Files.readAllLines(repository.resolve("runs.txt")).size());
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package dev.phlp.stud.evaluator.service.workflow;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -9,24 +13,36 @@ import dev.phlp.stud.evaluator.core.di.DefaultServiceRegistry;
 import dev.phlp.stud.evaluator.core.di.ServiceRegistry;
 import dev.phlp.stud.evaluator.core.events.EventBus;
 import dev.phlp.stud.evaluator.core.events.SimpleEventBus;
+import dev.phlp.stud.evaluator.events.EvaluationTreeAvailabilityChanged;
+import dev.phlp.stud.evaluator.events.RepositoryActionsAvailabilityChanged;
 import dev.phlp.stud.evaluator.events.RepositoryConfigurationLoaded;
+import dev.phlp.stud.evaluator.events.RepositoryContextActivated;
 import dev.phlp.stud.evaluator.events.RepositoryStandaloneModeActivated;
 import dev.phlp.stud.evaluator.events.TotalsUpdated;
+import dev.phlp.stud.evaluator.model.EvaluationNode;
 import dev.phlp.stud.evaluator.model.config.EvaluationConfig;
 import dev.phlp.stud.evaluator.model.config.EvaluationNodeConfig;
 import dev.phlp.stud.evaluator.service.command.CommandLogService;
 import dev.phlp.stud.evaluator.service.command.CommandRunner;
 import dev.phlp.stud.evaluator.service.dialog.DialogService;
 import dev.phlp.stud.evaluator.service.export.MarkdownExporter;
+import dev.phlp.stud.evaluator.model.state.EvaluationSaveData;
 import dev.phlp.stud.evaluator.service.git.GitService;
+import dev.phlp.stud.evaluator.service.repository.CheckoutInfo;
+import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
+import dev.phlp.stud.evaluator.service.repository.RepositoryPreparationResult;
 import dev.phlp.stud.evaluator.service.storage.AutoSaveService;
+import dev.phlp.stud.evaluator.service.storage.EvaluationJournal;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DefaultEvaluationWorkflowTest {
@@ -35,11 +51,13 @@ class DefaultEvaluationWorkflowTest {
     private TestDialogService dialogService;
     private EventBus eventBus;
     private DefaultEvaluationWorkflow workflow;
+    private AutoSaveService autoSaveService;
 
     @BeforeEach
     void setUp() {
         registry = new DefaultServiceRegistry();
-        registry.add(AutoSaveService.class, new AutoSaveService());
+        autoSaveService = new AutoSaveService();
+        registry.add(AutoSaveService.class, autoSaveService);
         registry.add(CommandRunner.class, new CommandRunner());
         registry.add(CommandLogService.class, new CommandLogService());
         registry.add(MarkdownExporter.class, new MarkdownExporter());
@@ -106,6 +124,123 @@ class DefaultEvaluationWorkflowTest {
         assertEquals(7, placeholderEvent.get().placeholderValue());
     }
 
+    @Test
+    void browsingRepositoriesWritesNothing(@TempDir Path tempDir) throws Exception {
+        workflow.initialize(null, sampleConfig(), tempDir);
+        List<RepositoryContext> contexts = contexts(tempDir, 3);
+        EvaluationSaveData stored = new EvaluationSaveData();
+        stored.setPlaceholderValue(1);
+        autoSaveService.writeImmediately(contexts.get(0).evaluationFile(), stored);
+        byte[] storedContent = Files.readAllBytes(contexts.get(0).evaluationFile());
+        Instant savedAt = autoSaveService.load(contexts.get(0).evaluationFile()).orElseThrow().getSavedAt();
+
+        workflow.activatePreparedRepositories(new RepositoryPreparationResult(contexts, ""));
+        workflow.adjustPlaceholder(1);
+        workflow.adjustPlaceholder(1);
+        workflow.adjustPlaceholder(-2);
+        assertTrue(autoSaveService.flushAll(Duration.ofSeconds(5)));
+
+        for (int i = 0; i < contexts.size(); i++) {
+            assertFalse(workflow.isDirty(i));
+        }
+        assertArrayEquals(storedContent, Files.readAllBytes(contexts.get(0).evaluationFile()));
+        assertEquals(savedAt, autoSaveService.load(contexts.get(0).evaluationFile()).orElseThrow().getSavedAt());
+        for (RepositoryContext context : contexts.subList(1, contexts.size())) {
+            assertFalse(Files.exists(context.evaluationFile()));
+            assertFalse(Files.exists(EvaluationJournal.journalFile(context.evaluationFile())));
+        }
+    }
+
+    @Test
+    void editsMarkOnlyTheirContextDirtyAndLoadingMarksItSaved(@TempDir Path tempDir) throws Exception {
+        workflow.initialize(null, sampleConfig(), tempDir);
+        List<RepositoryContext> contexts = contexts(tempDir, 3);
+        workflow.activatePreparedRepositories(new RepositoryPreparationResult(contexts, ""));
+        EvaluationNode task = workflow.getRootNodes().get(0);
+
+        task.setAchievedPoints(2.0);
+        assertDirty(0);
+
+        workflow.adjustPlaceholder(1);
+        assertDirty(-1);
+        task.setComment("Gut");
+        assertDirty(1);
+
+        workflow.adjustPlaceholder(1);
+        assertDirty(-1);
+        workflow.recordLogReference(task, Path.of("logs", "task.log"));
+        assertDirty(2);
+
+        assertTrue(workflow.createCrossRepositoryExecutionContext(task).isPresent());
+        workflow.onCrossRepositoryExecutionStarted();
+        assertDirty(-1);
+        EvaluationSaveData batchResult = autoSaveService.load(contexts.get(2).evaluationFile()).orElseThrow();
+        batchResult.getNodes().get("Task").setAchievedPoints(4.0);
+        autoSaveService.writeImmediately(contexts.get(2).evaluationFile(), batchResult);
+        workflow.onCrossRepositoryExecutionFinished();
+        assertDirty(-1);
+        assertEquals(4.0, task.getAchievedPoints());
+
+        workflow.adjustPlaceholder(-2);
+        assertDirty(-1);
+        assertEquals(2.0, task.getAchievedPoints());
+        assertTrue(autoSaveService.flushAll(Duration.ofSeconds(5)));
+        assertEquals(2.0, autoSaveService.load(contexts.get(0).evaluationFile()).orElseThrow()
+                                         .getNodes().get("Task").getAchievedPoints());
+    }
+
+    @Test
+    void crossRepositoryRunBlocksNavigationEditsAndCommands(@TempDir Path tempDir) throws Exception {
+        workflow.initialize(null, sampleConfig(), tempDir);
+        List<RepositoryContext> contexts = contexts(tempDir, 3);
+        workflow.activatePreparedRepositories(new RepositoryPreparationResult(contexts, ""));
+        EvaluationNode task = workflow.getRootNodes().get(0);
+        List<Boolean> treeAvailability = new ArrayList<>();
+        List<RepositoryActionsAvailabilityChanged> actionAvailability = new ArrayList<>();
+        AtomicReference<RepositoryContextActivated> activated = new AtomicReference<>();
+        eventBus.subscribe(EvaluationTreeAvailabilityChanged.class, event -> treeAvailability.add(event.enabled()));
+        eventBus.subscribe(RepositoryActionsAvailabilityChanged.class, actionAvailability::add);
+        eventBus.subscribe(RepositoryContextActivated.class, activated::set);
+
+        assertTrue(workflow.createCrossRepositoryExecutionContext(task).isPresent());
+        workflow.onCrossRepositoryExecutionStarted();
+        assertEquals(List.of(false), treeAvailability);
+        assertEquals(List.of(new RepositoryActionsAvailabilityChanged(false, false)), actionAvailability);
+
+        activated.set(null);
+        workflow.adjustPlaceholder(1);
+        assertNull(activated.get());
+        assertTrue(workflow.createCommandExecutionContext(task).isEmpty());
+        assertTrue(workflow.createCrossRepositoryExecutionContext(task).isEmpty());
+        task.setAchievedPoints(1.0);
+        assertDirty(-1);
+        assertFalse(Files.exists(EvaluationJournal.journalFile(contexts.get(0).evaluationFile())));
+
+        workflow.onCrossRepositoryExecutionFinished();
+        assertEquals(List.of(false, true), treeAvailability);
+        assertEquals(new RepositoryActionsAvailabilityChanged(true, true), actionAvailability.get(1));
+        workflow.adjustPlaceholder(1);
+        assertEquals(1, activated.get().currentIndex());
+    }
+
+    private void assertDirty(int dirtyIndex) {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i == dirtyIndex, workflow.isDirty(i), "Kontext " + i);
+        }
+    }
+
+    private static List<RepositoryContext> contexts(Path tempDir, int count) throws Exception {
+        List<RepositoryContext> contexts = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Path repository = Files.createDirectories(tempDir.resolve("repos").resolve("00" + i));
+            Path evaluationDirectory = Files.createDirectories(tempDir.resolve("evaluations").resolve("00" + i));
+            contexts.add(new RepositoryContext(i, "https://example/00" + i, repository, evaluationDirectory,
+                    evaluationDirectory.resolve("sample.json"), evaluationDirectory.resolve("logs"),
+                    new CheckoutInfo(null, null)));
+        }
+        return contexts;
+    }
+
     private EvaluationConfig sampleConfig() {
         EvaluationNodeConfig node = new EvaluationNodeConfig();
         node.setName("Task");
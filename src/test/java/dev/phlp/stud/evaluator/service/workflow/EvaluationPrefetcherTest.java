@@ -0,0 +1,65 @@
+package dev.phlp.stud.evaluator.service.workflow;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import dev.phlp.stud.evaluator.service.command.ExecutionResultCache;
+import dev.phlp.stud.evaluator.service.git.GitService;
+import dev.phlp.stud.evaluator.service.repository.CheckoutInfo;
+import dev.phlp.stud.evaluator.service.repository.RepositoryContext;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvaluationPrefetcherTest {
+    @Test
+    void resolvesHeadOfNeighboursInBackground(@TempDir Path tempDir) throws Exception {
+        List<RepositoryContext> contexts = new ArrayList<>();
+        List<String> heads = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            Path repository = tempDir.resolve("repos").resolve("00" + i);
+            Files.createDirectories(repository);
+            Files.writeString(repository.resolve("README.md"), "Repository " + i);
+            try (Git git = Git.init().setDirectory(repository.toFile()).setInitialBranch("main").call()) {
+                git.add().addFilepattern("README.md").call();
+                RevCommit commit = git.commit().setMessage("initial").setSign(false).call();
+                heads.add(commit.getName());
+            }
+            Path evaluationDirectory = tempDir.resolve("evaluations").resolve("00" + i);
+            contexts.add(new RepositoryContext(i, "https://example/" + i, repository, evaluationDirectory,
+                    evaluationDirectory.resolve("eval.json"), evaluationDirectory.resolve("logs"),
+                    new CheckoutInfo(null, null)));
+        }
+
+        try (EvaluationPrefetcher prefetcher = new EvaluationPrefetcher(new GitService(), new ExecutionResultCache())) {
+            prefetcher.prefetchAround(contexts, 1);
+
+            assertEquals(Optional.of(heads.get(2)), awaitHead(prefetcher, contexts.get(2)));
+            assertEquals(Optional.of(heads.get(0)), awaitHead(prefetcher, contexts.get(0)));
+            assertEquals(Optional.of(heads.get(1)), awaitHead(prefetcher, contexts.get(1)));
+            assertTrue(prefetcher.headCommit(contexts.get(3)).isEmpty());
+
+            prefetcher.prefetchAround(contexts, 3);
+            assertTrue(prefetcher.headCommit(contexts.get(0)).isEmpty());
+            assertEquals(Optional.of(heads.get(3)), awaitHead(prefetcher, contexts.get(3)));
+        }
+    }
+
+    private static Optional<String> awaitHead(EvaluationPrefetcher prefetcher, RepositoryContext context)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        Optional<String> head = prefetcher.headCommit(context);
+        while (head.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            head = prefetcher.headCommit(context);
+        }
+        return head;
+    }
+}